@@ -0,0 +1,100 @@
+package mspr.backend.config;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import mspr.backend.dto.CursorPage;
+
+/**
+ * Result cache of the read endpoints' service methods (Caffeine, see spring.cache.* properties).
+ * <p>
+ * One cache per entity; write methods evict the caches whose results embed the written entity,
+ * and the ETL clears all of them at the end of an import.
+ * <p>
+ * Entries are weighed by the number of rows they hold, so that {@code maximumWeight} bounds the
+ * rows kept rather than the number of results. Evictions made in a transaction are applied after
+ * it commits: a read between the eviction and the commit cannot put the old rows back in the cache.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig implements CachingConfigurer {
+
+    public static final String COUNTRIES = "countries";
+    public static final String REGIONS = "regions";
+    public static final String LOCATIONS = "locations";
+    public static final String DISEASES = "diseases";
+    public static final String DISEASE_CASES = "diseaseCases";
+    // Aggregates and filtered KPIs, read from the daily rollup
+    public static final String DISEASE_CASE_AGGREGATES = "diseaseCaseAggregates";
+
+    /**
+     * Keys are the method name and its arguments: methods of a cache with the same
+     * parameters (e.g. start and end dates) do not share entries.
+     */
+    @Override
+    public KeyGenerator keyGenerator() {
+        return (target, method, params) -> {
+            Object[] key = Arrays.copyOf(new Object[] {method.getName()}, params.length + 1);
+            System.arraycopy(params, 0, key, 1, params.length);
+            return new SimpleKey(key);
+        };
+    }
+
+    /**
+     * Replaces Spring Boot's Caffeine cache manager, which cannot be given a weigher
+     * (spring.cache.type=none, as in the tests, still gets Boot's no-op manager).
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine")
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        String spec = cacheProperties.getCaffeine().getSpec();
+        Caffeine<Object, Object> caffeine = spec != null ? Caffeine.from(spec) : Caffeine.newBuilder();
+        cacheManager.setCaffeine(caffeine.weigher((Object key, Object value) -> weightOf(value)));
+        if (!cacheProperties.getCacheNames().isEmpty()) {
+            cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        }
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * @return The number of rows of a cached result, 1 for a single entity or value.
+     */
+    static int weightOf(Object value) {
+        if (value instanceof Optional<?> optional) {
+            return optional.map(CacheConfig::weightOf).orElse(1);
+        }
+        int rows;
+        if (value instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (value instanceof Map<?, ?> map) {
+            rows = map.size();
+        } else if (value instanceof Page<?> page) {
+            rows = page.getNumberOfElements();
+        } else if (value instanceof CursorPage<?> page) {
+            rows = page.getContent().size();
+        } else {
+            rows = 1;
+        }
+        return Math.max(rows, 1);
+    }
+}
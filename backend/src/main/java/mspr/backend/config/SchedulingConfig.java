@@ -0,0 +1,12 @@
+package mspr.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the periodic jobs (KPI counters reconciliation).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,74 @@
+package mspr.backend.config;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import mspr.backend.dto.ImportStatusDto;
+import mspr.backend.etl.helpers.ImportProgress;
+
+/**
+ * Makes the API read-only while a staged import runs.
+ * <p>
+ * A staged import reloads the disease cases into a staging table that replaces the live one at the
+ * end: a case written through the API in the meantime would be dropped with the live table, after
+ * having moved the KPI counters and the rollup. Reference data writes are refused as well, their
+ * deletes cascade to the live cases and could leave the staged cases without their location.
+ * Writes are rejected with 503 and a Retry-After header rather than queued, so that clients know
+ * their change was not applied; they can retry once /api/etl/status reports the import as finished.
+ */
+@Configuration
+public class StagedImportWriteGuard implements WebMvcConfigurer {
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    // Retry-After when the import cannot estimate its remaining time yet
+    private static final long DEFAULT_RETRY_AFTER_SECONDS = 60;
+
+    @Autowired
+    private ImportProgress importProgress;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+                    throws IOException {
+                if (!WRITE_METHODS.contains(request.getMethod()) || !importProgress.isStagedImportRunning()) {
+                    return true;
+                }
+                reject(response);
+                return false;
+            }
+        }).addPathPatterns("/api/**");
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        ImportStatusDto status = importProgress.snapshot();
+        long retryAfter = status.getEtaMs() != null
+                ? Math.max(1, status.getEtaMs() / 1000)
+                : DEFAULT_RETRY_AFTER_SECONDS;
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "success", false,
+                "error", "Import en cours : les données sont en lecture seule jusqu'à sa publication"));
+    }
+}
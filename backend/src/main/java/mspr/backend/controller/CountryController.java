@@ -1,9 +1,11 @@
 package mspr.backend.controller;
 
+import mspr.backend.dto.CursorPage;
 import mspr.backend.entity.Country;
 import mspr.backend.service.CountryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -20,6 +22,21 @@ public class CountryController {
         return countryService.getAllCountries(page, size);
     }
 
+    /**
+     * Keyset pagination: pass the nextCursor of a page to get the next one.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Country>> getCountriesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(countryService.getCountriesAfter(cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public Country getCountryById(@PathVariable Integer id) {
         return countryService.getCountryById(id).orElse(null);
@@ -1,14 +1,25 @@
 package mspr.backend.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -18,9 +29,16 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import mspr.backend.dto.CursorPage;
+import mspr.backend.dto.DiseaseCaseRow;
+import mspr.backend.dto.DiseaseCaseWriteResult;
 import mspr.backend.dto.TotalKpiDto;
+import mspr.backend.entity.Country;
 import mspr.backend.entity.DiseaseCase;
+import mspr.backend.service.DiseaseCaseBatchService;
+import mspr.backend.service.DiseaseCaseExportService;
 import mspr.backend.service.DiseaseCaseService;
 
 @RestController
@@ -30,24 +48,101 @@ public class DiseaseCaseController {
     @Autowired
     private DiseaseCaseService diseaseCaseService;
 
+    @Autowired
+    private DiseaseCaseExportService diseaseCaseExportService;
+
+    @Autowired
+    private DiseaseCaseBatchService diseaseCaseBatchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public Page<DiseaseCase> getAllDiseaseCases(
+    public Page<DiseaseCaseRow> getAllDiseaseCases(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         return diseaseCaseService.getAllDiseaseCases(page, size);
     }
 
+    /**
+     * Keyset pagination: pass the nextCursor of a page to get the next one.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<DiseaseCaseRow>> getDiseaseCasesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(diseaseCaseService.getDiseaseCasesAfter(cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/kpi")
-    public TotalKpiDto getKpi() {
-        long cases = diseaseCaseService.sumCases();
-        long deaths = diseaseCaseService.sumDeaths();
-        long recovered = diseaseCaseService.sumRecovered();
-        return new TotalKpiDto(cases, deaths, recovered);
+    public TotalKpiDto getKpi(
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end,
+            @RequestParam(required = false) List<String> countries) {
+        LocalDate startDate = (start != null) ? LocalDate.parse(start) : null;
+        LocalDate endDate = (end != null) ? LocalDate.parse(end) : null;
+        return diseaseCaseService.getKpi(startDate, endDate, countries);
+    }
+
+    @GetMapping("/kpi/continents")
+    public Map<String, TotalKpiDto> getKpiByContinent(
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end) {
+        LocalDate startDate = (start != null) ? LocalDate.parse(start) : null;
+        LocalDate endDate = (end != null) ? LocalDate.parse(end) : null;
+        return diseaseCaseService.getKpiByContinent(startDate, endDate);
+    }
+
+    @GetMapping("/kpi/who-regions")
+    public Map<String, TotalKpiDto> getKpiByWhoRegion(
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end) {
+        LocalDate startDate = (start != null) ? LocalDate.parse(start) : null;
+        LocalDate endDate = (end != null) ? LocalDate.parse(end) : null;
+        return diseaseCaseService.getKpiByWhoRegion(startDate, endDate);
+    }
+
+    /**
+     * Streams the disease cases matching the filters, e.g.
+     * /export?format=csv&start=2020-03-01&countries=France&fields=date,location,confirmedCases
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportDiseaseCases(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end,
+            @RequestParam(required = false) List<String> countries,
+            @RequestParam(required = false) List<String> fields) {
+        DiseaseCaseExportService.Format exportFormat;
+        List<DiseaseCaseExportService.Field> exportFields;
+        try {
+            exportFormat = DiseaseCaseExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+            exportFields = DiseaseCaseExportService.Field.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDate startDate = (start != null) ? LocalDate.parse(start) : null;
+        LocalDate endDate = (end != null) ? LocalDate.parse(end) : null;
+
+        boolean csv = exportFormat == DiseaseCaseExportService.Format.CSV;
+        StreamingResponseBody body = out -> diseaseCaseExportService.export(
+                startDate, endDate, countries, exportFields, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"disease_cases." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    public DiseaseCase getDiseaseCaseById(@PathVariable Integer id) {
-        return diseaseCaseService.getDiseaseCaseById(id).orElse(null);
+    public DiseaseCaseRow getDiseaseCaseById(@PathVariable Integer id) {
+        return diseaseCaseService.getDiseaseCaseRowById(id).orElse(null);
     }
 
     @GetMapping("/name/{name}")
@@ -59,10 +154,13 @@ public class DiseaseCaseController {
     public List<Map<String, Object>> getAggregatedCasesByDate(
             @RequestParam(required = false) String start,
             @RequestParam(required = false) String end,
-            @RequestParam(required = false) List<String> countries) {
+            @RequestParam(required = false) List<String> countries,
+            @RequestParam(required = false) Country.ContinentEnum continent,
+            @RequestParam(required = false) Country.WHORegionEnum whoRegion) {
         LocalDate startDate = (start != null) ? LocalDate.parse(start) : null;
         LocalDate endDate = (end != null) ? LocalDate.parse(end) : null;
-        List<Object[]> results = diseaseCaseService.getAggregatedCasesByDateAndCountries(startDate, endDate, countries);
+        List<Object[]> results = diseaseCaseService.getAggregatedCasesByDateAndCountries(
+                startDate, endDate, countries, continent, whoRegion);
         List<Map<String, Object>> response = new ArrayList<>();
         for (Object[] row : results) {
             Map<String, Object> map = new HashMap<>();
@@ -77,6 +175,57 @@ public class DiseaseCaseController {
         return response;
     }
 
+    @GetMapping("/aggregated-by-date/continents")
+    public List<Map<String, Object>> getAggregatedCasesByDateAndContinent(
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end) {
+        LocalDate startDate = (start != null) ? LocalDate.parse(start) : null;
+        LocalDate endDate = (end != null) ? LocalDate.parse(end) : null;
+        return toGroupRows(diseaseCaseService.getAggregatedCasesByDateAndContinent(startDate, endDate), "continent");
+    }
+
+    @GetMapping("/aggregated-by-date/who-regions")
+    public List<Map<String, Object>> getAggregatedCasesByDateAndWhoRegion(
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end) {
+        LocalDate startDate = (start != null) ? LocalDate.parse(start) : null;
+        LocalDate endDate = (end != null) ? LocalDate.parse(end) : null;
+        return toGroupRows(diseaseCaseService.getAggregatedCasesByDateAndWhoRegion(startDate, endDate), "whoRegion");
+    }
+
+    @GetMapping("/aggregated-by-date/world")
+    public List<Map<String, Object>> getAggregatedCasesByDateWorld(
+            @RequestParam(required = false) String start,
+            @RequestParam(required = false) String end) {
+        LocalDate startDate = (start != null) ? LocalDate.parse(start) : null;
+        LocalDate endDate = (end != null) ? LocalDate.parse(end) : null;
+        List<Map<String, Object>> response = new ArrayList<>();
+        for (Object[] row : diseaseCaseService.getAggregatedCasesByDateBetween(startDate, endDate)) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("date", row[0]);
+            map.put("confirmedCases", row[1]);
+            map.put("deaths", row[2]);
+            map.put("recovered", row[3]);
+            response.add(map);
+        }
+        return response;
+    }
+
+    // Rows of (date, group, confirmed, deaths, recovered)
+    private static List<Map<String, Object>> toGroupRows(List<Object[]> results, String groupKey) {
+        List<Map<String, Object>> response = new ArrayList<>();
+        for (Object[] row : results) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("date", row[0]);
+            map.put(groupKey, row[1]);
+            map.put("confirmedCases", row[2]);
+            map.put("deaths", row[3]);
+            map.put("recovered", row[4]);
+            response.add(map);
+        }
+        return response;
+    }
+
     @PostMapping("/aggregated-by-date")
     public Map<String, Object> addDiseaseCase(@RequestBody Map<String, Object> caseData) {
         try {
@@ -108,6 +257,54 @@ public class DiseaseCaseController {
         }
     }
 
+    /**
+     * Adds many cases at once, as a JSON array or as NDJSON (one case per line), with the fields
+     * of the single-case endpoint and an optional disease. Invalid rows are skipped and reported
+     * in the per-row results.
+     */
+    @PostMapping(value = "/aggregated-by-date/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> addDiseaseCases(@RequestBody List<Map<String, Object>> rows) {
+        return addDiseaseCaseRows(rows);
+    }
+
+    @PostMapping(value = "/aggregated-by-date/batch", consumes = "application/x-ndjson")
+    public ResponseEntity<Map<String, Object>> addDiseaseCasesFromNdjson(InputStream body) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        try (MappingIterator<Map<String, Object>> lines = objectMapper
+                .readerFor(new TypeReference<Map<String, Object>>() {}).readValues(body)) {
+            while (lines.hasNextValue()) {
+                rows.add(lines.nextValue());
+            }
+        } catch (IOException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", "NDJSON invalide après " + rows.size() + " ligne(s) : " + e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        return addDiseaseCaseRows(rows);
+    }
+
+    private ResponseEntity<Map<String, Object>> addDiseaseCaseRows(List<Map<String, Object>> rows) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<DiseaseCaseWriteResult> results = diseaseCaseBatchService.addDiseaseCases(rows);
+            long inserted = results.stream().filter(DiseaseCaseWriteResult::success).count();
+            response.put("success", inserted == results.size());
+            response.put("inserted", inserted);
+            response.put("rejected", results.size() - inserted);
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
     @PutMapping("/aggregated-by-date/{id}")
     public Map<String, Object> updateDiseaseCase(
             @PathVariable Integer id,
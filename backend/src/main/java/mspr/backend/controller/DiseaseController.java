@@ -1,8 +1,11 @@
 package mspr.backend.controller;
 
+import mspr.backend.dto.DiseaseCaseRow;
 import mspr.backend.entity.Disease;
 import mspr.backend.service.DiseaseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,6 +28,21 @@ public class DiseaseController {
         return diseaseService.getDiseaseById(id).orElse(null); 
     }
 
+    /**
+     * Cases of the disease, page by page (size capped at pagination.cursor.max-size).
+     */
+    @GetMapping("/{id}/cases")
+    public ResponseEntity<Page<DiseaseCaseRow>> getDiseaseCases(
+            @PathVariable Integer id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        try {
+            return ResponseEntity.ok(diseaseService.getDiseaseCases(id, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/name/{name}")
     public Disease getDiseaseByName(@PathVariable String name) {
         return diseaseService.getDiseaseByName(name); 
@@ -0,0 +1,19 @@
+package mspr.backend.controller;
+
+import mspr.backend.dto.ImportStatusDto;
+import mspr.backend.etl.helpers.ImportProgress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/etl")
+public class EtlController {
+
+    @Autowired
+    private ImportProgress importProgress;
+
+    @GetMapping("/status")
+    public ImportStatusDto getImportStatus() {
+        return importProgress.snapshot();
+    }
+}
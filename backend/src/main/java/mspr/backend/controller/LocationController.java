@@ -2,6 +2,7 @@ package mspr.backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import mspr.backend.dto.CursorPage;
 import mspr.backend.entity.Location;
 import mspr.backend.service.LocationService;
 
@@ -29,6 +31,21 @@ public class LocationController {
         return locationService.getAllLocations(page, size);
     }
 
+    /**
+     * Keyset pagination: pass the nextCursor of a page to get the next one.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Location>> getLocationsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(locationService.getLocationsAfter(cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public Location getLocationById(@PathVariable Integer id) {
         return locationService.getLocationById(id);
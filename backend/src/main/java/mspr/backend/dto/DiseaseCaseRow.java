@@ -0,0 +1,19 @@
+package mspr.backend.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Read model of a disease case: flattened with the names of its disease, location, region and
+ * country, as returned by the list, detail and export endpoints.
+ */
+public record DiseaseCaseRow(
+        Integer id,
+        LocalDate date,
+        String disease,
+        String country,
+        String region,
+        String location,
+        Integer confirmedCases,
+        Integer deaths,
+        Integer recovered) {
+}
@@ -0,0 +1,17 @@
+package mspr.backend.dto;
+
+/**
+ * Outcome of one row of a batch write: the id of the inserted case, or why the row was rejected.
+ *
+ * @param index Position of the row in the request, from 0.
+ */
+public record DiseaseCaseWriteResult(int index, boolean success, Integer id, String error) {
+
+    public static DiseaseCaseWriteResult inserted(int index, Integer id) {
+        return new DiseaseCaseWriteResult(index, true, id, null);
+    }
+
+    public static DiseaseCaseWriteResult rejected(int index, String error) {
+        return new DiseaseCaseWriteResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,142 @@
+package mspr.backend.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class ImportStatusDto {
+    private String status;
+    private String mode;
+    private List<String> currentFiles;
+    private long rowsParsed;
+    private long rowsPersisted;
+    private long bytesParsed;
+    private long totalBytes;
+    private Double percent;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Long elapsedMs;
+    private Long etaMs;
+    private String lastError;
+    private boolean generationAvailable;
+    private Instant lastGoodGenerationAt;
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public List<String> getCurrentFiles() {
+        return currentFiles;
+    }
+
+    public void setCurrentFiles(List<String> currentFiles) {
+        this.currentFiles = currentFiles;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    public void setRowsParsed(long rowsParsed) {
+        this.rowsParsed = rowsParsed;
+    }
+
+    public long getRowsPersisted() {
+        return rowsPersisted;
+    }
+
+    public void setRowsPersisted(long rowsPersisted) {
+        this.rowsPersisted = rowsPersisted;
+    }
+
+    public long getBytesParsed() {
+        return bytesParsed;
+    }
+
+    public void setBytesParsed(long bytesParsed) {
+        this.bytesParsed = bytesParsed;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public Double getPercent() {
+        return percent;
+    }
+
+    public void setPercent(Double percent) {
+        this.percent = percent;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(Long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public Long getEtaMs() {
+        return etaMs;
+    }
+
+    public void setEtaMs(Long etaMs) {
+        this.etaMs = etaMs;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public boolean isGenerationAvailable() {
+        return generationAvailable;
+    }
+
+    public void setGenerationAvailable(boolean generationAvailable) {
+        this.generationAvailable = generationAvailable;
+    }
+
+    public Instant getLastGoodGenerationAt() {
+        return lastGoodGenerationAt;
+    }
+
+    public void setLastGoodGenerationAt(Instant lastGoodGenerationAt) {
+        this.lastGoodGenerationAt = lastGoodGenerationAt;
+    }
+}
@@ -0,0 +1,137 @@
+package mspr.backend.entity;
+
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Disease cases summed per day and country, with the country's continent and WHO region copied in,
+ * so that the aggregate endpoints (country, continent, WHO region or world level) read a few
+ * thousand rows instead of joining and grouping every case. Maintained by DailyRollupService.
+ */
+@Entity
+@Table(
+        name="DailyCountryRollup",
+        indexes = {
+            @Index(name = "idx_daily_country_rollup_date_country", columnList = "date, country_id", unique = true),
+            @Index(name = "idx_daily_country_rollup_country_name", columnList = "country_name")
+        }
+)
+public class DailyCountryRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "country_id", nullable = false)
+    private Integer countryId;
+
+    @Column(name = "country_name")
+    private String countryName;
+
+    @Column(name = "continent")
+    @Enumerated(EnumType.STRING)
+    private Country.ContinentEnum continent;
+
+    @Column(name = "who_region")
+    @Enumerated(EnumType.STRING)
+    private Country.WHORegionEnum whoRegion;
+
+    @Column(name = "confirmed_cases")
+    private Long confirmedCases;
+
+    @Column(name = "deaths")
+    private Long deaths;
+
+    @Column(name = "recovered")
+    private Long recovered;
+
+    // Highest DiseaseCase id of the day and country, returned as "id" by the aggregate endpoint
+    @Column(name = "max_case_id")
+    private Integer maxCaseId;
+
+    public DailyCountryRollup() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public Integer getCountryId() {
+        return countryId;
+    }
+
+    public void setCountryId(Integer countryId) {
+        this.countryId = countryId;
+    }
+
+    public String getCountryName() {
+        return countryName;
+    }
+
+    public void setCountryName(String countryName) {
+        this.countryName = countryName;
+    }
+
+    public Country.ContinentEnum getContinent() {
+        return continent;
+    }
+
+    public void setContinent(Country.ContinentEnum continent) {
+        this.continent = continent;
+    }
+
+    public Country.WHORegionEnum getWhoRegion() {
+        return whoRegion;
+    }
+
+    public void setWhoRegion(Country.WHORegionEnum whoRegion) {
+        this.whoRegion = whoRegion;
+    }
+
+    public Long getConfirmedCases() {
+        return confirmedCases;
+    }
+
+    public void setConfirmedCases(Long confirmedCases) {
+        this.confirmedCases = confirmedCases;
+    }
+
+    public Long getDeaths() {
+        return deaths;
+    }
+
+    public void setDeaths(Long deaths) {
+        this.deaths = deaths;
+    }
+
+    public Long getRecovered() {
+        return recovered;
+    }
+
+    public void setRecovered(Long recovered) {
+        this.recovered = recovered;
+    }
+
+    public Integer getMaxCaseId() {
+        return maxCaseId;
+    }
+
+    public void setMaxCaseId(Integer maxCaseId) {
+        this.maxCaseId = maxCaseId;
+    }
+}
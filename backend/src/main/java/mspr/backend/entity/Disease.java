@@ -6,7 +6,7 @@ import jakarta.persistence.*;
 import java.util.HashSet;
 import java.util.Set;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name = "Disease")
@@ -16,8 +16,9 @@ public class Disease {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @OneToMany(fetch = FetchType.EAGER, mappedBy = "disease", cascade = CascadeType.ALL)
-    @JsonManagedReference
+    // Not serialized: the cases of a disease are listed page by page (GET /api/diseases/{id}/cases)
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "disease", cascade = CascadeType.ALL)
+    @JsonIgnore
     private Set<DiseaseCase> diseaseCases = new HashSet<>();
 
     @Column(name = "name")
@@ -8,7 +8,27 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import org.hibernate.annotations.BatchSize;
 
 @Entity
-@Table(name = "DiseaseCase")
+@Table(
+        name = "DiseaseCase",
+        // Key of the imported cases: one row per file, location, disease and date (API cases have no source)
+        uniqueConstraints = @UniqueConstraint(name = "uk_disease_case_source_key",
+                columnNames = {"source", "location_id", "disease_id", "date"}),
+        indexes = {
+            // Cases of a location, by disease and date
+            @Index(name = "idx_disease_case_location_disease_date", columnList = "location_id, disease_id, date"),
+            // Date range of the aggregated-by-date queries
+            @Index(name = "idx_disease_case_date_id", columnList = "date, id")
+        }
+)
+// Associations are lazy: the endpoints returning cases load the location chain with this graph
+@NamedEntityGraph(
+        name = "DiseaseCase.location",
+        attributeNodes = @NamedAttributeNode(value = "location", subgraph = "location"),
+        subgraphs = {
+            @NamedSubgraph(name = "location", attributeNodes = @NamedAttributeNode(value = "region", subgraph = "region")),
+            @NamedSubgraph(name = "region", attributeNodes = @NamedAttributeNode("country"))
+        }
+)
 @BatchSize(size = 50)
 public class DiseaseCase {
 
@@ -18,12 +38,12 @@ public class DiseaseCase {
     @SequenceGenerator(name = "disease_case_seq", sequenceName = "disease_case_seq", allocationSize = 50)
     private Integer id;
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
     @JoinColumn(name = "disease_id")
     @JsonBackReference
     private Disease disease; 
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
     @JoinColumn(name = "location_id")
     private Location location;
 
@@ -39,6 +59,16 @@ public class DiseaseCase {
     @Column(name = "recovered")
     private Integer recovered;
 
+    // CSV file the case was imported from, null for cases written through the API
+    @JsonIgnore
+    @Column(name = "source", length = 64)
+    private String source;
+
+    // Import run of the source file that last wrote the case, null for cases written through the API
+    @JsonIgnore
+    @Column(name = "import_generation")
+    private Long importGeneration;
+
     public DiseaseCase() {}
 
     public DiseaseCase(Integer recovered, Integer deaths, Integer confirmedCases, LocalDate date, Location location, Disease disease) {
@@ -98,6 +128,22 @@ public class DiseaseCase {
         this.recovered = recovered;
     }
 
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public Long getImportGeneration() {
+        return importGeneration;
+    }
+
+    public void setImportGeneration(Long importGeneration) {
+        this.importGeneration = importGeneration;
+    }
+
     public Integer getId() {
         return id;
     }
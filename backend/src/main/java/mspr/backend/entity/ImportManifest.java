@@ -0,0 +1,109 @@
+package mspr.backend.entity;
+
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Fingerprint of a source file as of its last successful import,
+ * used by the incremental ETL mode to skip files that did not change.
+ */
+@Entity
+@Table(
+        name="ImportManifest",
+        indexes = { @Index(name = "idx_import_manifest_file_name", columnList = "file_name", unique = true) }
+)
+public class ImportManifest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    // Epoch millis, only used to avoid re-hashing a file that was not touched
+    @Column(name = "last_modified")
+    private Long lastModified;
+
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "rows_imported")
+    private Integer rowsImported;
+
+    @Column(name = "imported_at")
+    private LocalDateTime importedAt;
+
+    public ImportManifest() {}
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public Integer getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(Integer rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public LocalDateTime getImportedAt() {
+        return importedAt;
+    }
+
+    public void setImportedAt(LocalDateTime importedAt) {
+        this.importedAt = importedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportManifest{" +
+                "fileName='" + fileName + '\'' +
+                ", fileSize=" + fileSize +
+                ", sha256='" + sha256 + '\'' +
+                ", rowsImported=" + rowsImported +
+                ", importedAt=" + importedAt +
+                '}';
+    }
+}
@@ -14,6 +14,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
         name="Location",
         indexes = { @Index(name = "idx_location_name", columnList = "name") }
 )
+@NamedEntityGraph(
+        name = "Location.region",
+        attributeNodes = @NamedAttributeNode(value = "region", subgraph = "region"),
+        subgraphs = @NamedSubgraph(name = "region", attributeNodes = @NamedAttributeNode("country"))
+)
 @BatchSize(size = 50)
 public class Location {
 
@@ -26,7 +31,7 @@ public class Location {
     @JsonIgnore
     private Set<DiseaseCase> diseasesCases = new HashSet<>();
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
     @JoinColumn(name = "region_id")
     private Region region;
 
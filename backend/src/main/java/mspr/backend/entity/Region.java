@@ -13,6 +13,7 @@ import org.hibernate.annotations.BatchSize;
         name = "Region",
         indexes = { @Index(name = "idx_region_name", columnList = "name") }
 )
+@NamedEntityGraph(name = "Region.country", attributeNodes = @NamedAttributeNode("country"))
 @BatchSize(size = 50)
 public class Region {
 
@@ -27,7 +28,7 @@ public class Region {
 
     private String name;
 
-    @ManyToOne(fetch = FetchType.EAGER, cascade = CascadeType.MERGE)
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.MERGE)
     @JoinColumn(name = "country_id")
     private Country country;
 
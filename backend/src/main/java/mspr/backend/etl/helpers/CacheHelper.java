@@ -3,6 +3,8 @@ package mspr.backend.etl.helpers;
 import mspr.backend.entity.*;
 import mspr.backend.repository.*;
 import mspr.backend.etl.helpers.cache.CacheManager;
+import mspr.backend.etl.helpers.cache.LocationKey;
+import mspr.backend.etl.helpers.cache.RegionKey;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
@@ -116,7 +118,7 @@ public class CacheHelper {
      * @param locationName The name of the location
      * @return The location key
      */
-    public String getLocationKey(String countryName, String regionName, String locationName) {
+    public LocationKey getLocationKey(String countryName, String regionName, String locationName) {
         return cacheManager.getLocationKey(countryName, regionName, locationName);
     }
 
@@ -158,7 +160,7 @@ public class CacheHelper {
      * 
      * @return Map of region keys to Region entities
      */
-    public Map<String, Region> getRegions() {
+    public Map<RegionKey, Region> getRegions() {
         return cacheManager.getRegions();
     }
 
@@ -168,7 +170,7 @@ public class CacheHelper {
      * 
      * @return Map of location keys to Location entities
      */
-    public Map<String, Location> getLocations() {
+    public Map<LocationKey, Location> getLocations() {
         return cacheManager.getLocations();
     }
 
@@ -4,13 +4,26 @@ import mspr.backend.entity.Country;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Normalises the names read from the CSV files: country synonyms, continents, WHO regions and ignored entities.
+ * <p>
+ * Lookups ignore case and extra whitespace. The tables below are folded once into immutable maps
+ * (see {@link #normalize}), and each method memoizes its result per raw input: the files repeat the
+ * same few hundred values over millions of rows, so a row costs a single hash lookup.
+ */
 @Service
 public class CleanerHelper {
     private static final Logger logger = LoggerFactory.getLogger(CleanerHelper.class);
 
+    // Au-delà, les nouvelles valeurs sont résolues sans être mémorisées
+    private static final int MEMO_MAX_SIZE = 10_000;
+
     private static final Map<String, String> countryNameMap = new HashMap<>();
     static {
         countryNameMap.put("United States", "USA");
@@ -99,13 +112,91 @@ public class CleanerHelper {
         specialContinentMap.put("Kosovo", Country.ContinentEnum.EUROPE);
     }
 
+    // Tables de recherche, clés normalisées
+    private static final Map<String, String> foldedCountryNames = fold(countryNameMap);
+    private static final Map<String, Country.ContinentEnum> foldedContinents;
+    static {
+        Map<String, Country.ContinentEnum> continents = new HashMap<>();
+        // Noms des valeurs d'enum, acceptés en dernier recours
+        for (Country.ContinentEnum value : Country.ContinentEnum.values()) {
+            continents.put(normalize(value.name()), value);
+        }
+        continents.putAll(fold(continentNameMap));
+        foldedContinents = Map.copyOf(continents);
+    }
+    private static final Map<String, Country.WHORegionEnum> foldedWhoRegions;
+    static {
+        Map<String, Country.WHORegionEnum> whoRegions = new HashMap<>();
+        for (Country.WHORegionEnum value : Country.WHORegionEnum.values()) {
+            whoRegions.put(normalize(value.name()), value);
+        }
+        whoRegions.putAll(fold(whoRegionNameMap));
+        foldedWhoRegions = Map.copyOf(whoRegions);
+    }
+    private static final Map<String, Boolean> foldedSkipList = fold(skipList);
+
+    // Résultats mémorisés par valeur brute
+    private final Map<String, String> countryNameMemo = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> skipListMemo = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Country.ContinentEnum>> continentMemo = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Country.WHORegionEnum>> whoRegionMemo = new ConcurrentHashMap<>();
+
+    /**
+     * Lower-cases a value, trims it and collapses its inner whitespace runs to one space.
+     *
+     * @param value The raw value, not null
+     * @return The normalised value, the same instance when it is already normalised
+     */
+    static String normalize(String value) {
+        StringBuilder normalized = null;
+        boolean pendingSpace = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (normalized == null) {
+                    normalized = new StringBuilder(value.length()).append(value, 0, i);
+                }
+                pendingSpace = true;
+                continue;
+            }
+            char lower = Character.toLowerCase(c);
+            if (normalized == null && lower != c) {
+                normalized = new StringBuilder(value.length()).append(value, 0, i);
+            }
+            if (normalized != null) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(lower);
+            }
+            pendingSpace = false;
+        }
+        return normalized != null ? normalized.toString() : value;
+    }
+
+    private static <V> Map<String, V> fold(Map<String, V> table) {
+        Map<String, V> folded = new HashMap<>();
+        table.forEach((key, value) -> folded.put(normalize(key), value));
+        return Map.copyOf(folded);
+    }
+
+    private static <V> void remember(Map<String, V> memo, String raw, V value) {
+        if (memo.size() < MEMO_MAX_SIZE) {
+            memo.put(raw, value);
+        }
+    }
+
     public boolean isInSkipList(String string) {
         if (string == null) {
             return false;
         }
-        boolean result = skipList.containsKey(string.trim());
-        if (result) {
-            logger.debug("Found '{}' in skip list", string);
+        Boolean result = skipListMemo.get(string);
+        if (result == null) {
+            result = foldedSkipList.containsKey(normalize(string));
+            if (result) {
+                logger.debug("Found '{}' in skip list", string);
+            }
+            remember(skipListMemo, string, result);
         }
         return result;
     }
@@ -115,13 +206,24 @@ public class CleanerHelper {
             return countryName;
         }
 
-        if(countryNameMap.containsKey(countryName)){
-            String cleaned = countryNameMap.get(countryName);
-            logger.debug("Cleaned country name: '{}' -> '{}'", countryName, cleaned);
-            return cleaned;
+        String cleaned = countryNameMemo.get(countryName);
+        if (cleaned == null) {
+            cleaned = foldedCountryNames.get(normalize(countryName));
+            if (cleaned != null) {
+                logger.debug("Cleaned country name: '{}' -> '{}'", countryName, cleaned);
+            } else {
+                cleaned = countryName.trim();
+            }
+            remember(countryNameMemo, countryName, cleaned);
         }
+        return cleaned;
+    }
 
-        return countryName.trim();
+    /**
+     * @return The country synonyms applied by {@link #cleanCountryName}, as alias -> name.
+     */
+    public Map<String, String> getCountryNameAliases() {
+        return Collections.unmodifiableMap(countryNameMap);
     }
 
     public String cleanRegionName(String regionName){
@@ -143,50 +245,48 @@ public class CleanerHelper {
         if (continent == null || continent.isEmpty()) {
             return null;
         }
-        
-        // Essayer le map de noms de continents, insensible à la casse
-        for (Map.Entry<String, Country.ContinentEnum> entry : continentNameMap.entrySet()) {
-            if (entry.getKey().equalsIgnoreCase(continent.trim())) {
-                Country.ContinentEnum value = entry.getValue();
+
+        Optional<Country.ContinentEnum> cached = continentMemo.get(continent);
+        if (cached == null) {
+            // Table des noms de continents puis noms des valeurs d'enum, insensible à la casse
+            String normalized = normalize(continent);
+            Country.ContinentEnum value = foldedContinents.get(normalized);
+            if (value == null) {
+                value = foldedContinents.get(normalized.replace(' ', '_'));
+            }
+            if (value != null) {
                 logger.debug("Matched continent '{}' to enum {}", continent, value);
-                return value;
+            } else {
+                logger.warn("Could not convert '{}' to a continent enum value", continent);
             }
+            cached = Optional.ofNullable(value);
+            remember(continentMemo, continent, cached);
         }
-        
-        // Si pas trouvé, essayer de convertir la chaîne en enum directement
-        try {
-            Country.ContinentEnum value = Country.ContinentEnum.valueOf(continent.trim().toUpperCase());
-            logger.debug("Parsed continent string '{}' to enum {}", continent, value);
-            return value;
-        } catch (IllegalArgumentException e) {
-            logger.warn("Could not convert '{}' to a continent enum value", continent);
-            return null;
-        }
+        return cached.orElse(null);
     }
 
     public Country.WHORegionEnum cleanWhoRegion(String whoRegion) {
         if (whoRegion == null || whoRegion.isEmpty()) {
             return null;
         }
-        
-        // Essayer le map de noms de régions WHO, insensible à la casse
-        for (Map.Entry<String, Country.WHORegionEnum> entry : whoRegionNameMap.entrySet()) {
-            if (entry.getKey().equalsIgnoreCase(whoRegion.trim())) {
-                Country.WHORegionEnum value = entry.getValue();
+
+        Optional<Country.WHORegionEnum> cached = whoRegionMemo.get(whoRegion);
+        if (cached == null) {
+            // Table des noms de régions WHO puis noms des valeurs d'enum, insensible à la casse
+            String normalized = normalize(whoRegion);
+            Country.WHORegionEnum value = foldedWhoRegions.get(normalized);
+            if (value == null) {
+                value = foldedWhoRegions.get(normalized.replace(' ', '_').replace('-', '_'));
+            }
+            if (value != null) {
                 logger.debug("Matched WHO region '{}' to enum {}", whoRegion, value);
-                return value;
+            } else {
+                logger.warn("Could not convert '{}' to a WHO region enum value", whoRegion);
             }
+            cached = Optional.ofNullable(value);
+            remember(whoRegionMemo, whoRegion, cached);
         }
-        
-        // Si pas trouvé, essayer de convertir la chaîne en enum directement
-        try {
-            Country.WHORegionEnum value = Country.WHORegionEnum.valueOf(whoRegion.trim().replace(' ', '_').replace('-', '_'));
-            logger.debug("Parsed WHO region string '{}' to enum {}", whoRegion, value);
-            return value;
-        } catch (IllegalArgumentException e) {
-            logger.warn("Could not convert '{}' to a WHO region enum value", whoRegion);
-            return null;
-        }
+        return cached.orElse(null);
     }
 
     /**
@@ -0,0 +1,380 @@
+package mspr.backend.etl.helpers;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Quote-aware, single-pass CSV line tokenizer.
+ * <p>
+ * A line is scanned once; only the start/end offsets of each field are recorded, over a
+ * char buffer that is reused from one line to the next. Numbers and dates are parsed
+ * straight from those offsets, so the hot path allocates no intermediate {@code String}s.
+ * Fields are trimmed, and a field wrapped in double quotes is returned without them
+ * (with {@code ""} unescaped to {@code "}).
+ * <p>
+ * Not thread-safe: each import (or parsing worker) uses its own instance.
+ */
+public final class CsvLineTokenizer {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    // Powers of ten that are exact doubles, for the fast decimal path
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // Dates already built, shared by all instances: the files repeat a few hundred dates over
+    // hundreds of thousands of rows. Covers 2000-2099, indexed by (year, month, day); a racy
+    // read at worst builds an equal LocalDate again, which is immutable and safely published.
+    private static final int CACHED_FIRST_YEAR = 2000;
+    private static final int CACHED_YEARS = 100;
+    private static final LocalDate[] DATES = new LocalDate[CACHED_YEARS * 12 * 31];
+
+    private char[] ownBuffer = new char[256];
+    private char[] chars = ownBuffer;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+    private int fieldCount;
+    private final int[] dateParts = new int[3];
+
+    /**
+     * Tokenizes a line, copying it into the reusable buffer.
+     *
+     * @param line The CSV line, without its line terminator.
+     * @return this tokenizer, positioned on the new line.
+     */
+    public CsvLineTokenizer tokenize(String line) {
+        int length = line.length();
+        if (ownBuffer.length < length) {
+            ownBuffer = new char[Math.max(length, ownBuffer.length * 2)];
+        }
+        line.getChars(0, length, ownBuffer, 0);
+        chars = ownBuffer;
+        scan(0, length);
+        return this;
+    }
+
+    /**
+     * Tokenizes a line held in an external buffer, without copying it.
+     * The buffer must not change while fields of this line are being read.
+     *
+     * @param buffer The buffer containing the line.
+     * @param from   Offset of the first character of the line.
+     * @param to     Offset just past the last character of the line (terminator excluded).
+     * @return this tokenizer, positioned on the new line.
+     */
+    public CsvLineTokenizer tokenize(char[] buffer, int from, int to) {
+        chars = buffer;
+        scan(from, to);
+        return this;
+    }
+
+    /**
+     * @return The number of fields of the current line (an empty line has one empty field).
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @param index The field index.
+     * @return true if the field is empty once trimmed and unquoted.
+     */
+    public boolean isEmpty(int index) {
+        checkIndex(index);
+        return starts[index] == ends[index];
+    }
+
+    /**
+     * @param index The field index.
+     * @return The trimmed, unquoted field value.
+     */
+    public String getString(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        int end = ends[index];
+        if (!escaped[index]) {
+            return new String(chars, start, end - start);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            sb.append(c);
+            if (c == QUOTE && i + 1 < end && chars[i + 1] == QUOTE) {
+                i++; // "" inside a quoted field stands for a single quote
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses an int field. Grouping separators (',') inside the number are ignored.
+     *
+     * @param index        The field index.
+     * @param defaultValue Value returned when the field is empty.
+     * @return The parsed value.
+     * @throws NumberFormatException If the field is not a valid int.
+     */
+    public int getInt(int index, int defaultValue) {
+        long value = getLong(index, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw invalidNumber(index);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a long field. Grouping separators (',') inside the number are ignored.
+     *
+     * @param index        The field index.
+     * @param defaultValue Value returned when the field is empty.
+     * @return The parsed value.
+     * @throws NumberFormatException If the field is not a valid long.
+     */
+    public long getLong(int index, long defaultValue) {
+        checkIndex(index);
+        int i = starts[index];
+        int end = ends[index];
+        if (i == end) {
+            return defaultValue;
+        }
+        boolean negative = false;
+        char first = chars[i];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == SEPARATOR) {
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidNumber(index);
+            }
+            // Accumulate negatively so that Long.MIN_VALUE is representable
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                throw invalidNumber(index);
+            }
+            value = value * 10 - digit;
+            digits++;
+        }
+        if (digits == 0 || (!negative && value == Long.MIN_VALUE)) {
+            throw invalidNumber(index);
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Parses a double field. Plain decimals with up to 15 significant digits are converted
+     * directly from the buffer; anything else (exponents, long mantissas) falls back to
+     * {@link Double#parseDouble(String)}.
+     *
+     * @param index        The field index.
+     * @param defaultValue Value returned when the field is empty.
+     * @return The parsed value.
+     * @throws NumberFormatException If the field is not a valid double.
+     */
+    public double getDouble(int index, double defaultValue) {
+        checkIndex(index);
+        int i = starts[index];
+        int end = ends[index];
+        if (i == end) {
+            return defaultValue;
+        }
+        boolean negative = false;
+        char first = chars[i];
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == '.' && !inFraction) {
+                inFraction = true;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9 || mantissa >= MAX_EXACT_MANTISSA / 10) {
+                // Exponent, special value or too many digits: let the JDK handle it
+                return Double.parseDouble(getString(index));
+            }
+            mantissa = mantissa * 10 + digit;
+            digits++;
+            if (inFraction) {
+                fractionDigits++;
+            }
+        }
+        if (digits == 0) {
+            throw invalidNumber(index);
+        }
+        if (fractionDigits >= POWERS_OF_TEN.length) {
+            // Leading fraction zeros do not grow the mantissa, but the divisor is no longer an exact double
+            return Double.parseDouble(getString(index));
+        }
+        // Both operands are exact doubles, so a single division is correctly rounded
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a date in ISO format ({@code yyyy-MM-dd}).
+     *
+     * @param index The field index.
+     * @return The parsed date.
+     * @throws DateTimeException If the field is not a valid ISO date.
+     */
+    public LocalDate getIsoDate(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        if (ends[index] - start != 10 || chars[start + 4] != '-' || chars[start + 7] != '-') {
+            throw invalidDate(index, "yyyy-MM-dd");
+        }
+        int year = digitsAt(index, start, 4);
+        int month = digitsAt(index, start + 5, 2);
+        int day = digitsAt(index, start + 8, 2);
+        return dateOf(year, month, day);
+    }
+
+    /**
+     * Parses a date in US short format ({@code M/d/yy}), two-digit years being 20yy.
+     *
+     * @param index The field index.
+     * @return The parsed date.
+     * @throws DateTimeException If the field is not a valid M/d/yy date.
+     */
+    public LocalDate getUsShortDate(int index) {
+        checkIndex(index);
+        int i = starts[index];
+        int end = ends[index];
+        int[] parts = dateParts;
+        for (int part = 0; part < 3; part++) {
+            int value = 0;
+            int digits = 0;
+            while (i < end && chars[i] != '/') {
+                int digit = chars[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw invalidDate(index, "M/d/yy");
+                }
+                value = value * 10 + digit;
+                digits++;
+                i++;
+            }
+            // Month and day take one or two digits, the year exactly two
+            boolean validWidth = part == 2 ? digits == 2 : digits >= 1 && digits <= 2;
+            if (!validWidth || (part < 2 && i == end) || (part == 2 && i != end)) {
+                throw invalidDate(index, "M/d/yy");
+            }
+            parts[part] = value;
+            i++; // skip '/'
+        }
+        return dateOf(2000 + parts[2], parts[0], parts[1]);
+    }
+
+    /**
+     * Same as {@link LocalDate#of(int, int, int)}, returning a shared instance for the dates of 2000-2099.
+     */
+    private static LocalDate dateOf(int year, int month, int day) {
+        int yearOffset = year - CACHED_FIRST_YEAR;
+        if (yearOffset < 0 || yearOffset >= CACHED_YEARS || month < 1 || month > 12 || day < 1 || day > 31) {
+            return LocalDate.of(year, month, day); // Out of the cache, or invalid: LocalDate.of throws
+        }
+        int slot = (yearOffset * 12 + month - 1) * 31 + day - 1;
+        LocalDate date = DATES[slot];
+        if (date == null) {
+            date = LocalDate.of(year, month, day); // Throws for invalid days (e.g. 2/30), nothing is cached
+            DATES[slot] = date;
+        }
+        return date;
+    }
+
+    private void scan(int from, int to) {
+        fieldCount = 0;
+        int i = from;
+        while (true) {
+            int start = i;
+            boolean inQuotes = false;
+            boolean hasEscapes = false;
+            while (i < to) {
+                char c = chars[i];
+                if (c == QUOTE) {
+                    if (inQuotes && i + 1 < to && chars[i + 1] == QUOTE) {
+                        hasEscapes = true;
+                        i += 2;
+                        continue;
+                    }
+                    inQuotes = !inQuotes;
+                } else if (c == SEPARATOR && !inQuotes) {
+                    break;
+                }
+                i++;
+            }
+            addField(start, i, hasEscapes);
+            if (i >= to) {
+                return;
+            }
+            i++; // skip separator
+        }
+    }
+
+    private void addField(int start, int end, boolean hasEscapes) {
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        if (end - start >= 2 && chars[start] == QUOTE && chars[end - 1] == QUOTE) {
+            start++;
+            end--;
+        }
+        if (fieldCount == starts.length) {
+            int capacity = fieldCount * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            escaped = Arrays.copyOf(escaped, capacity);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        escaped[fieldCount] = hasEscapes;
+        fieldCount++;
+    }
+
+    private int digitsAt(int index, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidDate(index, "yyyy-MM-dd");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + index + " out of " + fieldCount);
+        }
+    }
+
+    private NumberFormatException invalidNumber(int index) {
+        return new NumberFormatException("For input string: \"" + getString(index) + "\"");
+    }
+
+    private DateTimeException invalidDate(int index, String pattern) {
+        return new DateTimeException("Text '" + getString(index) + "' does not match " + pattern);
+    }
+}
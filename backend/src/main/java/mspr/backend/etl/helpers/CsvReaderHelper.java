@@ -5,46 +5,126 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.util.List;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
 
 @Component
 public class CsvReaderHelper {
 
     private static final Logger logger = LoggerFactory.getLogger(CsvReaderHelper.class);
 
+    // Large enough to amortise read syscalls on the multi-hundred MB county file
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
     /**
-     * Reads a CSV file and returns its lines.
+     * Opens a CSV file for streaming, line by line.
+     * The caller owns the returned reader and must close it.
      *
      * @param filePath Path to the CSV file.
      * @param fileName The simple name of the file (for logging and exceptions).
-     * @return List of lines from the CSV file.
-     * @throws IOException If there is an error reading the file.
+     * @return A buffered reader positioned at the first line of the file.
+     * @throws IOException If there is an error opening the file.
      * @throws DataFileNotFoundException If the file is not found at the specified path.
      */
-    public List<String> readCsvFile(Path filePath, String fileName) throws IOException, DataFileNotFoundException {
-        // Check if file exists first
-        if (!Files.isRegularFile(filePath) || !Files.exists(filePath)) {
-            logger.error("File {} does not exist or is not a regular file at path {}. Import aborted.", fileName, filePath);
-            throw new DataFileNotFoundException(fileName);
-        }
+    public BufferedReader openCsvFile(Path filePath, String fileName) throws IOException, DataFileNotFoundException {
+        return openCsvFile(filePath, fileName, bytes -> { });
+    }
+
+    /**
+     * Same as {@link #openCsvFile(Path, String)}, reporting the bytes read from the file.
+     *
+     * @param bytesListener Called on the reading thread with the number of bytes of each read from the file.
+     *                      The reader reads ahead, so the total runs up to a buffer ahead of the lines returned.
+     */
+    public BufferedReader openCsvFile(Path filePath, String fileName, LongConsumer bytesListener)
+            throws IOException, DataFileNotFoundException {
+        checkFileExists(filePath, fileName);
 
-        logger.info("Reading file: {}", fileName);
+        logger.info("Streaming file: {} ({} bytes)", fileName, Files.size(filePath));
         try {
-            List<String> lines = Files.readAllLines(filePath, StandardCharsets.UTF_8);
-            logger.info("Read {} lines from {}", lines.size(), fileName);
-            return lines;
+            InputStream in = new ByteCountingInputStream(Files.newInputStream(filePath), bytesListener);
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
         } catch (NoSuchFileException e) {
             // This might be redundant due to the initial check, but good practice
-            logger.error("File not found during read operation for {}: {}", fileName, e.getMessage());
+            logger.error("File not found during open operation for {}: {}", fileName, e.getMessage());
             throw new DataFileNotFoundException(fileName, e);
         } catch (IOException e) {
-            logger.error("IO error reading file {}: {}", fileName, e.getMessage());
+            logger.error("IO error opening file {}: {}", fileName, e.getMessage());
             throw e; // rethrow as it's already a specific exception
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Opens a CSV file as a read-only channel, for callers reading it in raw byte blocks.
+     * The caller owns the returned channel and must close it.
+     *
+     * @param filePath Path to the CSV file.
+     * @param fileName The simple name of the file (for logging and exceptions).
+     * @return A channel positioned at the start of the file.
+     * @throws IOException If there is an error opening the file.
+     * @throws DataFileNotFoundException If the file is not found at the specified path.
+     */
+    public FileChannel openCsvChannel(Path filePath, String fileName) throws IOException, DataFileNotFoundException {
+        checkFileExists(filePath, fileName);
+
+        logger.info("Reading file in blocks: {} ({} bytes)", fileName, Files.size(filePath));
+        try {
+            return FileChannel.open(filePath, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            logger.error("File not found during open operation for {}: {}", fileName, e.getMessage());
+            throw new DataFileNotFoundException(fileName, e);
+        }
+    }
+
+    private void checkFileExists(Path filePath, String fileName) throws DataFileNotFoundException {
+        if (!Files.isRegularFile(filePath) || !Files.exists(filePath)) {
+            logger.error("File {} does not exist or is not a regular file at path {}. Import aborted.", fileName, filePath);
+            throw new DataFileNotFoundException(fileName);
+        }
+    }
+
+    // Reports the bytes actually read from the file, whatever the encoding and line terminators
+    private static final class ByteCountingInputStream extends FilterInputStream {
+        private final LongConsumer bytesListener;
+
+        ByteCountingInputStream(InputStream in, LongConsumer bytesListener) {
+            super(in);
+            this.bytesListener = bytesListener;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                bytesListener.accept(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                bytesListener.accept(count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            bytesListener.accept(skipped);
+            return skipped;
+        }
+    }
+}
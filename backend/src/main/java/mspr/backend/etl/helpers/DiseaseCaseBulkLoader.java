@@ -0,0 +1,500 @@
+package mspr.backend.etl.helpers;
+
+import mspr.backend.entity.DiseaseCase;
+import mspr.backend.etl.exceptions.PersistenceException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts DiseaseCase rows without going through Hibernate.
+ * <p>
+ * On PostgreSQL rows are streamed with {@code COPY ... FROM STDIN (FORMAT binary)} through the
+ * PgJDBC copy API; on other databases (H2 in tests) they are written with JDBC batch inserts.
+ * Ids are taken from {@code disease_case_seq} for the whole list in a single round trip, in the
+ * same blocks as Hibernate's pooled optimizer, so rows inserted here and through JPA never collide.
+ * <p>
+ * The rows are inserted on the current transaction's connection if there is one, otherwise in
+ * auto-commit mode (one commit per call). The entities get their id set but are not attached to
+ * any persistence context.
+ * <p>
+ * {@link #upsert(List)} writes the cases of the imports keyed on (source, location, disease, date),
+ * the unique key of disease_case: a case of a file updates the row of the same file with the same
+ * key, which keeps its id, instead of adding a duplicate. The three fact imports run concurrently but
+ * never share a source, so they never write the same rows.
+ */
+@Component
+public class DiseaseCaseBulkLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiseaseCaseBulkLoader.class);
+
+    private static final String TABLE = "disease_case";
+    private static final String COLUMNS =
+            "id, confirmed_case, date, deaths, recovered, disease_id, location_id, source, import_generation";
+    private static final int COLUMN_COUNT = 9;
+    private static final String PLACEHOLDERS = String.join(", ", Collections.nCopies(COLUMN_COUNT, "?"));
+    // Columns of DiseaseCase's unique constraint uk_disease_case_source_key
+    private static final String KEY_COLUMNS = "source, location_id, disease_id, date";
+    // Session-local table the rows of an upsert are copied to on PostgreSQL, emptied at commit
+    private static final String UPSERT_TABLE = "disease_case_upsert";
+    private static final String SEQUENCE = "disease_case_seq";
+    // Must match the allocationSize of DiseaseCase's @SequenceGenerator
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private static final int JDBC_BATCH_SIZE = 1000;
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    // Binary COPY format: signature, flags, header extension length
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final LocalDate POSTGRES_EPOCH = LocalDate.of(2000, 1, 1);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public DiseaseCaseBulkLoader(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Unique key of an imported disease case row
+    private record CaseKey(String source, Integer locationId, Integer diseaseId, LocalDate date) {
+    }
+
+    /**
+     * Inserts the given disease cases, assigning ids to those that have none.
+     *
+     * @param diseaseCases The disease cases to insert; their disease and location must already be persisted.
+     * @throws PersistenceException if the rows cannot be written.
+     */
+    public void insert(List<DiseaseCase> diseaseCases) throws PersistenceException {
+        insertInto(TABLE, diseaseCases);
+    }
+
+    /**
+     * Same as {@link #insert(List)}, into another table with the columns of disease_case
+     * (the staging table of a staged import).
+     *
+     * @param table        The target table.
+     * @param diseaseCases The disease cases to insert.
+     * @throws PersistenceException if the rows cannot be written.
+     */
+    public void insertInto(String table, List<DiseaseCase> diseaseCases) throws PersistenceException {
+        if (diseaseCases.isEmpty()) {
+            return;
+        }
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            write(connection, table, diseaseCases);
+        } catch (SQLException | IOException e) {
+            logger.error("Bulk insert of {} disease cases failed: {}", diseaseCases.size(), e.getMessage(), e);
+            throw new PersistenceException("Error bulk inserting DiseaseCase entities", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Inserts or updates the given disease cases, keyed on (source, location, disease, date), in one transaction.
+     * A case whose key is already in the table replaces the counts and the import generation of that row,
+     * which keeps its id (clients may hold it); {@link #deleteOtherGenerations(String, long)} then finds the
+     * rows an import did not write. Within the list, the last case of a given key wins. Cases with an
+     * incomplete key are inserted.
+     * <p>
+     * On PostgreSQL the rows are copied to a temporary table, then moved with one
+     * {@code INSERT ... ON CONFLICT DO UPDATE}; every case gets an id first, which stays unused for the
+     * updated rows. On H2 (tests) the existing keys are looked up, then updated by id or inserted.
+     *
+     * @param diseaseCases The disease cases to write; their disease and location must already be persisted.
+     * @throws PersistenceException if the rows cannot be written.
+     */
+    public void upsert(List<DiseaseCase> diseaseCases) throws PersistenceException {
+        if (diseaseCases.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Connection connection = DataSourceUtils.getConnection(dataSource);
+                try {
+                    List<DiseaseCase> rows = lastOfEachKey(diseaseCases);
+                    boolean postgres = connection.isWrapperFor(PGConnection.class);
+                    if (postgres) {
+                        assignIds(connection, rows, true);
+                        copyUpsert(connection, rows);
+                    } else {
+                        updateOrInsertBatch(connection, rows);
+                    }
+                    logger.debug("Upserted {} disease cases ({} distinct keys)", diseaseCases.size(), rows.size());
+                } catch (SQLException | IOException e) {
+                    throw new BulkWriteException(e);
+                } finally {
+                    DataSourceUtils.releaseConnection(connection, dataSource);
+                }
+            });
+        } catch (BulkWriteException e) {
+            logger.error("Upsert of {} disease cases failed: {}", diseaseCases.size(), e.getCause().getMessage(), e.getCause());
+            throw new PersistenceException("Error upserting DiseaseCase entities", e.getCause());
+        }
+    }
+
+    /**
+     * @return The generation of the next import of the given file: one more than the highest recorded, 1 if none.
+     * @throws PersistenceException if the table cannot be read.
+     */
+    public long nextGeneration(String source) throws PersistenceException {
+        try {
+            Long generation = jdbcTemplate.queryForObject(
+                    "SELECT MAX(import_generation) FROM " + TABLE + " WHERE source = ?", Long.class, source);
+            return generation != null ? generation + 1 : 1;
+        } catch (DataAccessException e) {
+            throw new PersistenceException("Error reading the disease cases of " + source, e);
+        }
+    }
+
+    /**
+     * Deletes the cases of the given file written by another import than {@code generation}. Called at the
+     * end of an incremental import, it removes the rows that the new version of the file no longer contains:
+     * every row the import upserted carries its generation.
+     *
+     * @return The number of rows deleted.
+     * @throws PersistenceException if the rows cannot be deleted.
+     */
+    public int deleteOtherGenerations(String source, long generation) throws PersistenceException {
+        try {
+            return jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE source = ?"
+                    + " AND (import_generation IS NULL OR import_generation <> ?)", source, generation);
+        } catch (DataAccessException e) {
+            throw new PersistenceException("Error deleting the previous disease cases of " + source, e);
+        }
+    }
+
+    private void write(Connection connection, String table, List<DiseaseCase> diseaseCases) throws SQLException, IOException {
+        if (diseaseCases.isEmpty()) {
+            return;
+        }
+        boolean postgres = connection.isWrapperFor(PGConnection.class);
+        assignIds(connection, diseaseCases, postgres);
+        if (postgres) {
+            copy(connection.unwrap(PGConnection.class), table, diseaseCases);
+        } else {
+            batchInsert(connection, table, diseaseCases);
+        }
+        logger.debug("Bulk inserted {} disease cases into {} ({})", diseaseCases.size(), table, postgres ? "COPY" : "JDBC batch");
+    }
+
+    /**
+     * @return The cases of the list, keeping only the last one of each (source, location, disease, date) key,
+     * in the order of these last ones; cases with an incomplete key are all kept, at the end.
+     */
+    public static List<DiseaseCase> lastOfEachKey(List<DiseaseCase> diseaseCases) {
+        Map<CaseKey, DiseaseCase> byKey = new LinkedHashMap<>();
+        List<DiseaseCase> unkeyed = new ArrayList<>();
+        for (DiseaseCase diseaseCase : diseaseCases) {
+            CaseKey key = keyOf(diseaseCase);
+            if (key == null) {
+                unkeyed.add(diseaseCase);
+            } else {
+                byKey.put(key, diseaseCase);
+            }
+        }
+        List<DiseaseCase> result = new ArrayList<>(byKey.values());
+        result.addAll(unkeyed);
+        return result;
+    }
+
+    private static CaseKey keyOf(DiseaseCase diseaseCase) {
+        Integer locationId = diseaseCase.getLocation() != null ? diseaseCase.getLocation().getId() : null;
+        Integer diseaseId = diseaseCase.getDisease() != null ? diseaseCase.getDisease().getId() : null;
+        if (diseaseCase.getSource() == null || locationId == null || diseaseId == null || diseaseCase.getDate() == null) {
+            return null;
+        }
+        return new CaseKey(diseaseCase.getSource(), locationId, diseaseId, diseaseCase.getDate());
+    }
+
+    /**
+     * Copies the rows to the session's upsert table, then moves them to disease_case in one statement.
+     */
+    private void copyUpsert(Connection connection, List<DiseaseCase> diseaseCases) throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE IF NOT EXISTS " + UPSERT_TABLE
+                    + " (LIKE " + TABLE + " INCLUDING DEFAULTS) ON COMMIT DELETE ROWS");
+        }
+        copy(connection.unwrap(PGConnection.class), UPSERT_TABLE, diseaseCases);
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO " + TABLE + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM " + UPSERT_TABLE
+                    + " ON CONFLICT (" + KEY_COLUMNS + ") DO UPDATE SET confirmed_case = EXCLUDED.confirmed_case,"
+                    + " deaths = EXCLUDED.deaths, recovered = EXCLUDED.recovered, import_generation = EXCLUDED.import_generation");
+        }
+    }
+
+    /**
+     * H2 path: looks up the ids of the keys already in the table, updates those rows by primary key and
+     * inserts the others (with new ids), in JDBC batches. H2 plans a MERGE ... KEY on the row counts at prepare time and,
+     * from an empty table, scans a non-selective index for every row; the lookup below reads each file
+     * once per chunk instead. Cases with an incomplete key match nothing and are inserted.
+     */
+    private void updateOrInsertBatch(Connection connection, List<DiseaseCase> diseaseCases) throws SQLException {
+        Map<CaseKey, Integer> existingIds = existingIds(connection, diseaseCases);
+        List<DiseaseCase> inserts = new ArrayList<>();
+        String sql = "UPDATE " + TABLE + " SET confirmed_case = ?, deaths = ?, recovered = ?, import_generation = ? WHERE id = ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int pending = 0;
+            for (DiseaseCase diseaseCase : diseaseCases) {
+                CaseKey key = keyOf(diseaseCase);
+                Integer existingId = key != null ? existingIds.get(key) : null;
+                if (existingId == null) {
+                    inserts.add(diseaseCase);
+                    continue;
+                }
+                diseaseCase.setId(existingId);
+                setInt(statement, 1, diseaseCase.getConfirmedCases());
+                setInt(statement, 2, diseaseCase.getDeaths());
+                setInt(statement, 3, diseaseCase.getRecovered());
+                setLong(statement, 4, diseaseCase.getImportGeneration());
+                statement.setInt(5, existingId);
+                statement.addBatch();
+                if (++pending == JDBC_BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+        assignIds(connection, inserts, false);
+        batchInsert(connection, TABLE, inserts);
+    }
+
+    /**
+     * @return The ids of the rows already holding the keys of the given cases, read per file over the
+     * dates of the cases.
+     */
+    private Map<CaseKey, Integer> existingIds(Connection connection, List<DiseaseCase> diseaseCases) throws SQLException {
+        Map<String, LocalDate[]> datesBySource = new HashMap<>();
+        for (DiseaseCase diseaseCase : diseaseCases) {
+            CaseKey key = keyOf(diseaseCase);
+            if (key == null) {
+                continue;
+            }
+            LocalDate[] range = datesBySource.computeIfAbsent(key.source(), source -> new LocalDate[] {key.date(), key.date()});
+            if (key.date().isBefore(range[0])) {
+                range[0] = key.date();
+            }
+            if (key.date().isAfter(range[1])) {
+                range[1] = key.date();
+            }
+        }
+        Map<CaseKey, Integer> existingIds = new HashMap<>();
+        String sql = "SELECT id, location_id, disease_id, date FROM " + TABLE + " WHERE source = ? AND date BETWEEN ? AND ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Map.Entry<String, LocalDate[]> entry : datesBySource.entrySet()) {
+                statement.setString(1, entry.getKey());
+                statement.setDate(2, Date.valueOf(entry.getValue()[0]));
+                statement.setDate(3, Date.valueOf(entry.getValue()[1]));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        existingIds.put(new CaseKey(entry.getKey(), resultSet.getInt(2), resultSet.getInt(3),
+                                resultSet.getDate(4).toLocalDate()), resultSet.getInt(1));
+                    }
+                }
+            }
+        }
+        return existingIds;
+    }
+
+    /**
+     * Gives an id to every case without one. Each sequence value v stands for the block
+     * [v - 49, v], as for Hibernate's pooled optimizer; all the blocks needed are fetched at once.
+     */
+    private void assignIds(Connection connection, List<DiseaseCase> diseaseCases, boolean postgres) throws SQLException {
+        List<DiseaseCase> withoutId = new ArrayList<>();
+        for (DiseaseCase diseaseCase : diseaseCases) {
+            if (diseaseCase.getId() == null) {
+                withoutId.add(diseaseCase);
+            }
+        }
+        int next = 0;
+        while (next < withoutId.size()) {
+            // +2 covers the values skipped below on a fresh sequence
+            int blocks = (withoutId.size() - next + SEQUENCE_INCREMENT - 1) / SEQUENCE_INCREMENT + 2;
+            for (long hi : nextSequenceValues(connection, blocks, postgres)) {
+                // On first use Hibernate serves 1..100 from the values 1 and 51: never reuse them
+                if (hi <= SEQUENCE_INCREMENT + 1) {
+                    continue;
+                }
+                for (long id = hi - SEQUENCE_INCREMENT + 1; id <= hi && next < withoutId.size(); id++) {
+                    withoutId.get(next++).setId(Math.toIntExact(id));
+                }
+            }
+        }
+    }
+
+    private List<Long> nextSequenceValues(Connection connection, int count, boolean postgres) throws SQLException {
+        String sql = postgres
+                ? "SELECT nextval('" + SEQUENCE + "') FROM generate_series(1, ?)"
+                : "SELECT NEXT VALUE FOR " + SEQUENCE + " FROM SYSTEM_RANGE(1, ?)";
+        List<Long> values = new ArrayList<>(count);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, count);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    values.add(resultSet.getLong(1));
+                }
+            }
+        }
+        return values;
+    }
+
+    private void copy(PGConnection connection, String table, List<DiseaseCase> diseaseCases) throws SQLException, IOException {
+        String sql = "COPY " + table + " (" + COLUMNS + ") FROM STDIN (FORMAT binary)";
+        PGCopyOutputStream copyStream = new PGCopyOutputStream(connection, sql, COPY_BUFFER_SIZE);
+        try {
+            DataOutputStream out = new DataOutputStream(copyStream);
+            out.write(COPY_SIGNATURE);
+            out.writeInt(0); // flags
+            out.writeInt(0); // header extension length
+            for (DiseaseCase diseaseCase : diseaseCases) {
+                out.writeShort(COLUMN_COUNT);
+                writeInt(out, diseaseCase.getId());
+                writeInt(out, diseaseCase.getConfirmedCases());
+                writeDate(out, diseaseCase.getDate());
+                writeInt(out, diseaseCase.getDeaths());
+                writeInt(out, diseaseCase.getRecovered());
+                writeInt(out, diseaseCase.getDisease() != null ? diseaseCase.getDisease().getId() : null);
+                writeInt(out, diseaseCase.getLocation() != null ? diseaseCase.getLocation().getId() : null);
+                writeText(out, diseaseCase.getSource());
+                writeLong(out, diseaseCase.getImportGeneration());
+            }
+            out.writeShort(-1); // trailer
+            out.flush();
+            copyStream.endCopy();
+        } finally {
+            if (copyStream.isActive()) {
+                copyStream.cancelCopy();
+            }
+        }
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(Integer.BYTES);
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(Long.BYTES);
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(Integer.BYTES);
+            out.writeInt(Math.toIntExact(value.toEpochDay() - POSTGRES_EPOCH.toEpochDay()));
+        }
+    }
+
+    private void batchInsert(Connection connection, String table, List<DiseaseCase> diseaseCases) throws SQLException {
+        String sql = "INSERT INTO " + table + " (" + COLUMNS + ") VALUES (" + PLACEHOLDERS + ")";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int pending = 0;
+            for (DiseaseCase diseaseCase : diseaseCases) {
+                bindRow(statement, diseaseCase);
+                statement.addBatch();
+                if (++pending == JDBC_BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    // Binds the values of a row in the order of COLUMNS
+    private static void bindRow(PreparedStatement statement, DiseaseCase diseaseCase) throws SQLException {
+        setInt(statement, 1, diseaseCase.getId());
+        setInt(statement, 2, diseaseCase.getConfirmedCases());
+        statement.setDate(3, diseaseCase.getDate() != null ? Date.valueOf(diseaseCase.getDate()) : null);
+        setInt(statement, 4, diseaseCase.getDeaths());
+        setInt(statement, 5, diseaseCase.getRecovered());
+        setInt(statement, 6, diseaseCase.getDisease() != null ? diseaseCase.getDisease().getId() : null);
+        setInt(statement, 7, diseaseCase.getLocation() != null ? diseaseCase.getLocation().getId() : null);
+        statement.setString(8, diseaseCase.getSource());
+        setLong(statement, 9, diseaseCase.getImportGeneration());
+    }
+
+    private static void setInt(PreparedStatement statement, int index, Integer value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value);
+        }
+    }
+
+    private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    // Carries SQL/IO errors out of the transaction callback
+    private static final class BulkWriteException extends RuntimeException {
+        BulkWriteException(Exception cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package mspr.backend.etl.helpers;
+
+import mspr.backend.entity.ImportManifest;
+import mspr.backend.repository.ImportManifestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * Keeps the import manifest: one fingerprint (size + SHA-256) per source file, as of its last
+ * successful import. The file's modification time is stored too, so that an untouched file is
+ * recognised without being hashed again.
+ */
+@Component
+public class ImportManifestHelper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportManifestHelper.class);
+
+    private static final int HASH_BUFFER_SIZE = 1 << 16;
+
+    @Autowired
+    private ImportManifestRepository importManifestRepository;
+
+    /**
+     * @return true if no file import has been recorded yet.
+     */
+    public boolean isEmpty() {
+        return importManifestRepository.count() == 0;
+    }
+
+    /**
+     * @return The time of the most recent file import, or null if none is recorded.
+     */
+    public LocalDateTime lastImportedAt() {
+        ImportManifest latest = importManifestRepository.findTopByOrderByImportedAtDesc();
+        return latest != null ? latest.getImportedAt() : null;
+    }
+
+    /**
+     * Checks whether a file is identical to the one recorded by its last import.
+     *
+     * @param filePath Path to the source file.
+     * @param fileName The simple name of the file, key of the manifest.
+     * @return true if the file has the recorded size and hash.
+     * @throws IOException If the file cannot be read.
+     */
+    public boolean isUnchanged(Path filePath, String fileName) throws IOException {
+        ImportManifest manifest = importManifestRepository.findByFileName(fileName);
+        if (manifest == null || manifest.getSha256() == null) {
+            logger.debug("No manifest entry for {}", fileName);
+            return false;
+        }
+        long size = Files.size(filePath);
+        if (manifest.getFileSize() == null || manifest.getFileSize() != size) {
+            logger.debug("{} size changed: {} -> {} bytes", fileName, manifest.getFileSize(), size);
+            return false;
+        }
+        long lastModified = Files.getLastModifiedTime(filePath).toMillis();
+        if (manifest.getLastModified() != null && manifest.getLastModified() == lastModified) {
+            return true;
+        }
+
+        // Same size but touched (e.g. copied again on deploy): compare the content
+        boolean unchanged = manifest.getSha256().equals(sha256(filePath));
+        if (unchanged) {
+            manifest.setLastModified(lastModified);
+            importManifestRepository.save(manifest);
+        }
+        logger.debug("{} modification time changed, content {}", fileName, unchanged ? "identical" : "changed");
+        return unchanged;
+    }
+
+    /**
+     * Records the fingerprint of a file that has just been imported.
+     *
+     * @param filePath     Path to the source file.
+     * @param fileName     The simple name of the file, key of the manifest.
+     * @param rowsImported Number of records imported from the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public void record(Path filePath, String fileName, int rowsImported) throws IOException {
+        ImportManifest manifest = importManifestRepository.findByFileName(fileName);
+        if (manifest == null) {
+            manifest = new ImportManifest();
+            manifest.setFileName(fileName);
+        }
+        manifest.setFileSize(Files.size(filePath));
+        manifest.setLastModified(Files.getLastModifiedTime(filePath).toMillis());
+        manifest.setSha256(sha256(filePath));
+        manifest.setRowsImported(rowsImported);
+        manifest.setImportedAt(LocalDateTime.now());
+        importManifestRepository.save(manifest);
+        logger.debug("Recorded manifest {}", manifest);
+    }
+
+    /**
+     * Forgets every recorded import (used when all data is wiped).
+     */
+    public void clear() {
+        importManifestRepository.deleteAllInBatch();
+    }
+
+    private String sha256(Path filePath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(filePath)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,13 @@
+package mspr.backend.etl.helpers;
+
+/**
+ * How the ETL treats data already in the database.
+ */
+public enum ImportMode {
+    /** Wipe every table and reload all files. */
+    FULL,
+    /** Keep existing data, skip unchanged files and upsert the rows of changed ones. */
+    INCREMENTAL,
+    /** Reload all files into a staging table swapped with the live one at the end (PostgreSQL only). */
+    STAGED
+}
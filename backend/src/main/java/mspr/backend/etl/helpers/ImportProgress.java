@@ -0,0 +1,168 @@
+package mspr.backend.etl.helpers;
+
+import mspr.backend.dto.ImportStatusDto;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the background import, updated by the runner and the import services
+ * (from several threads) and read by the status endpoint and the readiness state.
+ * <p>
+ * Progress is measured in bytes of the source files, which gives an ETA before the number
+ * of rows is known; rows parsed and persisted are reported alongside.
+ */
+@Component
+public class ImportProgress {
+
+    public enum Status {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+
+    private volatile Status status = Status.IDLE;
+    private volatile ImportMode mode;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String lastError;
+    // Time at which the data served by the API was last complete; null while there is none
+    private volatile Instant lastGoodGenerationAt;
+    private volatile long totalBytes;
+
+    private final AtomicLong bytesParsed = new AtomicLong();
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsPersisted = new AtomicLong();
+    private final Set<String> currentFiles = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Resets the counters for a new import.
+     *
+     * @param mode       The import mode.
+     * @param totalBytes Total size of the files to import.
+     */
+    public void start(ImportMode mode, long totalBytes) {
+        this.mode = mode;
+        this.totalBytes = totalBytes;
+        bytesParsed.set(0);
+        rowsParsed.set(0);
+        rowsPersisted.set(0);
+        currentFiles.clear();
+        lastError = null;
+        finishedAt = null;
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    public void fileStarted(String fileName) {
+        currentFiles.add(fileName);
+    }
+
+    public void fileFinished(String fileName) {
+        currentFiles.remove(fileName);
+    }
+
+    public void addParsed(long rows, long bytes) {
+        rowsParsed.addAndGet(rows);
+        bytesParsed.addAndGet(bytes);
+    }
+
+    public void addPersisted(long rows) {
+        rowsPersisted.addAndGet(rows);
+    }
+
+    /**
+     * Marks the import as completed; its data is now the last good generation.
+     */
+    public void complete() {
+        currentFiles.clear();
+        finishedAt = Instant.now();
+        lastGoodGenerationAt = finishedAt;
+        status = Status.COMPLETED;
+    }
+
+    /**
+     * Marks the import as failed. The last good generation, if any, is unchanged.
+     */
+    public void fail(String error) {
+        currentFiles.clear();
+        finishedAt = Instant.now();
+        lastError = error;
+        status = Status.FAILED;
+    }
+
+    /**
+     * Records that the database holds a complete generation (data kept from a previous run).
+     */
+    public void markGenerationAvailable(Instant generationAt) {
+        lastGoodGenerationAt = generationAt;
+    }
+
+    /**
+     * Records that the data has been wiped and nothing complete can be served until the import ends.
+     */
+    public void markGenerationUnavailable() {
+        lastGoodGenerationAt = null;
+    }
+
+    public boolean isGenerationAvailable() {
+        return lastGoodGenerationAt != null;
+    }
+
+    /**
+     * @return true while a staged import runs: its disease cases replace the live ones at the end,
+     * so the API refuses writes until then (see StagedImportWriteGuard).
+     */
+    public boolean isStagedImportRunning() {
+        return status == Status.RUNNING && mode == ImportMode.STAGED;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return A consistent-enough copy of the progress for the status endpoint.
+     */
+    public ImportStatusDto snapshot() {
+        Instant started = startedAt;
+        Instant finished = finishedAt;
+        long total = totalBytes;
+        long parsed = Math.min(bytesParsed.get(), total);
+
+        Long elapsedMs = null;
+        Long etaMs = null;
+        Double percent = null;
+        if (started != null) {
+            elapsedMs = Duration.between(started, finished != null ? finished : Instant.now()).toMillis();
+            if (total > 0) {
+                percent = Math.round(parsed * 1000.0 / total) / 10.0;
+            }
+            if (status == Status.RUNNING && parsed > 0 && total > 0) {
+                // Linear extrapolation of the elapsed time over the bytes left
+                etaMs = Math.round(elapsedMs * (double) (total - parsed) / parsed);
+            }
+        }
+
+        ImportStatusDto dto = new ImportStatusDto();
+        dto.setStatus(status.name());
+        dto.setMode(mode != null ? mode.name() : null);
+        dto.setCurrentFiles(List.copyOf(currentFiles));
+        dto.setRowsParsed(rowsParsed.get());
+        dto.setRowsPersisted(rowsPersisted.get());
+        dto.setBytesParsed(parsed);
+        dto.setTotalBytes(total);
+        dto.setPercent(percent);
+        dto.setStartedAt(started);
+        dto.setFinishedAt(finished);
+        dto.setElapsedMs(elapsedMs);
+        dto.setEtaMs(etaMs);
+        dto.setLastError(lastError);
+        dto.setGenerationAvailable(isGenerationAvailable());
+        dto.setLastGoodGenerationAt(lastGoodGenerationAt);
+        return dto;
+    }
+}
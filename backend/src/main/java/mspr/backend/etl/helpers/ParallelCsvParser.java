@@ -0,0 +1,267 @@
+package mspr.backend.etl.helpers;
+
+import mspr.backend.etl.exceptions.DataFileNotFoundException;
+import mspr.backend.etl.exceptions.DataParsingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Parses a CSV file on a pool of worker threads.
+ * <p>
+ * The calling thread reads the file in raw byte blocks cut on the last line break, so that every
+ * block holds whole lines, and counts the lines of each block to give workers exact line numbers.
+ * Workers decode and tokenize their block and run the line parser on each line. Parsed results are
+ * handed back to the consumer on the calling thread, in file order, so the mapping downstream of the
+ * parse stays single-threaded and deterministic.
+ * <p>
+ * At most {@code 2 x threads} blocks are in flight, which bounds memory whatever the file size.
+ */
+@Component
+public class ParallelCsvParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelCsvParser.class);
+
+    private static final byte NEW_LINE = '\n';
+
+    @Autowired
+    private CsvReaderHelper csvReaderHelper;
+
+    // 0 means one thread per available processor
+    @Value("${etl.import.parallel-parse.threads:0}")
+    private int configuredThreads;
+
+    // Bytes read per block; a line longer than a block spans several reads
+    @Value("${etl.import.parallel-parse.block-size:1048576}")
+    private int blockSize;
+
+    /**
+     * Parses one line; called concurrently from worker threads, so implementations must be thread-safe.
+     */
+    @FunctionalInterface
+    public interface LineParser<T> {
+        /**
+         * @param fields     The worker's tokenizer, positioned on the line.
+         * @param lineNumber The 1-based line number in the file.
+         * @return The parsed result, or null if the line is invalid.
+         */
+        T parse(CsvLineTokenizer fields, int lineNumber);
+    }
+
+    /**
+     * Receives parsed results on the calling thread, in file order.
+     */
+    @FunctionalInterface
+    public interface ResultConsumer<T> {
+        void accept(T result, int lineNumber) throws Exception;
+    }
+
+    private record ParsedBlock<T>(int firstLineNumber, int byteCount, List<T> results) {
+    }
+
+    /**
+     * Parses all data lines of a CSV file (the header line is skipped).
+     *
+     * @param filePath   Path to the CSV file.
+     * @param fileName   The simple name of the file (for logging and exceptions).
+     * @param lineParser Parser applied to each data line on the worker threads.
+     * @param consumer   Consumer of the results, called on the calling thread in file order.
+     * @return The number of lines of the file, header included (0 for an empty file).
+     * @throws DataFileNotFoundException If the file is not found.
+     * @throws DataParsingException If a worker fails outside of the line parser.
+     * @throws Exception Any exception thrown by the consumer, unchanged.
+     */
+    public <T> int parse(Path filePath, String fileName, LineParser<T> lineParser, ResultConsumer<T> consumer)
+            throws Exception {
+        return parse(filePath, fileName, lineParser, consumer, bytes -> { });
+    }
+
+    /**
+     * Same as {@link #parse(Path, String, LineParser, ResultConsumer)}, reporting progress.
+     *
+     * @param blockListener Called on the calling thread with the size in bytes of each block (the header
+     *                      is counted with the first one), once all its results have been consumed.
+     */
+    public <T> int parse(Path filePath, String fileName, LineParser<T> lineParser, ResultConsumer<T> consumer,
+                         LongConsumer blockListener) throws Exception {
+        int threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+        int maxInFlight = threads * 2;
+        logger.debug("Parsing {} on {} threads", fileName, threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ParseThreadFactory(fileName));
+        Deque<Future<ParsedBlock<T>>> inFlight = new ArrayDeque<>();
+        try (FileChannel channel = csvReaderHelper.openCsvChannel(filePath, fileName)) {
+            byte[] carry = new byte[0];
+            boolean headerSkipped = false;
+            int nextLineNumber = 1;
+            // Bytes consumed by blocks without data line (the header), reported with the next block
+            int unreportedBytes = 0;
+            boolean eof = false;
+
+            while (!eof) {
+                // Block = unfinished line of the previous read + a fresh read
+                byte[] block = Arrays.copyOf(carry, carry.length + blockSize);
+                int limit = carry.length;
+                ByteBuffer buffer = ByteBuffer.wrap(block, limit, blockSize);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        eof = true;
+                        break;
+                    }
+                }
+                limit = buffer.position();
+
+                // Cut after the last line break; at EOF the last line needs no terminator
+                int end = eof ? limit : lastIndexOf(block, NEW_LINE, limit) + 1;
+                if (end == 0) {
+                    carry = Arrays.copyOf(block, limit); // Line longer than a block, keep reading
+                    continue;
+                }
+                carry = Arrays.copyOfRange(block, end, limit);
+
+                int start = 0;
+                if (!headerSkipped) {
+                    int headerEnd = indexOf(block, NEW_LINE, 0, end);
+                    start = headerEnd < 0 ? end : headerEnd + 1;
+                    nextLineNumber++;
+                    headerSkipped = true;
+                }
+
+                int lineCount = countLines(block, start, end);
+                if (lineCount > 0) {
+                    if (inFlight.size() >= maxInFlight) {
+                        drain(inFlight.removeFirst(), fileName, consumer, blockListener);
+                    }
+                    int firstLineNumber = nextLineNumber;
+                    int blockStart = start;
+                    int blockEnd = end;
+                    int byteCount = unreportedBytes + end; // Every byte up to end is consumed by this block
+                    inFlight.addLast(executor.submit(
+                            () -> parseBlock(block, blockStart, blockEnd, firstLineNumber, lineCount, byteCount, lineParser)));
+                    nextLineNumber += lineCount;
+                    unreportedBytes = 0;
+                } else {
+                    unreportedBytes += end;
+                }
+            }
+
+            while (!inFlight.isEmpty()) {
+                drain(inFlight.removeFirst(), fileName, consumer, blockListener);
+            }
+            if (unreportedBytes > 0) {
+                blockListener.accept(unreportedBytes);
+            }
+            return headerSkipped ? nextLineNumber - 1 : 0;
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> void drain(Future<ParsedBlock<T>> future, String fileName, ResultConsumer<T> consumer,
+                           LongConsumer blockListener) throws Exception {
+        ParsedBlock<T> block;
+        try {
+            block = future.get();
+        } catch (ExecutionException e) {
+            throw new DataParsingException(fileName, -1, "Parse worker failed", e.getCause());
+        }
+        int lineNumber = block.firstLineNumber();
+        for (T result : block.results()) {
+            consumer.accept(result, lineNumber++);
+        }
+        blockListener.accept(block.byteCount());
+    }
+
+    private static <T> ParsedBlock<T> parseBlock(byte[] block, int start, int end, int firstLineNumber,
+                                                 int lineCount, int byteCount, LineParser<T> lineParser) {
+        // Blocks are cut on '\n', so no multi-byte character is split
+        CharBuffer decoded = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(block, start, end - start));
+        char[] chars = decoded.array();
+        int from = decoded.arrayOffset() + decoded.position();
+        int to = decoded.arrayOffset() + decoded.limit();
+
+        CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+        List<T> results = new ArrayList<>(lineCount);
+        int lineNumber = firstLineNumber;
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && chars[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            // A trailing '\r' is dropped by the tokenizer's trimming
+            results.add(lineParser.parse(tokenizer.tokenize(chars, lineStart, lineEnd), lineNumber++));
+            lineStart = lineEnd + 1;
+        }
+        return new ParsedBlock<>(firstLineNumber, byteCount, results);
+    }
+
+    private static int countLines(byte[] block, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (block[i] == NEW_LINE) {
+                count++;
+            }
+        }
+        // Last line of the file without a terminator
+        if (end > start && block[end - 1] != NEW_LINE) {
+            count++;
+        }
+        return count;
+    }
+
+    private static int indexOf(byte[] block, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (block[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] block, byte value, int to) {
+        for (int i = to - 1; i >= 0; i--) {
+            if (block[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class ParseThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        ParseThreadFactory(String fileName) {
+            this.prefix = "csv-parse-" + fileName + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
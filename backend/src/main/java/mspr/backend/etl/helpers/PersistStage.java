@@ -0,0 +1,194 @@
+package mspr.backend.etl.helpers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last stage of a CSV import: writes the chunks handed over by the import thread on a thread of its own,
+ * so that the database writes of a chunk overlap the reading, parsing and mapping of the next ones.
+ * <p>
+ * Chunks go through a bounded queue: when the writer falls behind, {@link #submit} blocks the import
+ * thread (backpressure), so at most {@code capacity + 1} chunks wait or are being written. Chunks are
+ * written one at a time, in submission order. The first failure stops the writes; it is rethrown to the
+ * import thread by the next {@link #submit} or by {@link #finish}.
+ * <p>
+ * Given a {@link TransactionTemplate}, the stage writes every chunk of the import in one transaction,
+ * committed once the last chunk is written (before {@link #finish} returns) and rolled back if a chunk
+ * fails or the stage is aborted: the rows of a file are then all written or none.
+ * <p>
+ * Stage timings are recorded in the {@code etl.import.stage} timer (tags {@code file} and {@code stage}):
+ * {@code persist} per chunk written, {@code handoff} for the time the import thread was blocked by a full queue.
+ * One instance per import run; not reusable.
+ */
+public final class PersistStage {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistStage.class);
+
+    /**
+     * Writes one chunk; runs on the stage thread.
+     */
+    @FunctionalInterface
+    public interface ChunkWrite {
+        void run() throws Exception;
+    }
+
+    private record Chunk(int records, ChunkWrite write) {
+    }
+
+    // Marks the end of the input
+    private static final Chunk END = new Chunk(0, () -> { });
+
+    private final String fileName;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Chunk> queue;
+    private final Thread thread;
+    private final Timer persistTimer;
+    private final Timer handoffTimer;
+
+    private volatile Exception failure;
+    private long persistNanos; // written by the stage thread, read after join
+    private long handoffNanos;
+    private int chunks;
+    private long records;
+
+    public PersistStage(String fileName, int capacity, MeterRegistry meterRegistry) {
+        this(fileName, capacity, meterRegistry, null);
+    }
+
+    /**
+     * @param transactionTemplate Runs all the writes in one transaction; null to leave transactions to each write.
+     */
+    public PersistStage(String fileName, int capacity, MeterRegistry meterRegistry, TransactionTemplate transactionTemplate) {
+        this.fileName = fileName;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.persistTimer = stageTimer(meterRegistry, fileName, "persist");
+        this.handoffTimer = stageTimer(meterRegistry, fileName, "handoff");
+        this.thread = new Thread(this::run, "etl-persist-" + fileName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Records a stage timing of an import, e.g. the mapping time of a chunk on the import thread.
+     */
+    public static Timer stageTimer(MeterRegistry meterRegistry, String fileName, String stage) {
+        return Timer.builder("etl.import.stage")
+                .description("Time spent in each stage of a CSV import")
+                .tag("file", fileName)
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a chunk, waiting while the queue is full.
+     *
+     * @param records Number of records of the chunk, for the statistics.
+     * @param write   Writes the chunk.
+     * @throws Exception The failure of a previous chunk, if any.
+     */
+    public void submit(int records, ChunkWrite write) throws Exception {
+        rethrowFailure();
+        long start = System.nanoTime();
+        Chunk chunk = new Chunk(records, write);
+        // Waits in slices, so that a failure of the writer cannot leave this thread blocked on a full queue
+        while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            rethrowFailure();
+        }
+        long waited = System.nanoTime() - start;
+        handoffNanos += waited;
+        handoffTimer.record(waited, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Waits until every queued chunk is written, then logs the stage statistics.
+     *
+     * @param mapNanos   Time spent mapping on the import thread, for the statistics.
+     * @param startNanos {@link System#nanoTime()} at the start of the import, for the statistics.
+     * @throws Exception The failure of a chunk, if any.
+     */
+    public void finish(long mapNanos, long startNanos) throws Exception {
+        while (!queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+            rethrowFailure();
+        }
+        thread.join();
+        rethrowFailure();
+        long wallNanos = System.nanoTime() - startNanos;
+        logger.info("Pipeline of {}: {} records in {} chunks; map {} ms, persist {} ms, import thread blocked {} ms, wall {} ms",
+                fileName, records, chunks, TimeUnit.NANOSECONDS.toMillis(mapNanos), TimeUnit.NANOSECONDS.toMillis(persistNanos),
+                TimeUnit.NANOSECONDS.toMillis(handoffNanos), TimeUnit.NANOSECONDS.toMillis(wallNanos));
+    }
+
+    /**
+     * Stops the stage after a failure of the import thread; queued chunks are dropped.
+     */
+    public void abort() {
+        queue.clear();
+        thread.interrupt();
+    }
+
+    private void run() {
+        if (transactionTemplate == null) {
+            writeChunks();
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                writeChunks();
+                if (failure != null || Thread.currentThread().isInterrupted()) {
+                    status.setRollbackOnly();
+                    logger.warn("Rolled back the writes of {}", fileName);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Commit failed
+            logger.error("Committing the writes of {} failed: {}", fileName, e.getMessage());
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+
+    private void writeChunks() {
+        try {
+            while (true) {
+                Chunk chunk = queue.take();
+                if (chunk == END) {
+                    return;
+                }
+                if (failure != null) {
+                    continue; // Drain without writing, until the import thread sees the failure
+                }
+                long start = System.nanoTime();
+                try {
+                    chunk.write().run();
+                } catch (Exception e) {
+                    logger.error("Writing a chunk of {} failed: {}", fileName, e.getMessage());
+                    failure = e;
+                    continue;
+                }
+                long elapsed = System.nanoTime() - start;
+                persistNanos += elapsed;
+                persistTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                chunks++;
+                records += chunk.records();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Aborted
+        }
+    }
+
+    private void rethrowFailure() throws Exception {
+        Exception e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+}
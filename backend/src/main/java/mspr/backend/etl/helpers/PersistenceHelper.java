@@ -2,20 +2,24 @@ package mspr.backend.etl.helpers;
 
 import mspr.backend.entity.Country;
 import mspr.backend.entity.Disease;
+import mspr.backend.entity.DiseaseCase;
 import mspr.backend.entity.Location;
 import mspr.backend.entity.Region;
 import mspr.backend.repository.*;
 import mspr.backend.etl.exceptions.PersistenceException;
 import mspr.backend.etl.helpers.cache.CacheManager;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
-import java.util.Map;
 
 @Component
 public class PersistenceHelper {
@@ -31,22 +35,48 @@ public class PersistenceHelper {
     @Autowired
     private DiseaseRepository diseaseRepository;
     @Autowired
+    private DiseaseCaseRepository diseaseCaseRepository;
+    @Autowired
+    private DiseaseCaseBulkLoader diseaseCaseBulkLoader;
+    @Autowired
     private CacheManager cacheManager;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public PersistenceHelper(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Never joins a caller's transaction: see persistCachedEntities
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     /**
-     * Persists all entities currently held in the CacheManager's maps.
-     * Updates the cache with the managed entities returned by the repository.
+     * Persists the entities currently held in the CacheManager's maps that have not been saved yet,
+     * and the countries changed since they were saved (see {@link CacheManager#takeModifiedCountries()}).
+     * Called on the import thread before each chunk is handed to the persist stage: entities that
+     * already have an id were saved by a previous chunk (or import) and are skipped, so the cost of
+     * a call is proportional to what is new. Saved entities get their id assigned in place, so the
+     * cached instances stay valid.
+     * <p>
+     * Imports run concurrently and share the cache: calls are serialized, and each runs in a
+     * transaction of its own (REQUIRES_NEW, whatever the caller's transaction) committed before the
+     * lock is released, so an entity that has an id is always visible to the other imports'
+     * connections when they insert rows referencing it. These entities are therefore kept when the
+     * import of a file fails later on.
      *
      * @throws PersistenceException if there is a database error during saving.
      */
-    @Transactional
-    public void persistCachedEntities() throws PersistenceException {
+    public synchronized void persistCachedEntities() throws PersistenceException {
         logger.debug("Persisting cached entities...");
         try {
-            saveCountries();
-            saveRegions();
-            saveLocations();
-            saveDiseases();
+            transactionTemplate.executeWithoutResult(status -> {
+                saveCountries();
+                saveRegions();
+                saveLocations();
+                saveDiseases();
+            });
             logger.debug("Finished persisting cached entities.");
         } catch (DataAccessException e) {
             logger.error("Database error while persisting cached entities: {}", e.getMessage(), e);
@@ -55,60 +85,176 @@ public class PersistenceHelper {
     }
 
     /**
-     * Saves countries from the cache and updates the cache with managed entities.
+     * Loads the countries, regions and locations already in the database into the CacheManager,
+     * so that an incremental import reuses them instead of creating duplicates.
+     * They are read in a single persistence context, so a region's country is the very instance
+     * cached as that country (the location cache relies on region identity).
+     *
+     * @throws PersistenceException if there is a database error during loading.
+     */
+    public synchronized void primeCacheFromDatabase() throws PersistenceException {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                status.setRollbackOnly(); // Read only
+                List<Country> countries = countryRepository.findAll();
+                List<Region> regions = regionRepository.findAll();
+                List<Location> locations = locationRepository.findAll();
+                cacheManager.setCountries(countries);
+                cacheManager.setRegions(regions);
+                cacheManager.setLocations(locations);
+                logger.info("Cache primed from database: {} countries, {} regions, {} locations",
+                        countries.size(), regions.size(), locations.size());
+            });
+        } catch (DataAccessException e) {
+            logger.error("Database error while priming the cache: {}", e.getMessage(), e);
+            throw new PersistenceException("Error loading existing entities from database", e);
+        }
+    }
+
+    /**
+     * Saves a chunk of disease cases, either through JPA or through the bulk loader.
+     * Their disease and location must have been persisted beforehand (see {@link #persistCachedEntities()}).
+     *
+     * @param diseaseCases The disease cases to save.
+     * @param mode         How to write them.
+     * @throws PersistenceException if there is a database error during saving.
+     */
+    public void saveDiseaseCases(List<DiseaseCase> diseaseCases, PersistenceMode mode) throws PersistenceException {
+        saveDiseaseCases(diseaseCases, mode, false);
+    }
+
+    /**
+     * Saves a chunk of disease cases, optionally as an upsert keyed on (source, location, disease, date).
+     * Upserts always go through the bulk loader. Otherwise the chunk is inserted in the given mode,
+     * keeping only the last case of a key repeated within the chunk, so that the unique key
+     * uk_disease_case_source_key gives the same result in both modes.
+     *
+     * @param diseaseCases The disease cases to save.
+     * @param mode         How to insert new rows.
+     * @param upsert       true to update the rows that already exist instead of inserting the cases.
+     * @throws PersistenceException if there is a database error during saving.
+     */
+    public void saveDiseaseCases(List<DiseaseCase> diseaseCases, PersistenceMode mode, boolean upsert)
+            throws PersistenceException {
+        if (upsert) {
+            diseaseCaseBulkLoader.upsert(diseaseCases);
+            return;
+        }
+        List<DiseaseCase> rows = DiseaseCaseBulkLoader.lastOfEachKey(diseaseCases);
+        if (rows.size() < diseaseCases.size()) {
+            logger.debug("Skipped {} disease cases repeating a key of the same chunk", diseaseCases.size() - rows.size());
+        }
+        if (mode == PersistenceMode.BULK) {
+            diseaseCaseBulkLoader.insert(rows);
+            return;
+        }
+        try {
+            diseaseCaseRepository.saveAll(rows);
+            // The import of a file is one transaction: written chunks are not kept in its persistence context
+            diseaseCaseRepository.flush();
+            entityManager.clear();
+        } catch (DataAccessException e) {
+            logger.error("Database error while saving DiseaseCase entities: {}", e.getMessage(), e);
+            throw new PersistenceException("Error saving DiseaseCase entities to database", e);
+        }
+    }
+
+    /**
+     * @return The import generation to record on the disease cases of the next import of a file.
+     * @throws PersistenceException if there is a database error.
+     */
+    public long nextImportGeneration(String source) throws PersistenceException {
+        return diseaseCaseBulkLoader.nextGeneration(source);
+    }
+
+    /**
+     * Deletes the disease cases of a file that an incremental import did not write again.
+     *
+     * @param source     The file name.
+     * @param generation The generation of that import, see {@link #nextImportGeneration(String)}.
+     * @return The number of rows deleted.
+     * @throws PersistenceException if there is a database error.
+     */
+    public int deleteStaleDiseaseCases(String source, long generation) throws PersistenceException {
+        return diseaseCaseBulkLoader.deleteOtherGenerations(source, generation);
+    }
+
+    /**
+     * Writes a chunk of disease cases to the staging table of a staged import, through the bulk loader.
+     *
+     * @param diseaseCases The disease cases to write.
+     * @throws PersistenceException if there is a database error during saving.
+     */
+    public void stageDiseaseCases(List<DiseaseCase> diseaseCases) throws PersistenceException {
+        diseaseCaseBulkLoader.insertInto(StagingTableHelper.STAGING_TABLE, diseaseCases);
+    }
+
+    /**
+     * Saves the countries from the cache that have no id yet, and the changes made since the
+     * previous call to those already saved.
      */
     private void saveCountries() {
-        Map<String, Country> countriesToSave = cacheManager.getCountries();
+        // Taken first: a country changed before this point and not saved yet is inserted below with its change
+        List<Country> modifiedCountries = cacheManager.takeModifiedCountries();
+        List<Country> countriesToSave = cacheManager.getCountries().values().stream()
+                .filter(country -> country.getId() == null)
+                .toList();
         if (!countriesToSave.isEmpty()) {
-            logger.debug("Saving {} countries", countriesToSave.size());
-            List<Country> savedCountries = countryRepository.saveAll(countriesToSave.values());
-            cacheManager.setCountries(savedCountries); // Update cache with managed entities
-            logger.debug("Updated country cache with {} managed entities", savedCountries.size());
+            logger.debug("Saving {} new countries", countriesToSave.size());
+            countryRepository.saveAll(countriesToSave);
         } else {
             logger.debug("No new countries to save.");
         }
+        if (!modifiedCountries.isEmpty()) {
+            logger.debug("Updating {} modified countries", modifiedCountries.size());
+            countryRepository.saveAll(modifiedCountries);
+        }
     }
 
     /**
-     * Saves regions from the cache and updates the cache with managed entities.
+     * Saves the regions from the cache that have no id yet.
+     * Regions whose country was created by another import after saveCountries are left for the next call.
      */
     private void saveRegions() {
-        Map<String, Region> regionsToSave = cacheManager.getRegions();
+        List<Region> regionsToSave = cacheManager.getRegions().values().stream()
+                .filter(region -> region.getId() == null)
+                .filter(region -> region.getCountry() == null || region.getCountry().getId() != null)
+                .toList();
         if (!regionsToSave.isEmpty()) {
-            logger.debug("Saving {} regions", regionsToSave.size());
-            List<Region> savedRegions = regionRepository.saveAll(regionsToSave.values());
-            cacheManager.setRegions(savedRegions); // Update cache with managed entities
-            logger.debug("Updated region cache with {} managed entities", savedRegions.size());
+            logger.debug("Saving {} new regions", regionsToSave.size());
+            regionRepository.saveAll(regionsToSave);
         } else {
             logger.debug("No new regions to save.");
         }
     }
 
     /**
-     * Saves locations from the cache and updates the cache with managed entities.
+     * Saves the locations from the cache that have no id yet.
+     * As for regions, locations whose region is not saved yet are left for the next call.
      */
     private void saveLocations() {
-        Map<String, Location> locationsToSave = cacheManager.getLocations();
+        List<Location> locationsToSave = cacheManager.getLocations().values().stream()
+                .filter(location -> location.getId() == null)
+                .filter(location -> location.getRegion() == null || location.getRegion().getId() != null)
+                .toList();
         if (!locationsToSave.isEmpty()) {
-            logger.debug("Saving {} locations", locationsToSave.size());
-            List<Location> savedLocations = locationRepository.saveAll(locationsToSave.values());
-            cacheManager.setLocations(savedLocations); // Update cache with managed entities
-            logger.debug("Updated location cache with {} managed entities", savedLocations.size());
+            logger.debug("Saving {} new locations", locationsToSave.size());
+            locationRepository.saveAll(locationsToSave);
         } else {
             logger.debug("No new locations to save.");
         }
     }
 
     /**
-     * Saves diseases from the cache and updates the cache with managed entities.
+     * Saves the diseases from the cache that have no id yet.
      */
     private void saveDiseases() {
-        Map<String, Disease> diseasesToSave = cacheManager.getDiseases();
+        List<Disease> diseasesToSave = cacheManager.getDiseases().values().stream()
+                .filter(disease -> disease.getId() == null)
+                .toList();
         if (!diseasesToSave.isEmpty()) {
-            logger.debug("Saving {} diseases", diseasesToSave.size());
-            List<Disease> savedDiseases = diseaseRepository.saveAll(diseasesToSave.values());
-            cacheManager.setDiseases(savedDiseases); // Update cache with managed entities
-            logger.debug("Updated disease cache with {} managed entities", savedDiseases.size());
+            logger.debug("Saving {} new diseases", diseasesToSave.size());
+            diseaseRepository.saveAll(diseasesToSave);
         } else {
             logger.debug("No new diseases to save.");
         }
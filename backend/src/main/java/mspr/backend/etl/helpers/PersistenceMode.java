@@ -0,0 +1,12 @@
+package mspr.backend.etl.helpers;
+
+/**
+ * How an import service inserts its DiseaseCase rows. Incremental imports upsert them through
+ * {@link DiseaseCaseBulkLoader} whatever the mode.
+ */
+public enum PersistenceMode {
+    /** Through {@code DiseaseCaseRepository.saveAll} (Hibernate batching). */
+    JPA,
+    /** Through {@link DiseaseCaseBulkLoader}: COPY on PostgreSQL, plain JDBC batches elsewhere. */
+    BULK
+}
@@ -0,0 +1,143 @@
+package mspr.backend.etl.helpers;
+
+import mspr.backend.etl.exceptions.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Manages the shadow table of a staged import (PostgreSQL only).
+ * <p>
+ * Disease cases are loaded into {@code disease_case_staging}, an UNLOGGED copy of
+ * {@code disease_case} without index nor constraint, while readers keep querying the live table.
+ * Once the load is complete, {@link #swap()} makes the table logged, builds its primary key, unique key,
+ * indexes and foreign keys, then renames it into place in one short transaction. The previous generation
+ * is dropped in that same transaction.
+ */
+@Component
+public class StagingTableHelper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StagingTableHelper.class);
+
+    public static final String STAGING_TABLE = "disease_case_staging";
+    private static final String LIVE_TABLE = "disease_case";
+    private static final String OLD_TABLE = "disease_case_old";
+    // Names as created by Hibernate / DiseaseCase's @Table, restored after the swap
+    private static final String PRIMARY_KEY = "disease_case_pkey";
+    private static final String UNIQUE_KEY = "uk_disease_case_source_key";
+    private static final String KEY_INDEX = "idx_disease_case_location_disease_date";
+    private static final String DATE_INDEX = "idx_disease_case_date_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Readers are never blocked longer than this by the swap: the swap fails instead
+    @Value("${etl.import.staged.swap-lock-timeout:5s}")
+    private String swapLockTimeout;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public StagingTableHelper(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return true if the database supports staged imports (PostgreSQL).
+     */
+    public boolean isSupported() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+
+    /**
+     * Creates an empty staging table, dropping the leftovers of an interrupted staged import.
+     *
+     * @throws PersistenceException if the table cannot be created.
+     */
+    public void prepare() throws PersistenceException {
+        try {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + STAGING_TABLE);
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + OLD_TABLE);
+            // Unlogged: no WAL during the load, the table is made durable once complete
+            jdbcTemplate.execute("CREATE UNLOGGED TABLE " + STAGING_TABLE
+                    + " (LIKE " + LIVE_TABLE + " INCLUDING DEFAULTS)");
+            logger.info("Staging table {} created", STAGING_TABLE);
+        } catch (DataAccessException e) {
+            throw new PersistenceException("Error creating staging table " + STAGING_TABLE, e);
+        }
+    }
+
+    /**
+     * Finalises the staging table and swaps it with the live one.
+     *
+     * @throws PersistenceException if the table cannot be finalised or swapped; the live table is then untouched.
+     */
+    public void swap() throws PersistenceException {
+        try {
+            // Slow steps first, on a table nobody reads yet
+            long start = System.currentTimeMillis();
+            jdbcTemplate.execute("ALTER TABLE " + STAGING_TABLE + " SET LOGGED");
+            jdbcTemplate.execute("ALTER TABLE " + STAGING_TABLE + " ADD CONSTRAINT " + STAGING_TABLE + "_pkey PRIMARY KEY (id)");
+            // The chunks were copied without the unique key: a key repeated by a file keeps its last row,
+            // which has the highest id, as the upserts of the other import modes
+            int repeated = jdbcTemplate.update("DELETE FROM " + STAGING_TABLE + " s USING " + STAGING_TABLE + " d"
+                    + " WHERE d.source = s.source AND d.location_id = s.location_id AND d.disease_id = s.disease_id"
+                    + " AND d.date = s.date AND d.id > s.id");
+            if (repeated > 0) {
+                logger.info("Removed {} staged disease cases repeating the key of a later row", repeated);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + STAGING_TABLE + " ADD CONSTRAINT " + STAGING_TABLE + "_source_key"
+                    + " UNIQUE (source, location_id, disease_id, date)");
+            jdbcTemplate.execute("CREATE INDEX " + STAGING_TABLE + "_key_idx ON " + STAGING_TABLE
+                    + " (location_id, disease_id, date)");
+            jdbcTemplate.execute("CREATE INDEX " + STAGING_TABLE + "_date_idx ON " + STAGING_TABLE + " (date, id)");
+            jdbcTemplate.execute("ALTER TABLE " + STAGING_TABLE + " ADD CONSTRAINT fk_" + STAGING_TABLE + "_disease"
+                    + " FOREIGN KEY (disease_id) REFERENCES disease (id)");
+            jdbcTemplate.execute("ALTER TABLE " + STAGING_TABLE + " ADD CONSTRAINT fk_" + STAGING_TABLE + "_location"
+                    + " FOREIGN KEY (location_id) REFERENCES location (id)");
+            jdbcTemplate.execute("ANALYZE " + STAGING_TABLE);
+            logger.info("Staging table {} finalised in {} ms", STAGING_TABLE, System.currentTimeMillis() - start);
+
+            start = System.currentTimeMillis();
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '" + swapLockTimeout + "'");
+                jdbcTemplate.execute("ALTER TABLE " + LIVE_TABLE + " RENAME TO " + OLD_TABLE);
+                jdbcTemplate.execute("ALTER TABLE " + STAGING_TABLE + " RENAME TO " + LIVE_TABLE);
+                jdbcTemplate.execute("DROP TABLE " + OLD_TABLE);
+                jdbcTemplate.execute("ALTER INDEX " + STAGING_TABLE + "_pkey RENAME TO " + PRIMARY_KEY);
+                jdbcTemplate.execute("ALTER TABLE " + LIVE_TABLE + " RENAME CONSTRAINT " + STAGING_TABLE + "_source_key"
+                        + " TO " + UNIQUE_KEY);
+                jdbcTemplate.execute("ALTER INDEX " + STAGING_TABLE + "_key_idx RENAME TO " + KEY_INDEX);
+                jdbcTemplate.execute("ALTER INDEX " + STAGING_TABLE + "_date_idx RENAME TO " + DATE_INDEX);
+                jdbcTemplate.execute("ALTER TABLE " + LIVE_TABLE + " RENAME CONSTRAINT fk_" + STAGING_TABLE + "_disease"
+                        + " TO fk_" + LIVE_TABLE + "_disease");
+                jdbcTemplate.execute("ALTER TABLE " + LIVE_TABLE + " RENAME CONSTRAINT fk_" + STAGING_TABLE + "_location"
+                        + " TO fk_" + LIVE_TABLE + "_location");
+            });
+            logger.info("Staging table swapped into {} in {} ms", LIVE_TABLE, System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            throw new PersistenceException("Error swapping staging table " + STAGING_TABLE + " into " + LIVE_TABLE, e);
+        }
+    }
+
+    /**
+     * Drops the staging table after a failed import; the live table keeps serving the previous data.
+     */
+    public void discard() {
+        try {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + STAGING_TABLE);
+            logger.info("Staging table {} discarded", STAGING_TABLE);
+        } catch (DataAccessException e) {
+            logger.warn("Could not drop staging table {}: {}", STAGING_TABLE, e.getMessage());
+        }
+    }
+}
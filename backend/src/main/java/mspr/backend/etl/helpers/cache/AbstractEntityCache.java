@@ -3,70 +3,152 @@ package mspr.backend.etl.helpers.cache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * Base abstract class for all entity caches.
  * Provides common cache management functionality.
- * 
+ * <p>
+ * Imports run concurrently and share the caches. Entries live in a {@link ConcurrentHashMap}:
+ * lookups take no lock, and {@link #getOrCreate(Object, Function)} creates a missing entity
+ * atomically, so two threads never create the same entity twice. Subclasses whose creation
+ * depends on more than one entry lock a stripe (see {@link #lockFor(Object)}) instead of the
+ * whole cache. Hits and misses are counted for the import summary.
+ *
  * @param <K> Key type for the cache
  * @param <E> Entity type stored in the cache
  */
 public abstract class AbstractEntityCache<K, E> {
-    
+
+    private static final int STRIPES = 64;
+
+    /**
+     * Lookups served from the cache, entities created, and current number of entries.
+     */
+    public record Stats(long hits, long misses, int size) {
+    }
+
     protected final Logger logger = LoggerFactory.getLogger(getClass());
-    protected final Map<K, E> cache = new HashMap<>();
-    
+    protected final Map<K, E> cache = new ConcurrentHashMap<>();
+
+    private final Object[] locks = new Object[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    protected AbstractEntityCache() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
     /**
-     * Clears the cache.
+     * Clears the cache and its statistics.
      */
     public void clear() {
         cache.clear();
+        hits.reset();
+        misses.reset();
         logger.debug("Cache cleared for {}", getClass().getSimpleName());
     }
-    
+
     /**
      * Gets the size of the cache.
-     * 
+     *
      * @return The number of entries in the cache
      */
     public int size() {
         return cache.size();
     }
-    
+
     /**
      * Checks if the cache contains an entry for the given key.
-     * 
+     *
      * @param key The key to check
      * @return true if the cache contains the key, false otherwise
      */
     public boolean contains(K key) {
-        return cache.containsKey(key);
+        return key != null && cache.containsKey(key);
     }
-    
+
     /**
      * Gets the entity from the cache using the key.
-     * 
+     *
      * @param key The key to look up
      * @return The entity, or null if not found
      */
     public E get(K key) {
-        return cache.get(key);
+        return key != null ? cache.get(key) : null;
+    }
+
+    /**
+     * Gets the entity cached under the key, creating and caching it if missing.
+     * The factory runs at most once per key, and must not access this cache.
+     *
+     * @param key The key to look up
+     * @param factory Creates the entity from the key
+     * @return The cached entity
+     */
+    protected E getOrCreate(K key, Function<? super K, ? extends E> factory) {
+        E entity = lookup(key); // No lock on the (common) hit path
+        if (entity != null) {
+            return entity;
+        }
+        return cache.computeIfAbsent(key, k -> {
+            misses.increment();
+            return factory.apply(k);
+        });
+    }
+
+    /**
+     * Gets the entity cached under the key, counting a hit when found.
+     * Subclasses call it before building a capturing factory, so that a hit allocates nothing.
+     *
+     * @param key The key to look up
+     * @return The entity, or null if not found (not counted as a miss)
+     */
+    protected E lookup(K key) {
+        E entity = cache.get(key);
+        if (entity != null) {
+            hits.increment();
+        }
+        return entity;
     }
-    
+
+    /**
+     * Lock shared by the keys of one stripe, for get-or-create logic spanning several entries.
+     */
+    protected Object lockFor(Object key) {
+        return locks[(key.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    protected void recordHit() {
+        hits.increment();
+    }
+
+    protected void recordMiss() {
+        misses.increment();
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), cache.size());
+    }
+
     /**
      * Gets the entire cache map.
-     * 
-     * @return The map containing all cached entities
+     *
+     * @return A read-only, live view of the cached entities (not a copy)
      */
     public Map<K, E> getAll() {
-        return new HashMap<>(cache);
+        return Collections.unmodifiableMap(cache);
     }
-    
+
     /**
      * Adds an entity to the cache.
-     * 
+     *
      * @param key The key for the entity
      * @param entity The entity to cache
      */
@@ -75,4 +157,4 @@ public abstract class AbstractEntityCache<K, E> {
             cache.put(key, entity);
         }
     }
-} 
\ No newline at end of file
+}
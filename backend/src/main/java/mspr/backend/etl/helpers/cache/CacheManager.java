@@ -10,13 +10,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Cache manager facade that coordinates all entity caches.
  * Provides a unified interface for cache operations.
+ * Named etlCacheManager so as not to clash with Spring's cacheManager (query result cache).
  */
-@Component
+@Component("etlCacheManager")
 public class CacheManager {
     private static final Logger logger = LoggerFactory.getLogger(CacheManager.class);
 
@@ -60,6 +63,23 @@ public class CacheManager {
         return countryCache.getOrCreate(countryName, continentStr, whoRegionStr);
     }
 
+    /**
+     * Sets the population of a cached country, recording the change for the next save.
+     * @param country The Country entity, from this cache
+     * @param population The population
+     */
+    public void updateCountryPopulation(Country country, Long population) {
+        countryCache.updatePopulation(country, population);
+    }
+
+    /**
+     * Takes the countries already saved that changed since the previous call, see {@link CountryCache#takeModified()}.
+     * @return Copies of the changed countries, to be saved
+     */
+    public List<Country> takeModifiedCountries() {
+        return countryCache.takeModified();
+    }
+
     /**
      * Gets or creates a Region entity.
      * @param country The country the region belongs to
@@ -107,7 +127,7 @@ public class CacheManager {
      * @param locationName The name of the location
      * @return The location key
      */
-    public String getLocationKey(String countryName, String regionName, String locationName) {
+    public LocationKey getLocationKey(String countryName, String regionName, String locationName) {
         return locationCache.getLocationKey(countryName, regionName, locationName);
     }
 
@@ -129,9 +149,27 @@ public class CacheManager {
         diseaseCache.put(diseaseName, disease);
     }
 
+    /**
+     * Gets a location from the cache, without copying it.
+     * @param locationKey The location key (see {@link #getLocationKey})
+     * @return The Location entity, or null if not cached
+     */
+    public Location getLocation(LocationKey locationKey) {
+        return locationCache.get(locationKey);
+    }
+
+    /**
+     * Gets a disease from the cache, without copying it.
+     * @param diseaseName The name of the disease
+     * @return The Disease entity, or null if not cached
+     */
+    public Disease getDisease(String diseaseName) {
+        return diseaseCache.get(diseaseName);
+    }
+
     /**
      * Gets all countries from the cache.
-     * @return Map of country names to Country entities
+     * @return Read-only view of country names to Country entities
      */
     public Map<String, Country> getCountries() {
         return countryCache.getAll();
@@ -139,23 +177,23 @@ public class CacheManager {
 
     /**
      * Gets all regions from the cache.
-     * @return Map of region keys to Region entities
+     * @return Read-only view of region keys to Region entities
      */
-    public Map<String, Region> getRegions() {
+    public Map<RegionKey, Region> getRegions() {
         return regionCache.getAll();
     }
 
     /**
      * Gets all locations from the cache.
-     * @return Map of location keys to Location entities
+     * @return Read-only view of location keys to Location entities
      */
-    public Map<String, Location> getLocations() {
+    public Map<LocationKey, Location> getLocations() {
         return locationCache.getAll();
     }
 
     /**
      * Gets all diseases from the cache.
-     * @return Map of disease names to Disease entities
+     * @return Read-only view of disease names to Disease entities
      */
     public Map<String, Disease> getDiseases() {
         return diseaseCache.getAll();
@@ -192,4 +230,17 @@ public class CacheManager {
     public void setDiseases(Iterable<Disease> savedDiseases) {
         diseaseCache.updateCache(savedDiseases);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Gets the hits, misses and size of each cache, for the import summary.
+     * @return Statistics by cache name, in dependency order
+     */
+    public Map<String, AbstractEntityCache.Stats> getStatistics() {
+        Map<String, AbstractEntityCache.Stats> statistics = new LinkedHashMap<>();
+        statistics.put("Countries", countryCache.getStats());
+        statistics.put("Regions", regionCache.getStats());
+        statistics.put("Locations", locationCache.getStats());
+        statistics.put("Diseases", diseaseCache.getStats());
+        return statistics;
+    }
+}
@@ -5,9 +5,20 @@ import mspr.backend.etl.helpers.CleanerHelper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Cache for Country entities.
  * Uses country name as the key.
+ * <p>
+ * Unlike the other entities, a country can change after it is created (missing continent or WHO
+ * region filled in, population from Worldometer). Changes are made under the country's stripe lock
+ * and recorded, so that {@link #takeModified()} hands them over for saving.
  */
 @Component
 public class CountryCache extends AbstractEntityCache<String, Country> {
@@ -18,6 +29,15 @@ public class CountryCache extends AbstractEntityCache<String, Country> {
     // Constants for standard names
     protected static final String STANDARD = "standard";
 
+    // Countries changed since the last takeModified (identity set: Country has no equals)
+    private final Set<Country> modified = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void clear() {
+        super.clear();
+        modified.clear();
+    }
+
     /**
      * Gets or creates a Country entity with just a name.
      *
@@ -42,62 +62,74 @@ public class CountryCache extends AbstractEntityCache<String, Country> {
             return null;
         }
         
-        Country country = get(countryName);
-        
+        Country country = lookup(countryName);
         if (country == null) {
-            country = new Country();
-            country.setName(countryName);
-            
-            // Check for special case continent first
-            Country.ContinentEnum specialContinent = cleanerHelper.getSpecialCaseContinent(countryName);
-            if (specialContinent != null) {
-                country.setContinent(specialContinent);
-                logger.debug("Set special case continent {} for country {}", specialContinent, countryName);
+            country = getOrCreate(countryName, name -> createCountry(name, continentStr, whoRegionStr));
+        }
+        // Check for special cases for existing countries that might be missing data
+        synchronized (lockFor(countryName)) {
+            updateExistingCountry(country);
+        }
+        
+        return country;
+    }
+
+    /**
+     * Creates a Country entity, with its continent and WHO region when they can be determined.
+     *
+     * @param countryName The name of the country
+     * @param continentStr The continent name (will be cleaned)
+     * @param whoRegionStr The WHO region name (will be cleaned)
+     * @return The new Country entity, not yet cached
+     */
+    private Country createCountry(String countryName, String continentStr, String whoRegionStr) {
+        Country country = new Country();
+        country.setName(countryName);
+        
+        // Check for special case continent first
+        Country.ContinentEnum specialContinent = cleanerHelper.getSpecialCaseContinent(countryName);
+        if (specialContinent != null) {
+            country.setContinent(specialContinent);
+            logger.debug("Set special case continent {} for country {}", specialContinent, countryName);
+        } else {
+            // Clean and set continent if provided
+            Country.ContinentEnum continent = parseContinent(continentStr);
+            if (continent != null) {
+                country.setContinent(continent);
+                logger.debug("Set continent {} for country {}", continent, countryName);
             } else {
-                // Clean and set continent if provided
-                Country.ContinentEnum continent = parseContinent(continentStr);
-                if (continent != null) {
-                    country.setContinent(continent);
-                    logger.debug("Set continent {} for country {}", continent, countryName);
-                } else {
-                    logger.debug("No valid continent found for string: '{}'", continentStr);
-                }
+                logger.debug("No valid continent found for string: '{}'", continentStr);
             }
-            
-            // Check for special case WHO region first
-            Country.WHORegionEnum specialWhoRegion = cleanerHelper.getSpecialCaseWhoRegion(countryName);
-            if (specialWhoRegion != null) {
-                country.setWhoRegion(specialWhoRegion);
-                logger.debug("Set special case WHO region {} for country {}", specialWhoRegion, countryName);
+        }
+        
+        // Check for special case WHO region first
+        Country.WHORegionEnum specialWhoRegion = cleanerHelper.getSpecialCaseWhoRegion(countryName);
+        if (specialWhoRegion != null) {
+            country.setWhoRegion(specialWhoRegion);
+            logger.debug("Set special case WHO region {} for country {}", specialWhoRegion, countryName);
+        } else {
+            // Clean and set WHO region if provided
+            Country.WHORegionEnum whoRegion = parseWhoRegion(whoRegionStr);
+            if (whoRegion != null) {
+                country.setWhoRegion(whoRegion);
+                logger.debug("Set WHO region {} for country {}", whoRegion, countryName);
             } else {
-                // Clean and set WHO region if provided
-                Country.WHORegionEnum whoRegion = parseWhoRegion(whoRegionStr);
-                if (whoRegion != null) {
-                    country.setWhoRegion(whoRegion);
-                    logger.debug("Set WHO region {} for country {}", whoRegion, countryName);
-                } else {
-                    logger.debug("No valid WHO region found for string: '{}'", whoRegionStr);
-                }
+                logger.debug("No valid WHO region found for string: '{}'", whoRegionStr);
             }
-            
-            // If WHO region is null but continent is defined, deduce WHO region
-            if (country.getWhoRegion() == null && country.getContinent() != null) {
-                Country.WHORegionEnum whoRegion = deduceWhoRegionFromContinent(country.getContinent());
-                if (whoRegion != null) {
-                    country.setWhoRegion(whoRegion);
-                    logger.debug("Deduced WHO region {} from continent {} for country {}", 
-                                whoRegion, country.getContinent(), countryName);
-                }
+        }
+        
+        // If WHO region is null but continent is defined, deduce WHO region
+        if (country.getWhoRegion() == null && country.getContinent() != null) {
+            Country.WHORegionEnum whoRegion = deduceWhoRegionFromContinent(country.getContinent());
+            if (whoRegion != null) {
+                country.setWhoRegion(whoRegion);
+                logger.debug("Deduced WHO region {} from continent {} for country {}", 
+                            whoRegion, country.getContinent(), countryName);
             }
-            
-            put(countryName, country);
-            logger.debug("Created new country: {} with continent: {} and WHO region: {}", 
-                        countryName, country.getContinent(), country.getWhoRegion());
-        } else {
-            // Check for special cases for existing countries that might be missing data
-            updateExistingCountry(country);
         }
         
+        logger.debug("Created new country: {} with continent: {} and WHO region: {}", 
+                    countryName, country.getContinent(), country.getWhoRegion());
         return country;
     }
     
@@ -110,6 +142,8 @@ public class CountryCache extends AbstractEntityCache<String, Country> {
         if (country == null) return;
         
         String countryName = country.getName();
+        Country.ContinentEnum previousContinent = country.getContinent();
+        Country.WHORegionEnum previousWhoRegion = country.getWhoRegion();
         
         // Update continent if missing
         if (country.getContinent() == null) {
@@ -138,6 +172,51 @@ public class CountryCache extends AbstractEntityCache<String, Country> {
                 }
             }
         }
+
+        if (country.getContinent() != previousContinent || country.getWhoRegion() != previousWhoRegion) {
+            modified.add(country);
+        }
+    }
+
+    /**
+     * Sets the population of a cached country.
+     *
+     * @param country The cached Country entity
+     * @param population The population
+     */
+    public void updatePopulation(Country country, Long population) {
+        synchronized (lockFor(country.getName())) {
+            if (!Objects.equals(country.getPopulation(), population)) {
+                country.setPopulation(population);
+                modified.add(country);
+            }
+        }
+    }
+
+    /**
+     * Takes the countries changed since the previous call that are already saved, as copies made
+     * under their lock, so that they can be saved while the imports keep using the cached instances.
+     * Changed countries without id are dropped: they are about to be inserted with their current values,
+     * and a change racing with that insert is recorded again and taken by the next call.
+     *
+     * @return Detached copies (id, name, continent, WHO region, population) of the changed countries
+     */
+    public List<Country> takeModified() {
+        List<Country> copies = new ArrayList<>();
+        for (Iterator<Country> iterator = modified.iterator(); iterator.hasNext(); ) {
+            Country country = iterator.next();
+            iterator.remove();
+            if (country.getId() == null) {
+                continue;
+            }
+            synchronized (lockFor(country.getName())) {
+                Country copy = new Country(country.getName(), country.getContinent(), country.getWhoRegion(),
+                        country.getPopulation(), null);
+                copy.setId(country.getId());
+                copies.add(copy);
+            }
+        }
+        return copies;
     }
 
     /**
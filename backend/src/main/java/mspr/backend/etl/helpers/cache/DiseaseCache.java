@@ -21,15 +21,13 @@ public class DiseaseCache extends AbstractEntityCache<String, Disease> {
             return null;
         }
         
-        Disease disease = get(diseaseName);
-        if (disease == null) {
-            disease = new Disease();
-            disease.setName(diseaseName);
-            put(diseaseName, disease);
-            logger.debug("Created new disease: {}", diseaseName);
-        }
-        
-        return disease;
+        Disease disease = lookup(diseaseName);
+        return disease != null ? disease : getOrCreate(diseaseName, name -> {
+            Disease created = new Disease();
+            created.setName(name);
+            logger.debug("Created new disease: {}", name);
+            return created;
+        });
     }
 
     /**
@@ -4,23 +4,26 @@ import mspr.backend.entity.Location;
 import mspr.backend.entity.Region;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Cache for Location entities.
- * Uses composite key "CountryName|RegionName|LocationName" as the cache key.
+ * Uses the country, region and location names as the cache key (see {@link LocationKey}).
  */
 @Component
-public class LocationCache extends AbstractEntityCache<String, Location> {
+public class LocationCache extends AbstractEntityCache<LocationKey, Location> {
 
     // Secondary cache for detecting duplicate location names across different regions
-    private final Map<String, Location> locationsByNameOnly = new HashMap<>();
+    private final Map<String, Location> locationsByNameOnly = new ConcurrentHashMap<>();
 
     // Constants for standard names
     protected static final String STANDARD_LOCATION_SUFFIX = "location standard";
     protected static final String STANDARD = "standard";
 
+    // Standard location names by region name
+    private final Map<String, String> standardNames = new ConcurrentHashMap<>();
+
     /**
      * Gets or creates a Location entity for a region and location name.
      *
@@ -35,14 +38,24 @@ public class LocationCache extends AbstractEntityCache<String, Location> {
         
         // If the location name is just "standard", replace it with region name + "location standard"
         if (STANDARD.equalsIgnoreCase(locationName)) {
-            locationName = region.getName() + " - " + STANDARD_LOCATION_SUFFIX;
+            locationName = standardName(region.getName());
         }
         
-        // Composite key for the location: "CountryName|RegionName|LocationName"
-        String locationKey = createKey(region, locationName);
-        Location location = get(locationKey);
+        LocationKey locationKey = createKey(region, locationName);
+        Location location = lookup(locationKey);
+        if (location != null) {
+            return location;
+        }
         
-        if (location == null) {
+        // Creation reads and writes both maps: one lock per location name, so that
+        // two threads never create the same location, while other names proceed
+        synchronized (lockFor(locationName)) {
+            location = get(locationKey);
+            if (location != null) {
+                recordHit();
+                return location;
+            }
+            
             // Check if an identical name exists in another region
             Location existingByName = locationsByNameOnly.get(locationName);
             if (existingByName != null && existingByName.getRegion() != region) {
@@ -51,10 +64,11 @@ public class LocationCache extends AbstractEntityCache<String, Location> {
                 String uniqueName = region.getName() + " - " + locationName;
                 
                 // Check if this unique version already exists
-                String uniqueKey = createKey(region, uniqueName);
+                LocationKey uniqueKey = createKey(region, uniqueName);
                 Location existingUnique = get(uniqueKey);
                 
                 if (existingUnique != null) {
+                    recordHit();
                     return existingUnique;
                 }
                 
@@ -74,6 +88,7 @@ public class LocationCache extends AbstractEntityCache<String, Location> {
                 locationsByNameOnly.put(locationName, location);
                 logger.debug("Created new location: {} for region: {}", locationName, region.getName());
             }
+            recordMiss();
         }
         
         return location;
@@ -94,21 +109,31 @@ public class LocationCache extends AbstractEntityCache<String, Location> {
         
         // If location name is empty or standard, use region name + standard suffix
         if (locationName == null || locationName.isEmpty() || STANDARD.equalsIgnoreCase(locationName)) {
-            locationName = region.getName() + " - " + STANDARD_LOCATION_SUFFIX;
+            locationName = standardName(region.getName());
         }
         
         return getOrCreate(region, locationName);
     }
 
     /**
-     * Creates the composite key for a location.
+     * Gets the name of the standard location of a region, built once per region rather than on every row.
+     *
+     * @param regionName The name of the region
+     * @return "RegionName - location standard"
+     */
+    private String standardName(String regionName) {
+        return standardNames.computeIfAbsent(regionName, name -> name + " - " + STANDARD_LOCATION_SUFFIX);
+    }
+
+    /**
+     * Creates the key for a location.
      *
      * @param region The region
      * @param locationName The location name
-     * @return The composite key "CountryName|RegionName|LocationName"
+     * @return The key of the location
      */
-    private String createKey(Region region, String locationName) {
-        return region.getCountry().getName() + "|" + region.getName() + "|" + locationName;
+    private LocationKey createKey(Region region, String locationName) {
+        return new LocationKey(region.getCountry().getName(), region.getName(), locationName);
     }
 
     /**
@@ -117,15 +142,15 @@ public class LocationCache extends AbstractEntityCache<String, Location> {
      * @param countryName The name of the country
      * @param regionName The name of the region
      * @param locationName The name of the location
-     * @return The composite key used for the location cache, or null if any part is null/empty
+     * @return The key used for the location cache, or null if any part is null/empty
      */
-    public String getLocationKey(String countryName, String regionName, String locationName) {
+    public LocationKey getLocationKey(String countryName, String regionName, String locationName) {
         if (countryName == null || countryName.isEmpty() ||
             regionName == null || regionName.isEmpty() ||
             locationName == null || locationName.isEmpty()) {
             return null;
         }
-        return countryName + "|" + regionName + "|" + locationName;
+        return new LocationKey(countryName, regionName, locationName);
     }
 
     /**
@@ -144,7 +169,7 @@ public class LocationCache extends AbstractEntityCache<String, Location> {
                     location.getRegion() != null && location.getRegion().getName() != null &&
                     location.getRegion().getCountry() != null && location.getRegion().getCountry().getName() != null)
                 {
-                    String locationKey = createKey(location.getRegion(), location.getName());
+                    LocationKey locationKey = createKey(location.getRegion(), location.getName());
                     put(locationKey, location);
                     this.locationsByNameOnly.put(location.getName(), location);
                 }
@@ -0,0 +1,10 @@
+package mspr.backend.etl.helpers.cache;
+
+/**
+ * Key of the location cache: the country, region and location names.
+ * <p>
+ * Replaces the "CountryName|RegionName|LocationName" strings, which were concatenated on every lookup.
+ * As with {@link RegionKey}, hashing and comparing a key allocates nothing.
+ */
+public record LocationKey(String countryName, String regionName, String locationName) {
+}
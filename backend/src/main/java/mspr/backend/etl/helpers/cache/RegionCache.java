@@ -4,17 +4,23 @@ import mspr.backend.entity.Country;
 import mspr.backend.entity.Region;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Cache for Region entities.
- * Uses composite key "CountryName|RegionName" as the cache key.
+ * Uses the country and region names as the cache key (see {@link RegionKey}).
  */
 @Component
-public class RegionCache extends AbstractEntityCache<String, Region> {
+public class RegionCache extends AbstractEntityCache<RegionKey, Region> {
 
     // Constants for standard names
     protected static final String STANDARD_REGION_SUFFIX = "region standard";
     protected static final String STANDARD = "standard";
 
+    // Standard region names by country name
+    private final Map<String, String> standardNames = new ConcurrentHashMap<>();
+
     /**
      * Gets or creates a Region entity for a country and region name.
      *
@@ -29,22 +35,22 @@ public class RegionCache extends AbstractEntityCache<String, Region> {
         
         // If the region name is just "standard", replace it with country name + "region standard"
         if (STANDARD.equalsIgnoreCase(regionName)) {
-            regionName = country.getName() + " - " + STANDARD_REGION_SUFFIX;
+            regionName = standardName(country.getName());
         }
         
-        // Composite key for the region: "CountryName|RegionName"
-        String regionKey = createKey(country, regionName);
-        Region region = get(regionKey);
-        
-        if (region == null) {
-            region = new Region();
-            region.setName(regionName);
-            region.setCountry(country);
-            put(regionKey, region);
-            logger.debug("Created new region: {} for country: {}", regionName, country.getName());
+        RegionKey regionKey = createKey(country, regionName);
+        Region cached = lookup(regionKey);
+        if (cached != null) {
+            return cached;
         }
-        
-        return region;
+        String name = regionName;
+        return getOrCreate(regionKey, key -> {
+            Region region = new Region();
+            region.setName(name);
+            region.setCountry(country);
+            logger.debug("Created new region: {} for country: {}", name, country.getName());
+            return region;
+        });
     }
 
     /**
@@ -62,21 +68,31 @@ public class RegionCache extends AbstractEntityCache<String, Region> {
         
         // If region name is empty or standard, use country name + standard suffix
         if (regionName == null || regionName.isEmpty() || STANDARD.equalsIgnoreCase(regionName)) {
-            regionName = country.getName() + " - " + STANDARD_REGION_SUFFIX;
+            regionName = standardName(country.getName());
         }
         
         return getOrCreate(country, regionName);
     }
 
     /**
-     * Creates the composite key for a region.
+     * Gets the name of the standard region of a country, built once per country rather than on every row.
+     *
+     * @param countryName The name of the country
+     * @return "CountryName - region standard"
+     */
+    private String standardName(String countryName) {
+        return standardNames.computeIfAbsent(countryName, name -> name + " - " + STANDARD_REGION_SUFFIX);
+    }
+
+    /**
+     * Creates the key for a region.
      *
      * @param country The country
      * @param regionName The region name
-     * @return The composite key "CountryName|RegionName"
+     * @return The key of the region
      */
-    private String createKey(Country country, String regionName) {
-        return country.getName() + "|" + regionName;
+    private RegionKey createKey(Country country, String regionName) {
+        return new RegionKey(country.getName(), regionName);
     }
 
     /**
@@ -92,7 +108,7 @@ public class RegionCache extends AbstractEntityCache<String, Region> {
                 if (region != null && region.getName() != null && 
                     region.getCountry() != null && region.getCountry().getName() != null) {
                     
-                    String regionKey = createKey(region.getCountry(), region.getName());
+                    RegionKey regionKey = createKey(region.getCountry(), region.getName());
                     put(regionKey, region);
                 }
             }
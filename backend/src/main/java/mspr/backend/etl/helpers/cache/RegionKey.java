@@ -0,0 +1,11 @@
+package mspr.backend.etl.helpers.cache;
+
+/**
+ * Key of the region cache: the country name and the region name.
+ * <p>
+ * Replaces the "CountryName|RegionName" strings, which were concatenated on every lookup.
+ * The components are the entities' own name strings, whose hashes are cached by {@link String},
+ * so hashing and comparing a key allocates nothing.
+ */
+public record RegionKey(String countryName, String regionName) {
+}
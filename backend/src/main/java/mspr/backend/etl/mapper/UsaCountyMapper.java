@@ -137,7 +137,7 @@ public class UsaCountyMapper {
      * @throws IllegalStateException if COVID-19 disease is not found in cache
      */
     private Disease getDiseaseFromCache(CacheManager cacheManager) {
-        Disease disease = cacheManager.getDiseases().get(COVID_19_DISEASE_NAME);
+        Disease disease = cacheManager.getDisease(COVID_19_DISEASE_NAME);
         if (disease == null) {
             logger.error("COVID-19 disease not found in cache - this should not happen as it should be created in preProcessing");
             throw new IllegalStateException("COVID-19 disease not found in cache");
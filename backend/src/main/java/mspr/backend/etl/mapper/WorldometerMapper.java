@@ -100,7 +100,7 @@ public class WorldometerMapper {
      * @param dto The DTO containing country data
      */
     private void updateCountryAttributes(Country country, WorldometerDto dto) {
-        country.setPopulation(dto.getPopulation());
+        cacheManager.updateCountryPopulation(country, dto.getPopulation());
         
         // Note : La mise à jour du continent et de la région WHO est désormais gérée par getOrCreateCountry
     }
@@ -1,30 +1,63 @@
 package mspr.backend.etl.runner;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PreDestroy;
+
 import mspr.backend.entity.Disease;
 import mspr.backend.etl.exceptions.DataFileNotFoundException;
 import mspr.backend.etl.exceptions.EtlException;
 import mspr.backend.etl.exceptions.PersistenceException;
+import mspr.backend.etl.helpers.ImportManifestHelper;
+import mspr.backend.etl.helpers.ImportMode;
+import mspr.backend.etl.helpers.ImportProgress;
+import mspr.backend.etl.helpers.PersistenceHelper;
+import mspr.backend.etl.helpers.StagingTableHelper;
 import mspr.backend.etl.helpers.cache.CacheManager;
+import mspr.backend.etl.service.AbstractCsvImportService;
 import mspr.backend.etl.service.CovidCompleteService;
 import mspr.backend.etl.service.FullGroupedService;
 import mspr.backend.etl.service.UsaCountyService;
 import mspr.backend.etl.service.WorldometerService;
 import mspr.backend.repository.CountryRepository;
+import mspr.backend.repository.DailyCountryRollupRepository;
 import mspr.backend.repository.DiseaseCaseRepository;
 import mspr.backend.repository.DiseaseRepository;
 import mspr.backend.repository.LocationRepository;
 import mspr.backend.repository.RegionRepository;
+import mspr.backend.service.DailyRollupService;
+import mspr.backend.service.KpiCounterStore;
+import mspr.backend.service.LocationNameIndex;
+import mspr.backend.service.QueryCacheService;
 
+/**
+ * Runs the COVID-19 import at startup, by default as a background job: the application serves
+ * HTTP requests while the files are imported, and its progress is published in {@link ImportProgress}
+ * (status endpoint, readiness probe).
+ */
 @Profile("!test")
 @Component
 public class DataImportCovid19Runner implements CommandLineRunner {
@@ -41,40 +74,117 @@ public class DataImportCovid19Runner implements CommandLineRunner {
     @Autowired private LocationRepository locationRepository;
     @Autowired private DiseaseCaseRepository diseaseCaseRepository;
     @Autowired private DiseaseRepository diseaseRepository;
+    @Autowired private DailyCountryRollupRepository dailyCountryRollupRepository;
 
     @Autowired private CacheManager cacheManager;
+    @Autowired private PersistenceHelper persistenceHelper;
+    @Autowired private ImportManifestHelper importManifestHelper;
+    @Autowired private StagingTableHelper stagingTableHelper;
+    @Autowired private ImportProgress importProgress;
+    @Autowired private DailyRollupService dailyRollupService;
+    @Autowired private KpiCounterStore kpiCounterStore;
+    @Autowired private QueryCacheService queryCacheService;
+    @Autowired private LocationNameIndex locationNameIndex;
+
+    // false: import before the application starts serving (the former blocking behaviour)
+    @Value("${etl.import.background.enabled:true}")
+    private boolean backgroundImport;
+
+    // Single thread owning the background import, stopped with the application context
+    private final ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor(new ImportThreadFactory("etl-background-"));
+
+    // full: wipe everything and reload; incremental: skip unchanged files and upsert the others;
+    // staged: reload into a staging table swapped in at the end (PostgreSQL)
+    @Value("${etl.import.mode:full}")
+    private String configuredImportMode;
+
+    // Number of fact-table imports run at the same time once reference data is loaded (1 = one after another)
+    @Value("${etl.import.concurrent-imports.threads:3}")
+    private int concurrentImportThreads;
 
     // Define a simple class or record to hold the result of an import
     private static class ImportResult {
         final int linesProcessed;
         final long durationMs;
+        final boolean succeeded;
 
-        ImportResult(int linesProcessed, long durationMs) {
+        ImportResult(int linesProcessed, long durationMs, boolean succeeded) {
             this.linesProcessed = linesProcessed;
             this.durationMs = durationMs;
+            this.succeeded = succeeded;
         }
     }
 
     @Override
-    public void run(String... args) throws Exception {
+    public void run(String... args) {
+        if (backgroundImport) {
+            logger.info("Starting COVID-19 data import in the background");
+            backgroundExecutor.submit(this::runImportSafely);
+        } else {
+            runImportSafely();
+        }
+    }
+
+    @PreDestroy
+    public void stopBackgroundImport() {
+        backgroundExecutor.shutdownNow();
+    }
+
+    /**
+     * Runs the import, recording a failure in {@link ImportProgress} instead of propagating it.
+     */
+    private void runImportSafely() {
+        try {
+            runImport();
+        } catch (Exception e) {
+            logger.error("COVID-19 data import failed: {}", e.getMessage(), e);
+            importProgress.fail(e.getMessage());
+        }
+    }
+
+    private void runImport() throws Exception {
         // Start the overall timer
         long importStartTime = System.currentTimeMillis();
 
-        logger.info("Starting COVID-19 data import process");
-        logger.info("Deleting existing data...");
-        deleteAllDataInBatch();
-        logger.info("Existing data deletion completed");
+        ImportMode importMode = resolveImportMode();
+        importProgress.start(importMode, totalFileSize());
+        logger.info("Starting COVID-19 data import process ({} mode)", importMode.name().toLowerCase());
+        if (importMode == ImportMode.FULL) {
+            // Nothing complete can be served until the end of the import
+            importProgress.markGenerationUnavailable();
+            logger.info("Deleting existing data...");
+            deleteAllDataInBatch();
+            importManifestHelper.clear();
+            logger.info("Existing data deletion completed");
+        } else if (importMode == ImportMode.STAGED) {
+            // Reference data is kept and extended in place; only disease cases are reloaded,
+            // into a staging table, while the API keeps reading the current ones
+            markExistingGenerationAvailable();
+            importManifestHelper.clear();
+            persistenceHelper.primeCacheFromDatabase();
+            stagingTableHelper.prepare();
+        } else {
+            // Rows are upserted in place: the previous data stays readable during the import
+            markExistingGenerationAvailable();
+            // Reuse the stored countries, regions and locations instead of creating them again
+            persistenceHelper.primeCacheFromDatabase();
+        }
 
-        // Prepare COVID-19 Disease entity in the database and add it to the cache
-        Disease covid = diseaseRepository.findByName("COVID-19");
-        if (covid == null) {
+        // Prepare COVID-19 Disease entity in the database and add it to the cache.
+        // Only the id is read: loading the entity would load all of its cases with it.
+        Disease covid;
+        Integer covidId = diseaseRepository.findIdByName("COVID-19");
+        if (covidId == null) {
             logger.debug("COVID-19 disease not found in database, creating new entity");
             covid = new Disease();
             covid.setName("COVID-19");
             covid = diseaseRepository.save(covid);
             logger.debug("COVID-19 disease entity created with ID: {}", covid.getId());
         } else {
-            logger.debug("Found existing COVID-19 disease entity with ID: {}", covid.getId());
+            covid = new Disease();
+            covid.setId(covidId);
+            covid.setName("COVID-19");
+            logger.debug("Found existing COVID-19 disease entity with ID: {}", covidId);
         }
         cacheManager.addDiseaseToCache("COVID-19", covid);
         logger.debug("Added COVID-19 disease to cache");
@@ -82,37 +192,106 @@ public class DataImportCovid19Runner implements CommandLineRunner {
         // Use the helper method for each import
         logger.info("*** STARTING COVID DATA IMPORT ***");
 
+        // Stage 1: reference data (countries with continent, WHO region, population), needed by the fact imports
+        long referenceStageStart = System.currentTimeMillis();
         ImportResult worldometerResult = executeImport(() -> {
             try {
-                return worldometerService.importData();
+                return worldometerService.importData(importMode);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         }, "Worldometer");
+        long referenceStageTime = System.currentTimeMillis() - referenceStageStart;
 
-        ImportResult covidCompleteResult = executeImport(() -> {
-            try {
-                return covidCompleteService.importData();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        }, "covid_19_clean_complete");
+        // Stage 2: fact tables, independent from each other, each on its own thread (and thus its own connections)
+        long factStageStart = System.currentTimeMillis();
+        ExecutorService importExecutor = Executors.newFixedThreadPool(Math.max(1, concurrentImportThreads),
+                new ImportThreadFactory("etl-import-"));
+        ImportResult covidCompleteResult;
+        ImportResult fullGroupedResult;
+        ImportResult usaCountyResult;
+        try {
+            Future<ImportResult> covidComplete = importExecutor.submit(() -> executeImport(() -> {
+                try {
+                    return covidCompleteService.importData(importMode);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }, "covid_19_clean_complete"));
 
-        ImportResult fullGroupedResult = executeImport(() -> {
-            try {
-                return fullGroupedService.importData();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        }, "full_grouped");
+            Future<ImportResult> fullGrouped = importExecutor.submit(() -> executeImport(() -> {
+                try {
+                    return fullGroupedService.importData(importMode);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }, "full_grouped"));
+
+            Future<ImportResult> usaCounty = importExecutor.submit(() -> executeImport(() -> {
+                try {
+                    return usaCountyService.importData(importMode);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }, "USA county"));
+
+            covidCompleteResult = awaitImport(covidComplete, "covid_19_clean_complete");
+            fullGroupedResult = awaitImport(fullGrouped, "full_grouped");
+            usaCountyResult = awaitImport(usaCounty, "USA county");
+        } finally {
+            importExecutor.shutdown();
+        }
+        long factStageTime = System.currentTimeMillis() - factStageStart;
 
-        ImportResult usaCountyResult = executeImport(() -> {
+        List<String> failedImports = new ArrayList<>();
+        if (!worldometerResult.succeeded) {
+            failedImports.add("worldometer_data.csv");
+        }
+        if (!covidCompleteResult.succeeded) {
+            failedImports.add("covid_19_clean_complete.csv");
+        }
+        if (!fullGroupedResult.succeeded) {
+            failedImports.add("full_grouped.csv");
+        }
+        if (!usaCountyResult.succeeded) {
+            failedImports.add("usa_county_wise.csv");
+        }
+
+        boolean published = importMode != ImportMode.STAGED || publishStagedImport(failedImports.isEmpty());
+
+        // Stage 3: daily rollup read by the aggregate endpoints, rebuilt from the disease cases now served
+        long rollupStageStart = System.currentTimeMillis();
+        int changedLines = covidCompleteResult.linesProcessed + fullGroupedResult.linesProcessed
+                + usaCountyResult.linesProcessed;
+        if (published && (changedLines > 0 || dailyRollupService.isEmpty())) {
             try {
-                return usaCountyService.importData();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                dailyRollupService.rebuild();
+            } catch (DataAccessException e) {
+                logger.error("Could not rebuild the daily rollup: {}", e.getMessage(), e);
+                failedImports.add("daily_country_rollup");
             }
-        }, "USA county");
+        }
+        if (published) {
+            // KPI totals served from memory, adjusted by the API writes until the next import
+            kpiCounterStore.rebuild();
+        }
+        // The read endpoints' cached results and the location name index predate the import
+        queryCacheService.evictAll();
+        locationNameIndex.invalidate();
+        long rollupStageTime = System.currentTimeMillis() - rollupStageStart;
+
+        if (failedImports.isEmpty() && published) {
+            importProgress.complete();
+        } else if (importMode == ImportMode.STAGED) {
+            // The previous generation is still the one served
+            importProgress.fail(failedImports.isEmpty()
+                    ? "Staging table swap failed"
+                    : "Staged import not published, failed imports: " + failedImports);
+        } else {
+            // The tables hold what could be imported: serve it rather than nothing
+            importProgress.fail("Failed imports: " + failedImports);
+            importProgress.markGenerationAvailable(Instant.now());
+        }
 
         // Calculate total import duration
         long totalImportTime = System.currentTimeMillis() - importStartTime;
@@ -128,9 +307,23 @@ public class DataImportCovid19Runner implements CommandLineRunner {
         logger.info("");
         logger.info("=========================== COVID-19 DATA IMPORT SUMMARY ===========================");
         logger.info("");
+        logger.info("IMPORT MODE: {}", importMode.name().toLowerCase());
         logger.info("TOTAL IMPORT TIME: {} ms", totalImportTime);
         logger.info("");
 
+        // Stage wall times: with concurrent imports the fact stage is shorter than the sum of its files
+        String stageHeader = String.format("%-30s %12s %12s", "STAGE", "WALL (ms)", "SUM (ms)");
+        String stageSeparator = String.format("%-30s %12s %12s", "-".repeat(30), "-".repeat(12), "-".repeat(12));
+        long factFilesTime = covidCompleteResult.durationMs + fullGroupedResult.durationMs + usaCountyResult.durationMs;
+
+        logger.info(stageHeader);
+        logger.info(stageSeparator);
+        logger.info(String.format("%-30s %,12d %,12d", "Reference data", referenceStageTime, worldometerResult.durationMs));
+        logger.info(String.format("%-30s %,12d %,12d", "Fact tables (" + concurrentImportThreads + " threads)", factStageTime, factFilesTime));
+        logger.info(String.format("%-30s %,12d %,12d", "Daily rollup", rollupStageTime, rollupStageTime));
+        logger.info(String.format("%-30s %,12d %,12d", "Overall", totalImportTime, worldometerResult.durationMs + factFilesTime));
+        logger.info("");
+
         // File import statistics in tabular format
         String fileHeader = String.format("%-30s %12s %12s", "FILE", "LINES", "TIME (ms)");
         String fileSeparator = String.format("%-30s %12s %12s", "-".repeat(30), "-".repeat(12), "-".repeat(12));
@@ -156,9 +349,47 @@ public class DataImportCovid19Runner implements CommandLineRunner {
         logger.info(String.format("%-30s %,12d", "Disease Cases", diseaseCaseCount));
         logger.info("");
 
+        // Reference caches shared by the imports: a miss is an entity created during this run
+        String cacheHeader = String.format("%-30s %12s %12s %12s", "CACHE", "HITS", "MISSES", "SIZE");
+        String cacheSeparator = String.format("%-30s %12s %12s %12s", "-".repeat(30), "-".repeat(12), "-".repeat(12), "-".repeat(12));
+
+        logger.info(cacheHeader);
+        logger.info(cacheSeparator);
+        cacheManager.getStatistics().forEach((name, stats) ->
+                logger.info(String.format("%-30s %,12d %,12d %,12d", name, stats.hits(), stats.misses(), stats.size())));
+        logger.info("");
+
         logger.info("=========================== IMPORT COMPLETED SUCCESSFULLY ===========================");
     }
 
+    /**
+     * Reads {@code etl.import.mode}. An incremental import needs a previous one to build on:
+     * with no manifest or no disease case in the database, a full import is run instead. So it is when no
+     * case records its source file (imported before the column existed): their rows could not be replaced.
+     * A staged import needs PostgreSQL and also falls back to a full import elsewhere.
+     */
+    private ImportMode resolveImportMode() throws EtlException {
+        ImportMode mode;
+        try {
+            mode = ImportMode.valueOf(configuredImportMode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new EtlException("Unknown import mode '" + configuredImportMode + "' (expected full, incremental or staged)", e);
+        }
+        if (mode == ImportMode.STAGED && !stagingTableHelper.isSupported()) {
+            logger.warn("Staged imports need PostgreSQL, running a full import in place instead");
+            return ImportMode.FULL;
+        }
+        if (mode == ImportMode.INCREMENTAL && (importManifestHelper.isEmpty() || diseaseCaseRepository.count() == 0)) {
+            logger.info("No previous import recorded, running a full import instead of an incremental one");
+            return ImportMode.FULL;
+        }
+        if (mode == ImportMode.INCREMENTAL && !diseaseCaseRepository.existsBySourceIsNotNull()) {
+            logger.info("Disease cases without source file, running a full import instead of an incremental one");
+            return ImportMode.FULL;
+        }
+        return mode;
+    }
+
     /**
      * Executes an import task, handling timing and common exceptions.
      *
@@ -172,10 +403,12 @@ public class DataImportCovid19Runner implements CommandLineRunner {
         long startTime = System.currentTimeMillis();
         int linesProcessed = 0;
         long durationMs = 0;
+        boolean succeeded = false;
 
         try {
             linesProcessed = importTask.get();
             durationMs = System.currentTimeMillis() - startTime;
+            succeeded = true;
             logger.info("{} import completed: {} lines in {} ms", taskName, linesProcessed, durationMs);
         } catch (RuntimeException e) {
             // Unwrap the original exception if possible
@@ -197,10 +430,97 @@ public class DataImportCovid19Runner implements CommandLineRunner {
              durationMs = System.currentTimeMillis() - startTime;
              logger.error("Unexpected error during {} import: {}", taskName, e.getMessage(), e);
         }
-        return new ImportResult(linesProcessed, durationMs);
+        return new ImportResult(linesProcessed, durationMs, succeeded);
+    }
+
+    /**
+     * Waits for an import submitted to the executor. executeImport already handles import errors,
+     * so only interruption and unexpected failures are left to handle here.
+     */
+    private ImportResult awaitImport(Future<ImportResult> future, String taskName) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while waiting for {} import", taskName);
+        } catch (ExecutionException e) {
+            logger.error("Unexpected error during {} import: {}", taskName, e.getCause().getMessage(), e.getCause());
+        }
+        return new ImportResult(0, 0, false);
+    }
+
+    /**
+     * Swaps the staging table into place if every import succeeded; otherwise drops it, and the
+     * API keeps serving the previous generation of disease cases. The manifest then no longer
+     * matches the live data and is cleared, so the next incremental import is a full one.
+     */
+    private boolean publishStagedImport(boolean allSucceeded) {
+        if (!allSucceeded) {
+            logger.error("Staged import incomplete, keeping the current disease cases");
+            stagingTableHelper.discard();
+            importManifestHelper.clear();
+            return false;
+        }
+        try {
+            stagingTableHelper.swap();
+            return true;
+        } catch (PersistenceException e) {
+            logger.error("Could not swap the staging table, keeping the current disease cases: {}", e.getMessage(), e);
+            stagingTableHelper.discard();
+            importManifestHelper.clear();
+            return false;
+        }
+    }
+
+    /**
+     * Marks the data kept from a previous run, if any, as the generation served during the import.
+     */
+    private void markExistingGenerationAvailable() {
+        if (diseaseCaseRepository.count() == 0) {
+            return;
+        }
+        LocalDateTime lastImport = importManifestHelper.lastImportedAt();
+        importProgress.markGenerationAvailable(lastImport != null
+                ? lastImport.atZone(ZoneId.systemDefault()).toInstant()
+                : Instant.now());
+    }
+
+    /**
+     * @return The total size of the files to import, for the progress estimate.
+     */
+    private long totalFileSize() {
+        long total = 0;
+        for (AbstractCsvImportService<?> service : List.of(worldometerService, covidCompleteService,
+                fullGroupedService, usaCountyService)) {
+            Path path = service.getFilePath();
+            try {
+                if (Files.exists(path)) {
+                    total += Files.size(path);
+                }
+            } catch (IOException e) {
+                logger.debug("Cannot read size of {}: {}", path, e.getMessage());
+            }
+        }
+        return total;
+    }
+
+    private static class ImportThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        ImportThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            return new Thread(task, prefix + counter.incrementAndGet());
+        }
     }
 
     public void deleteAllDataInBatch() {
+        logger.debug("Deleting the daily rollup");
+        dailyCountryRollupRepository.deleteAllInBatch();
         logger.debug("Deleting all disease cases");
         diseaseCaseRepository.deleteAllInBatch();
         logger.debug("Deleting all diseases");
@@ -0,0 +1,35 @@
+package mspr.backend.etl.runner;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import mspr.backend.dto.ImportStatusDto;
+import mspr.backend.etl.helpers.ImportProgress;
+
+/**
+ * Health contributor "etlGeneration", part of the readiness group: the application is ready
+ * once a complete generation of data can be served, whether from a previous run or from the
+ * import in progress. A running import alone does not make the application unready.
+ */
+@Component
+public class EtlGenerationHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private ImportProgress importProgress;
+
+    @Override
+    public Health health() {
+        ImportStatusDto status = importProgress.snapshot();
+        Health.Builder builder = importProgress.isGenerationAvailable() ? Health.up() : Health.outOfService();
+        builder.withDetail("importStatus", status.getStatus());
+        if (status.getLastGoodGenerationAt() != null) {
+            builder.withDetail("lastGoodGenerationAt", status.getLastGoodGenerationAt().toString());
+        }
+        if (status.getPercent() != null) {
+            builder.withDetail("importPercent", status.getPercent());
+        }
+        return builder.build();
+    }
+}
@@ -1,18 +1,35 @@
 package mspr.backend.etl.service;
 
+import mspr.backend.entity.DiseaseCase;
 import mspr.backend.etl.exceptions.*;
 import mspr.backend.etl.helpers.cache.CacheManager;
 import mspr.backend.etl.helpers.CleanerHelper;
+import mspr.backend.etl.helpers.CsvLineTokenizer;
 import mspr.backend.etl.helpers.CsvReaderHelper;
+import mspr.backend.etl.helpers.ImportManifestHelper;
+import mspr.backend.etl.helpers.ImportMode;
+import mspr.backend.etl.helpers.ImportProgress;
+import mspr.backend.etl.helpers.ParallelCsvParser;
+import mspr.backend.etl.helpers.PersistenceMode;
 import mspr.backend.etl.helpers.PersistenceHelper;
+import mspr.backend.etl.helpers.PersistStage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Abstract base class for services importing data from CSV files.
@@ -24,7 +41,6 @@ public abstract class AbstractCsvImportService<DTO> {
 
     private final Logger logger = LoggerFactory.getLogger(getClass()); // Logger specific to the concrete class
 
-    protected static final String CSV_SPLIT_REGEX = ",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)";
     private static final String DATA_PATH_PREFIX = "src/main/resources/data/";
 
     @Autowired
@@ -33,66 +49,151 @@ public abstract class AbstractCsvImportService<DTO> {
     @Autowired
     protected PersistenceHelper persistenceHelper;
 
+    @Autowired
+    protected ParallelCsvParser parallelCsvParser;
+
     @Autowired
     protected CacheManager cacheManager;
 
+    @Autowired
+    protected ImportManifestHelper importManifestHelper;
+
+    @Autowired
+    protected ImportProgress importProgress;
+
     @Autowired
     protected CleanerHelper cleanerHelper; // Common helper, might not be used by all subclasses
 
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Number of successfully processed records handed to persistence at once
+    @Value("${etl.import.chunk-size:10000}")
+    protected int chunkSize;
+
+    // Chunks waiting for the persist stage; the import thread blocks when the queue is full
+    @Value("${etl.import.pipeline.queue-capacity:2}")
+    protected int pipelineQueueCapacity;
+
+    // Parse large files on a worker pool (only for services supporting it)
+    @Value("${etl.import.parallel-parse.enabled:true}")
+    protected boolean parallelParseEnabled;
+
+    // How DiseaseCase rows are written during the current import, see resolvePersistenceMode
+    protected PersistenceMode persistenceMode = PersistenceMode.JPA;
+
+    // Incremental import: DiseaseCase rows are upserted on (source, location, disease, date) instead of appended,
+    // then the rows of the previous version of the file that were not written again are deleted
+    protected boolean upsert;
+
+    // Staged import: DiseaseCase rows go to the staging table, swapped in by the runner at the end
+    protected boolean staged;
+
+    // Recorded on every DiseaseCase row written by the current import of the file
+    protected long importGeneration;
+
+    /**
+     * Full import of the CSV file, see {@link #importData(ImportMode)}.
+     */
+    public int importData() throws DataFileNotFoundException, IOException, PersistenceException, EtlException {
+        return importData(ImportMode.FULL);
+    }
+
     /**
      * Template method to import data from a CSV file.
+     * The import is a pipeline: the file is read and parsed (line by line, or in blocks parsed on a
+     * worker pool for services that support it), each record is mapped on the calling thread, and
+     * chunks of {@code chunkSize} records are written by a {@link PersistStage} on its own thread
+     * while the next chunk is being mapped. The stages are connected by bounded queues, so memory use
+     * does not depend on the size of the input file, and their timings are logged at the end.
+     * <p>
+     * The disease cases of the file are written in a single transaction on the persist stage thread
+     * (stale rows of an incremental import deleted in it too): if the import fails, none of them stay.
+     * The countries, regions, locations and diseases they reference are saved on the calling thread in
+     * transactions of their own (see {@link PersistenceHelper#persistCachedEntities()}) and are kept.
+     * <p>
+     * In staged mode, disease cases are written to the staging table instead of the live one.
+     * In incremental mode, a file identical to the one recorded in the import manifest is skipped,
+     * and the records of a changed file are upserted. Every successful import is recorded in the manifest.
      *
-     * @return Number of lines processed (excluding header).
+     * @param mode Full (tables were wiped beforehand), incremental or staged import.
+     * @return Number of lines processed (excluding header), 0 if the file was skipped.
      * @throws DataFileNotFoundException If the required data file is not found.
      * @throws IOException If there's an error reading the file.
      * @throws PersistenceException If there's an error saving data to the database.
      * @throws EtlException For other ETL-related errors.
      */
-    public int importData() throws DataFileNotFoundException, IOException, PersistenceException, EtlException {
+    public int importData(ImportMode mode) throws DataFileNotFoundException, IOException, PersistenceException, EtlException {
         String fileName = getFileName();
-        Path path = Paths.get(DATA_PATH_PREFIX + fileName);
-        logger.info("Starting import process for {}", fileName);
+        Path path = getFilePath();
+        logger.info("Starting {} import process for {}", mode.name().toLowerCase(), fileName);
+
+        persistenceMode = resolvePersistenceMode(fileName);
+        upsert = mode == ImportMode.INCREMENTAL;
+        staged = mode == ImportMode.STAGED;
+        logger.debug("Persistence mode for {}: {}{}", fileName, staged ? "staging table" : persistenceMode, upsert ? " (upsert)" : "");
 
+        importProgress.fileStarted(fileName);
+        long start = System.nanoTime();
+        PersistStage persistStage = null;
         try {
+            if (upsert && path.toFile().exists() && importManifestHelper.isUnchanged(path, fileName)) {
+                logger.info("File {} unchanged since its last import, skipped.", fileName);
+                importProgress.addParsed(0, Files.size(path));
+                return 0;
+            }
+
+            // Rows of the previous version of the file keep their generation unless upserted again
+            importGeneration = persistenceHelper.nextImportGeneration(fileName);
+
             // 1. Pre-processing steps (e.g., ensure specific entities exist)
             preProcessing();
 
-            // 2. Read CSV file
-            List<String> lines = csvReaderHelper.readCsvFile(path, fileName);
-            int totalLines = lines.size();
-            if (totalLines <= 1) { // Only header or empty
-                logger.warn("File {} is empty or contains only a header. No data to import.", fileName);
+            // 2. Stream CSV file and 3. process lines, handing a chunk to the persist stage every chunkSize records
+            persistStage = new PersistStage(fileName, pipelineQueueCapacity, meterRegistry,
+                    new TransactionTemplate(transactionManager));
+            ImportCounters counters = new ImportCounters(persistStage,
+                    PersistStage.stageTimer(meterRegistry, fileName, "map"));
+            int lineCount = parallelParseEnabled && supportsParallelParsing()
+                    ? parseInParallel(path, fileName, counters)
+                    : parseSequentially(path, fileName, counters);
+            if (lineCount <= 1) {
+                importProgress.addParsed(0, counters.unreportedBytes); // No chunk to report them with
+            }
+            if (lineCount == 0) {
+                logger.warn("File {} is empty. No data to import.", fileName);
                 return 0;
             }
-
-            // 3. Process lines
-            int processedLines = 0;
-            int lineErrors = 0;
-            logger.debug("Processing data lines...");
-            for (int lineIndex = 1; lineIndex < totalLines; lineIndex++) { // Skip header (line 0)
-                String currentLine = lines.get(lineIndex);
-                try {
-                    String[] fields = currentLine.split(CSV_SPLIT_REGEX, -1);
-                    DTO dto = processLine(fields, lineIndex + 1); // lineIndex + 1 for 1-based logging
-                    if (dto != null) {
-                        processDto(dto);
-                        processedLines++;
-                    } else {
-                        lineErrors++; // Error handled and logged within processLine or validation failed
-                    }
-                } catch (Exception e) {
-                    logger.warn("Line {}: Unexpected error processing line: {}", lineIndex + 1, e.getMessage(), e);
-                    lineErrors++;
-                }
+            if (lineCount == 1) {
+                logger.warn("File {} contains only a header. No data to import.", fileName);
+                return 0;
             }
+            int processedLines = counters.processedLines;
+            int lineErrors = counters.lineErrors;
             logger.info("Finished processing lines. Processed records: {}, Line errors: {}", processedLines, lineErrors);
 
-            // 4. Persist cached related entities (Countries, Regions, etc.)
-            persistenceHelper.persistCachedEntities();
+            // 4. Persist the last, partial chunk, and wait for the persist stage to commit
+            flushChunk(counters);
+            if (upsert) {
+                persistStage.submit(0, () -> {
+                    int removed = persistenceHelper.deleteStaleDiseaseCases(fileName, importGeneration);
+                    logger.info("Removed {} disease cases no longer in {}", removed, fileName);
+                });
+            }
+            persistStage.finish(counters.mapNanos, start);
 
-            // 5. Post-processing steps (e.g., save main entities, update references)
+            // 5. Post-processing steps (e.g., final cleanup or logging)
             postProcessing();
 
+            // 6. Fingerprint the file for the next incremental import
+            importManifestHelper.record(path, fileName, processedLines);
+
             logger.info("Import process for {} completed successfully.", fileName);
             return processedLines; // Return number of successfully processed records
 
@@ -102,6 +203,175 @@ public abstract class AbstractCsvImportService<DTO> {
         } catch (Exception e) {
             logger.error("Unexpected error during import of {}: {}", fileName, e.getMessage(), e);
             throw new EtlException("Unexpected error during import of " + fileName, e);
+        } finally {
+            if (persistStage != null) {
+                persistStage.abort(); // No-op once finished
+            }
+            importProgress.fileFinished(fileName);
+        }
+    }
+
+    /**
+     * @return The path of the CSV file imported by this service.
+     */
+    public Path getFilePath() {
+        return Paths.get(DATA_PATH_PREFIX + getFileName());
+    }
+
+    /**
+     * Reads {@code etl.import.persistence-mode.<file name without .csv>}, falling back to
+     * {@code etl.import.persistence-mode}, then to JPA.
+     */
+    private PersistenceMode resolvePersistenceMode(String fileName) throws EtlException {
+        String baseName = fileName.endsWith(".csv") ? fileName.substring(0, fileName.length() - 4) : fileName;
+        String value = environment.getProperty("etl.import.persistence-mode." + baseName,
+                environment.getProperty("etl.import.persistence-mode", PersistenceMode.JPA.name()));
+        try {
+            return PersistenceMode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new EtlException("Unknown persistence mode '" + value + "' for " + fileName + " (expected jpa or bulk)", e);
+        }
+    }
+
+    /**
+     * Reads and parses the file line by line on the calling thread.
+     *
+     * @return The number of lines of the file, header included (0 for an empty file).
+     */
+    private int parseSequentially(Path path, String fileName, ImportCounters counters) throws Exception {
+        // Bytes read from the file, header included, reported with the next chunk
+        try (BufferedReader reader = csvReaderHelper.openCsvFile(path, fileName,
+                bytes -> counters.unreportedBytes += bytes)) {
+            if (reader.readLine() == null) { // Skip header
+                return 0;
+            }
+
+            logger.debug("Processing data lines in chunks of {}...", chunkSize);
+            // One tokenizer per import: its buffers are reused for every line
+            CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+            int lineNumber = 1; // 1-based, header is line 1
+            String currentLine;
+            while ((currentLine = reader.readLine()) != null) {
+                lineNumber++;
+                acceptParsedLine(parseLine(tokenizer.tokenize(currentLine), lineNumber), lineNumber, counters);
+            }
+            return lineNumber;
+        }
+    }
+
+    /**
+     * Parses the file on the worker pool of {@link ParallelCsvParser}; DTOs come back in file order
+     * and are processed on the calling thread, exactly as in the sequential path.
+     *
+     * @return The number of lines of the file, header included (0 for an empty file).
+     */
+    private int parseInParallel(Path path, String fileName, ImportCounters counters) throws Exception {
+        logger.debug("Processing data lines in parallel, in chunks of {}...", chunkSize);
+        return parallelCsvParser.parse(path, fileName, this::parseLine,
+                (dto, lineNumber) -> acceptParsedLine(dto, lineNumber, counters),
+                bytes -> importProgress.addParsed(0, bytes));
+    }
+
+    /**
+     * Runs {@link #processLine}, turning unexpected errors into a skipped line.
+     */
+    private DTO parseLine(CsvLineTokenizer fields, int lineNumber) {
+        try {
+            return processLine(fields, lineNumber);
+        } catch (Exception e) {
+            logger.warn("Line {}: Unexpected error processing line: {}", lineNumber, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Hands a parsed line to {@link #processDto} and hands a chunk to the persist stage once
+     * {@code chunkSize} records are pending.
+     *
+     * @param dto The DTO of the line, or null if the line was invalid.
+     */
+    private void acceptParsedLine(DTO dto, int lineNumber, ImportCounters counters) throws Exception {
+        counters.unreportedLines++;
+        if (dto == null) {
+            counters.lineErrors++; // Error handled and logged within processLine or validation failed
+        } else {
+            long mapStart = System.nanoTime();
+            try {
+                processDto(dto);
+                counters.processedLines++;
+                counters.pendingRecords++;
+            } catch (Exception e) {
+                logger.warn("Line {}: Unexpected error processing line: {}", lineNumber, e.getMessage(), e);
+                counters.lineErrors++;
+            }
+            counters.chunkMapNanos += System.nanoTime() - mapStart;
+        }
+
+        if (counters.pendingRecords >= chunkSize) {
+            flushChunk(counters);
+            logger.debug("Flushed chunk, {} records processed so far", counters.processedLines);
+        }
+    }
+
+    /**
+     * Saves the cached related entities (Countries, Regions, etc.) the records of the current chunk
+     * reference, then takes the records and queues their write. The related entities are saved here,
+     * on the import thread, as the mappers create and change them on this thread: the persist stage
+     * only gets the chunk. Reports the progress made since the previous chunk.
+     */
+    private void flushChunk(ImportCounters counters) throws Exception {
+        persistenceHelper.persistCachedEntities();
+        List<DiseaseCase> chunk = takeChunk();
+        int records = counters.pendingRecords;
+        counters.mapTimer.record(counters.chunkMapNanos, TimeUnit.NANOSECONDS);
+        counters.mapNanos += counters.chunkMapNanos;
+        importProgress.addParsed(counters.unreportedLines, counters.unreportedBytes);
+        counters.persistStage.submit(records, () -> {
+            persistChunk(chunk);
+            importProgress.addPersisted(records);
+        });
+        counters.pendingRecords = 0;
+        counters.unreportedLines = 0;
+        counters.unreportedBytes = 0;
+        counters.chunkMapNanos = 0;
+    }
+
+    /**
+     * Saves a chunk of disease cases the way the current import requires
+     * (persistence mode, upsert for incremental imports, staging table for staged ones).
+     *
+     * @param diseaseCases The disease cases to save.
+     */
+    protected void saveDiseaseCases(List<DiseaseCase> diseaseCases) throws PersistenceException {
+        // The file is part of the key of the imported rows
+        String source = getFileName();
+        for (DiseaseCase diseaseCase : diseaseCases) {
+            diseaseCase.setSource(source);
+            diseaseCase.setImportGeneration(importGeneration);
+        }
+        if (staged) {
+            persistenceHelper.stageDiseaseCases(diseaseCases);
+            return;
+        }
+        persistenceHelper.saveDiseaseCases(diseaseCases, persistenceMode, upsert);
+    }
+
+    private static final class ImportCounters {
+        final PersistStage persistStage;
+        final Timer mapTimer;
+        int processedLines;
+        int lineErrors;
+        int pendingRecords;
+        // Progress not yet published to ImportProgress
+        int unreportedLines;
+        long unreportedBytes;
+        // Time spent in processDto
+        long chunkMapNanos;
+        long mapNanos;
+
+        ImportCounters(PersistStage persistStage, Timer mapTimer) {
+            this.persistStage = persistStage;
+            this.mapTimer = mapTimer;
         }
     }
 
@@ -123,15 +393,27 @@ public abstract class AbstractCsvImportService<DTO> {
     }
 
     /**
-     * Processes a single line (represented as an array of fields) from the CSV file.
+     * Processes a single line (tokenized into fields) from the CSV file.
      * Responsible for parsing fields, validating data, and creating a DTO.
+     * The tokenizer is reused for the next line, so values must be extracted here.
+     * May be called from several threads at once when {@link #supportsParallelParsing()} is true.
      *
-     * @param fields The fields extracted from the current CSV line.
+     * @param fields The tokenizer positioned on the current CSV line.
      * @param lineNumber The 1-based line number in the file (for logging).
      * @return A DTO object representing the line, or null if the line is invalid or should be skipped.
      * @throws Exception If an unrecoverable error occurs during processing.
      */
-    protected abstract DTO processLine(String[] fields, int lineNumber) throws Exception;
+    protected abstract DTO processLine(CsvLineTokenizer fields, int lineNumber) throws Exception;
+
+    /**
+     * Whether {@link #processLine} may run on the parallel parse workers.
+     * Subclasses returning true must keep {@code processLine} free of shared mutable state
+     * (it may only read the tokenizer and stateless helpers such as {@code cleanerHelper}).
+     * Default implementation returns false.
+     */
+    protected boolean supportsParallelParsing() {
+        return false;
+    }
 
     /**
      * Processes a successfully created DTO.
@@ -144,9 +426,31 @@ public abstract class AbstractCsvImportService<DTO> {
     protected abstract void processDto(DTO dto) throws Exception;
 
     /**
-     * Performs final steps after all lines are processed and related entities are saved.
-     * This is typically used for saving the main entities collected during `processDto`
-     * and updating any necessary references between entities.
+     * Hands over the main entities collected by `processDto` since the previous chunk, and starts
+     * a new buffer for the next one. Called on the import thread every `chunkSize` records and once
+     * more at the end of the file; the returned list is then only used by {@link #persistChunk}.
+     * Default implementation collects nothing.
+     *
+     * @return The entities of the chunk.
+     */
+    protected List<DiseaseCase> takeChunk() {
+        return List.of();
+    }
+
+    /**
+     * Saves a chunk taken by {@link #takeChunk}. Runs on the persist stage thread, one chunk at a time,
+     * in the transaction of the file, after the related entities of the chunk have been persisted, while
+     * the import thread maps the next chunk: it must not touch the state used by `processDto`.
+     * Default implementation does nothing.
+     *
+     * @param chunk The entities of the chunk.
+     */
+    protected void persistChunk(List<DiseaseCase> chunk) throws Exception {
+        // Default: nothing collected per chunk
+    }
+
+    /**
+     * Performs final steps after all lines are processed and every chunk has been persisted.
      * Default implementation does nothing.
      */
     protected void postProcessing() throws Exception {
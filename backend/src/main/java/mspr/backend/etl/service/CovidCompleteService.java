@@ -1,26 +1,22 @@
 package mspr.backend.etl.service;
 
-import jakarta.transaction.Transactional;
 import mspr.backend.entity.Disease;
 import mspr.backend.entity.DiseaseCase;
 import mspr.backend.etl.dto.CovidCompleteDto;
 import mspr.backend.etl.mapper.CovidCompleteMapper;
 import mspr.backend.etl.exceptions.*;
-import mspr.backend.repository.DiseaseCaseRepository;
+import mspr.backend.etl.helpers.CsvLineTokenizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
 @Service
-@Transactional
 public class CovidCompleteService extends AbstractCsvImportService<CovidCompleteDto> {
 
     private final Logger logger = LoggerFactory.getLogger(CovidCompleteService.class);
@@ -42,17 +38,22 @@ public class CovidCompleteService extends AbstractCsvImportService<CovidComplete
     @Autowired
     private CovidCompleteMapper mapper;
 
-    @Autowired
-    private DiseaseCaseRepository diseaseCaseRepository;
-
+    // Entities of the current chunk, handed over to the persist stage by takeChunk
     private List<DiseaseCase> diseaseCasesToSave;
-    private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     @Override
     protected String getFileName() {
         return FILE_NAME;
     }
 
+    /**
+     * processLine only reads the tokenizer and cleanerHelper, so it can run on the parse workers.
+     */
+    @Override
+    protected boolean supportsParallelParsing() {
+        return true;
+    }
+
     @Override
     protected void preProcessing() {
         this.diseaseCasesToSave = new ArrayList<>();
@@ -60,37 +61,37 @@ public class CovidCompleteService extends AbstractCsvImportService<CovidComplete
     }
 
     @Override
-    protected CovidCompleteDto processLine(String[] fields, int lineNumber) {
-        if (fields.length < MIN_FIELDS_REQUIRED) {
+    protected CovidCompleteDto processLine(CsvLineTokenizer fields, int lineNumber) {
+        if (fields.fieldCount() < MIN_FIELDS_REQUIRED) {
             logger.warn("Line {}: Insufficient fields (expected at least {}, got {}). Skipping line.",
-                    lineNumber, MIN_FIELDS_REQUIRED, fields.length);
+                    lineNumber, MIN_FIELDS_REQUIRED, fields.fieldCount());
             return null;
         }
 
-        String provinceStateName = fields[IDX_PROVINCE_STATE].trim();
-        String countryRegionName = fields[IDX_COUNTRY_REGION].trim();
+        String provinceStateName = fields.getString(IDX_PROVINCE_STATE);
+        String countryRegionName = fields.getString(IDX_COUNTRY_REGION);
 
         double lat = 0.0, lon = 0.0;
         int confirmed = 0, deaths = 0, recovered = 0, active = 0;
         LocalDate date;
 
         try {
-            lat = fields[IDX_LATITUDE].isEmpty() ? 0.0 : Double.parseDouble(fields[IDX_LATITUDE].trim());
-            lon = fields[IDX_LONGITUDE].isEmpty() ? 0.0 : Double.parseDouble(fields[IDX_LONGITUDE].trim());
-            date = LocalDate.parse(fields[IDX_DATE].trim(), dateFormatter);
-            confirmed = fields[IDX_CONFIRMED].isEmpty() ? 0 : Integer.parseInt(fields[IDX_CONFIRMED].trim());
-            deaths = fields[IDX_DEATHS].isEmpty() ? 0 : Integer.parseInt(fields[IDX_DEATHS].trim());
-            recovered = fields[IDX_RECOVERED].isEmpty() ? 0 : Integer.parseInt(fields[IDX_RECOVERED].trim());
-            active = fields[IDX_ACTIVE].isEmpty() ? 0 : Integer.parseInt(fields[IDX_ACTIVE].trim());
+            lat = fields.getDouble(IDX_LATITUDE, 0.0);
+            lon = fields.getDouble(IDX_LONGITUDE, 0.0);
+            date = fields.getIsoDate(IDX_DATE);
+            confirmed = fields.getInt(IDX_CONFIRMED, 0);
+            deaths = fields.getInt(IDX_DEATHS, 0);
+            recovered = fields.getInt(IDX_RECOVERED, 0);
+            active = fields.getInt(IDX_ACTIVE, 0);
         } catch (NumberFormatException e) {
             logger.warn("Line {}: Error parsing numeric fields: {}", lineNumber, e.getMessage());
             return null;
-        } catch (DateTimeParseException e) {
+        } catch (DateTimeException e) {
             logger.warn("Line {}: Error parsing date: {}", lineNumber, e.getMessage());
             return null;
         }
 
-        String whoRegion = fields[IDX_WHO_REGION].trim();
+        String whoRegion = fields.getString(IDX_WHO_REGION);
 
         // Use cleanerHelper from abstract class for country name
         return new CovidCompleteDto(
@@ -124,26 +125,27 @@ public class CovidCompleteService extends AbstractCsvImportService<CovidComplete
     }
 
     @Override
-    protected void postProcessing() throws PersistenceException {
-        logger.debug("Starting post-processing for CovidCompleteService...");
+    protected List<DiseaseCase> takeChunk() {
+        List<DiseaseCase> chunk = diseaseCasesToSave;
+        diseaseCasesToSave = new ArrayList<>();
+        return chunk;
+    }
+
+    @Override
+    protected void persistChunk(List<DiseaseCase> chunk) throws PersistenceException {
+        logger.debug("Persisting chunk for CovidCompleteService...");
         // Filtrer les entrées null avant de mettre à jour les références
-        diseaseCasesToSave.removeIf(dc -> dc == null);
+        chunk.removeIf(dc -> dc == null);
         
-        updateDiseaseCaseReferences(this.diseaseCasesToSave);
-
-        if (!diseaseCasesToSave.isEmpty()) {
-            logger.info("Saving {} disease cases to the database.", diseaseCasesToSave.size());
-            try {
-                diseaseCaseRepository.saveAll(diseaseCasesToSave);
-                logger.info("Successfully saved {} disease cases.", diseaseCasesToSave.size());
-            } catch (DataAccessException e) {
-                logger.error("Database error while saving DiseaseCase entities: {}", e.getMessage(), e);
-                throw new PersistenceException("Error saving DiseaseCase entities to database", e);
-            }
+        updateDiseaseCaseReferences(chunk);
+
+        if (!chunk.isEmpty()) {
+            logger.info("Saving {} disease cases to the database.", chunk.size());
+            saveDiseaseCases(chunk);
+            logger.info("Successfully saved {} disease cases.", chunk.size());
         } else {
             logger.info("No DiseaseCase entities to save.");
         }
-        this.diseaseCasesToSave.clear();
     }
 
     private void updateDiseaseCaseReferences(List<DiseaseCase> diseaseCases) {
@@ -158,7 +160,7 @@ public class CovidCompleteService extends AbstractCsvImportService<CovidComplete
             
             if (dc.getDisease() != null) {
                 String diseaseName = dc.getDisease().getName();
-                Disease managedDisease = cacheManager.getDiseases().get(diseaseName);
+                Disease managedDisease = cacheManager.getDisease(diseaseName);
                 if (managedDisease != null) {
                     dc.setDisease(managedDisease);
                 } else {
@@ -1,26 +1,22 @@
 package mspr.backend.etl.service;
 
-import jakarta.transaction.Transactional;
 import mspr.backend.entity.Disease;
 import mspr.backend.entity.DiseaseCase;
 import mspr.backend.etl.dto.FullGroupedDto;
 import mspr.backend.etl.mapper.FullGroupedMapper;
 import mspr.backend.etl.exceptions.*;
-import mspr.backend.repository.DiseaseCaseRepository;
+import mspr.backend.etl.helpers.CsvLineTokenizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
 @Service
-@Transactional
 public class FullGroupedService extends AbstractCsvImportService<FullGroupedDto> {
 
     private final Logger logger = LoggerFactory.getLogger(FullGroupedService.class);
@@ -39,20 +35,22 @@ public class FullGroupedService extends AbstractCsvImportService<FullGroupedDto>
     @Autowired
     private FullGroupedMapper mapper;
 
-    @Autowired
-    private DiseaseCaseRepository diseaseCaseRepository;
-
-    // List to hold entities before final batch save
+    // Entities of the current chunk, handed over to the persist stage by takeChunk
     private List<DiseaseCase> diseaseCasesToSave;
 
-    // DateTimeFormatter can be static
-    private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
     @Override
     protected String getFileName() {
         return FILE_NAME;
     }
 
+    /**
+     * processLine only reads the tokenizer and cleanerHelper, so it can run on the parse workers.
+     */
+    @Override
+    protected boolean supportsParallelParsing() {
+        return true;
+    }
+
     @Override
     protected void preProcessing() {
         // Initialize the list for this import run
@@ -63,42 +61,42 @@ public class FullGroupedService extends AbstractCsvImportService<FullGroupedDto>
     /**
      * Processes a single CSV line into a DTO
      *
-     * @param fields     Fields from the CSV line
+     * @param fields     Tokenized fields of the CSV line
      * @param lineNumber Line number for logging
      * @return DTO or null if the line couldn't be processed
      */
     @Override
-    protected FullGroupedDto processLine(String[] fields, int lineNumber) {
-        if (fields.length < MIN_FIELDS_REQUIRED) {
+    protected FullGroupedDto processLine(CsvLineTokenizer fields, int lineNumber) {
+        if (fields.fieldCount() < MIN_FIELDS_REQUIRED) {
             logger.warn("Line {}: Insufficient fields (expected at least {}, got {}). Skipping line.",
-                    lineNumber, MIN_FIELDS_REQUIRED, fields.length);
+                    lineNumber, MIN_FIELDS_REQUIRED, fields.fieldCount());
             return null;
         }
 
         LocalDate date;
         try {
-            date = LocalDate.parse(fields[IDX_DATE].trim(), dateFormatter);
-        } catch (DateTimeParseException e) {
+            date = fields.getIsoDate(IDX_DATE);
+        } catch (DateTimeException e) {
             logger.warn("Line {}: Error parsing date: {}", lineNumber, e.getMessage());
             return null;
         }
 
         // Use cleanerHelper from the abstract class
         String countryRegionName = cleanerHelper.cleanRegionName(
-                cleanerHelper.cleanCountryName(fields[IDX_COUNTRY_REGION].trim()));
+                cleanerHelper.cleanCountryName(fields.getString(IDX_COUNTRY_REGION)));
 
         int confirmed = 0, deaths = 0, recovered = 0, active = 0;
         try {
-            confirmed = fields[IDX_CONFIRMED].isEmpty() ? 0 : Integer.parseInt(fields[IDX_CONFIRMED].trim());
-            deaths = fields[IDX_DEATHS].isEmpty() ? 0 : Integer.parseInt(fields[IDX_DEATHS].trim());
-            recovered = fields[IDX_RECOVERED].isEmpty() ? 0 : Integer.parseInt(fields[IDX_RECOVERED].trim());
-            active = fields[IDX_ACTIVE].isEmpty() ? 0 : Integer.parseInt(fields[IDX_ACTIVE].trim());
+            confirmed = fields.getInt(IDX_CONFIRMED, 0);
+            deaths = fields.getInt(IDX_DEATHS, 0);
+            recovered = fields.getInt(IDX_RECOVERED, 0);
+            active = fields.getInt(IDX_ACTIVE, 0);
         } catch (NumberFormatException e) {
             logger.warn("Line {}: Error parsing numeric fields: {}", lineNumber, e.getMessage());
             return null;
         }
 
-        String whoRegion = fields[IDX_WHO_REGION].trim();
+        String whoRegion = fields.getString(IDX_WHO_REGION);
 
         // No need to check for duplicates here, handled by potential database constraints or acceptable
         return new FullGroupedDto(
@@ -136,33 +134,33 @@ public class FullGroupedService extends AbstractCsvImportService<FullGroupedDto>
         }
     }
 
+    @Override
+    protected List<DiseaseCase> takeChunk() {
+        List<DiseaseCase> chunk = diseaseCasesToSave;
+        diseaseCasesToSave = new ArrayList<>();
+        return chunk;
+    }
+
     /**
-     * Updates references in the collected DiseaseCase entities and saves them.
+     * Updates references in the DiseaseCase entities of the current chunk and saves them.
      */
     @Override
-    protected void postProcessing() throws PersistenceException {
-        logger.debug("Starting post-processing for FullGroupedService...");
+    protected void persistChunk(List<DiseaseCase> chunk) throws PersistenceException {
+        logger.debug("Persisting chunk for FullGroupedService...");
         // Filtrer les entrées null avant de mettre à jour les références
-        diseaseCasesToSave.removeIf(dc -> dc == null);
+        chunk.removeIf(dc -> dc == null);
         
         // 1. Update references to managed entities from the cache
-        updateDiseaseCaseReferences(this.diseaseCasesToSave);
+        updateDiseaseCaseReferences(chunk);
 
         // 2. Save the main entities
-        if (!diseaseCasesToSave.isEmpty()) {
-            logger.info("Saving {} disease cases to the database.", diseaseCasesToSave.size());
-            try {
-                diseaseCaseRepository.saveAll(diseaseCasesToSave);
-                logger.info("Successfully saved {} disease cases.", diseaseCasesToSave.size());
-            } catch (DataAccessException e) {
-                logger.error("Database error while saving DiseaseCase entities: {}", e.getMessage(), e);
-                throw new PersistenceException("Error saving DiseaseCase entities to database", e);
-            }
+        if (!chunk.isEmpty()) {
+            logger.info("Saving {} disease cases to the database.", chunk.size());
+            saveDiseaseCases(chunk);
+            logger.info("Successfully saved {} disease cases.", chunk.size());
         } else {
             logger.info("No DiseaseCase entities to save.");
         }
-        // Clear the list after processing
-        this.diseaseCasesToSave.clear();
     }
 
     /**
@@ -184,7 +182,7 @@ public class FullGroupedService extends AbstractCsvImportService<FullGroupedDto>
             
             if (dc.getDisease() != null) {
                 String diseaseName = dc.getDisease().getName();
-                Disease managedDisease = cacheManager.getDiseases().get(diseaseName);
+                Disease managedDisease = cacheManager.getDisease(diseaseName);
                 if (managedDisease != null) {
                     dc.setDisease(managedDisease);
                 } else {
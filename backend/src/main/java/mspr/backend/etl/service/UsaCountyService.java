@@ -4,31 +4,28 @@ import mspr.backend.entity.*;
 import mspr.backend.etl.dto.UsaCountyDto;
 import mspr.backend.etl.mapper.UsaCountyMapper;
 import mspr.backend.etl.exceptions.*;
-import mspr.backend.repository.DiseaseCaseRepository;
+import mspr.backend.etl.helpers.CsvLineTokenizer;
 import mspr.backend.repository.DiseaseRepository;
 import mspr.backend.etl.helpers.cache.CacheManager;
+import mspr.backend.etl.helpers.cache.LocationKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import jakarta.transaction.Transactional;
 
 @Service
-@Transactional
 public class UsaCountyService extends AbstractCsvImportService<UsaCountyDto> {
 
     private final Logger logger = LoggerFactory.getLogger(UsaCountyService.class);
     private static final String FILE_NAME = "usa_county_wise.csv";
     private static final String COVID_19_DISEASE_NAME = "COVID-19";
-    private static final int BATCH_SIZE = 25000; // Augmenté pour de meilleures performances
 
     // CSV field indices
     private static final int IDX_COUNTY = 5; // Admin2
@@ -44,17 +41,14 @@ public class UsaCountyService extends AbstractCsvImportService<UsaCountyDto> {
     @Autowired
     private UsaCountyMapper usaCountyMapper;
 
-    @Autowired
-    private DiseaseCaseRepository diseaseCaseRepository;
-
     @Autowired
     private DiseaseRepository diseaseRepository;
     
     @Autowired
     private CacheManager cacheManager;
 
+    // Entities of the current chunk, handed over to the persist stage by takeChunk
     private List<DiseaseCase> diseaseCasesToSave;
-    private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("M/d/yy");
     
     // Stocker la référence COVID pour éviter des recherches répétées
     private Disease covidDisease;
@@ -64,13 +58,21 @@ public class UsaCountyService extends AbstractCsvImportService<UsaCountyDto> {
         return FILE_NAME;
     }
 
+    /**
+     * processLine only reads the tokenizer and cleanerHelper, so it can run on the parse workers.
+     */
+    @Override
+    protected boolean supportsParallelParsing() {
+        return true;
+    }
+
     @Override
     protected void preProcessing() throws PersistenceException {
         this.diseaseCasesToSave = new ArrayList<>();
         logger.debug("Initialized list for DiseaseCase entities.");
         ensureCovidDiseaseExists();
         // Stocker la référence qui sera réutilisée
-        this.covidDisease = cacheManager.getDiseases().get(COVID_19_DISEASE_NAME);
+        this.covidDisease = cacheManager.getDisease(COVID_19_DISEASE_NAME);
     }
 
     /**
@@ -80,7 +82,7 @@ public class UsaCountyService extends AbstractCsvImportService<UsaCountyDto> {
      * @throws PersistenceException if there is an error persisting the disease entity
      */
     private void ensureCovidDiseaseExists() throws PersistenceException {
-        Disease covidDisease = cacheManager.getDiseases().get(COVID_19_DISEASE_NAME);
+        Disease covidDisease = cacheManager.getDisease(COVID_19_DISEASE_NAME);
         if (covidDisease == null) {
             logger.debug("COVID-19 disease not found in cache, checking database...");
             covidDisease = diseaseRepository.findByName(COVID_19_DISEASE_NAME);
@@ -107,45 +109,43 @@ public class UsaCountyService extends AbstractCsvImportService<UsaCountyDto> {
      * Processes a single CSV line (as fields) into a DTO.
      * Overrides the abstract method.
      *
-     * @param fields Fields from the CSV line
+     * @param fields Tokenized fields of the CSV line
      * @param lineNumber Line number for logging
      * @return DTO or null if the line couldn't be processed
      */
     @Override
-    protected UsaCountyDto processLine(String[] fields, int lineNumber) {
-        if (fields.length < MIN_FIELDS_REQUIRED) {
+    protected UsaCountyDto processLine(CsvLineTokenizer fields, int lineNumber) {
+        if (fields.fieldCount() < MIN_FIELDS_REQUIRED) {
             logger.warn("Line {}: Insufficient fields (expected at least {}, got {}). Skipping line.",
-                    lineNumber, MIN_FIELDS_REQUIRED, fields.length);
+                    lineNumber, MIN_FIELDS_REQUIRED, fields.fieldCount());
             return null;
         }
 
-        String county = fields[IDX_COUNTY].trim();
-        String provinceState = fields[IDX_PROVINCE_STATE].trim();
-        String countryRegion = fields[IDX_COUNTRY_REGION].trim();
+        String county = fields.getString(IDX_COUNTY);
+        String provinceState = fields.getString(IDX_PROVINCE_STATE);
+        String countryRegion = fields.getString(IDX_COUNTRY_REGION);
         double lat = 0.0, lon = 0.0;
         LocalDate date;
         int confirmed = 0, deaths = 0;
 
         try {
-            String latStr = fields[IDX_LATITUDE].trim();
-            String lonStr = fields[IDX_LONGITUDE].trim();
-            lat = latStr.isEmpty() ? 0.0 : Double.parseDouble(latStr);
-            lon = lonStr.isEmpty() ? 0.0 : Double.parseDouble(lonStr);
+            lat = fields.getDouble(IDX_LATITUDE, 0.0);
+            lon = fields.getDouble(IDX_LONGITUDE, 0.0);
         } catch (NumberFormatException e) {
             logger.warn("Line {}: Error parsing geographic coordinates: {}. Setting to 0.", lineNumber, e.getMessage());
             // Continue with lat/lon as 0
         }
 
         try {
-            date = LocalDate.parse(fields[IDX_DATE].trim(), dateFormatter);
-        } catch (DateTimeParseException e) {
+            date = fields.getUsShortDate(IDX_DATE);
+        } catch (DateTimeException e) {
             logger.warn("Line {}: Error parsing date: {}. Skipping line.", lineNumber, e.getMessage());
             return null;
         }
 
         try {
-            confirmed = fields[IDX_CONFIRMED].isEmpty() ? 0 : Integer.parseInt(fields[IDX_CONFIRMED].trim());
-            deaths = fields[IDX_DEATHS].isEmpty() ? 0 : Integer.parseInt(fields[IDX_DEATHS].trim());
+            confirmed = fields.getInt(IDX_CONFIRMED, 0);
+            deaths = fields.getInt(IDX_DEATHS, 0);
         } catch (NumberFormatException e) {
             logger.warn("Line {}: Error parsing confirmed/deaths counts: {}. Setting to 0.", lineNumber, e.getMessage());
             // Continue with counts as 0
@@ -187,51 +187,33 @@ public class UsaCountyService extends AbstractCsvImportService<UsaCountyDto> {
         }
     }
 
+    @Override
+    protected List<DiseaseCase> takeChunk() {
+        List<DiseaseCase> chunk = diseaseCasesToSave;
+        diseaseCasesToSave = new ArrayList<>();
+        return chunk;
+    }
+
     /**
-     * Final steps: update references and save main entities.
+     * Chunk steps: update references and save the main entities of the current chunk.
      * Overrides the abstract method.
      */
     @Override
-    protected void postProcessing() throws PersistenceException, EtlException {
-        logger.info("Starting post-processing for UsaCountyService.");
-
-        logger.info("Filtering disease cases...");
+    protected void persistChunk(List<DiseaseCase> chunk) throws PersistenceException, EtlException {
         // Filtrage plus direct et efficace des entrées null
-        diseaseCasesToSave.removeIf(Objects::isNull);
+        chunk.removeIf(Objects::isNull);
         
-        if (diseaseCasesToSave.isEmpty()) {
-            logger.info("No DiseaseCase entities to process.");
+        if (chunk.isEmpty()) {
+            logger.debug("No DiseaseCase entities to process in this chunk.");
             return;
         }
 
-        logger.info("Updating disease cases references...");
-        updateDiseaseCaseReferences(this.diseaseCasesToSave);
+        logger.debug("Updating disease cases references...");
+        updateDiseaseCaseReferences(chunk);
 
-        if (!diseaseCasesToSave.isEmpty()) {
-            int totalSize = diseaseCasesToSave.size();
-            logger.info("Saving {} disease cases to the database in batches of {}", totalSize, BATCH_SIZE);
-            
-            try {
-                for (int i = 0; i < totalSize; i += BATCH_SIZE) {
-                    int endIndex = Math.min(i + BATCH_SIZE, totalSize);
-                    List<DiseaseCase> batch = diseaseCasesToSave.subList(i, endIndex);
-                    
-                    diseaseCaseRepository.saveAll(batch);
-                    logger.info("Saved batch {}/{} ({} records)", 
-                               (i/BATCH_SIZE)+1, 
-                               (int)Math.ceil((double)totalSize/BATCH_SIZE), 
-                               batch.size());
-                }
-                
-                logger.info("Successfully saved all {} disease cases.", totalSize);
-            } catch (DataAccessException e) {
-                logger.error("Database error while saving DiseaseCase entities: {}", e.getMessage(), e);
-                throw new PersistenceException("Error saving DiseaseCase entities to database", e);
-            }
-        } else {
-            logger.info("No DiseaseCase entities to save.");
-        }
-        this.diseaseCasesToSave.clear();
+        int chunkRecords = chunk.size();
+        saveDiseaseCases(chunk);
+        logger.info("Saved chunk of {} disease cases.", chunkRecords);
     }
 
     /**
@@ -246,7 +228,7 @@ public class UsaCountyService extends AbstractCsvImportService<UsaCountyDto> {
         
         // Vérifier que la référence COVID est disponible
         if (covidDisease == null) {
-            covidDisease = cacheManager.getDiseases().get(COVID_19_DISEASE_NAME);
+            covidDisease = cacheManager.getDisease(COVID_19_DISEASE_NAME);
             if (covidDisease == null) {
                 logger.error("CRITICAL: COVID-19 disease reference missing from cache during final update.");
                 throw new EtlException("COVID-19 disease reference missing unexpectedly during postProcessing");
@@ -283,13 +265,13 @@ public class UsaCountyService extends AbstractCsvImportService<UsaCountyDto> {
         if (originalCountry == null || originalCountry.getName() == null || 
             originalRegion.getName() == null || originalLocation.getName() == null) return;
         
-        String locationKey = cacheManager.getLocationKey(
+        LocationKey locationKey = cacheManager.getLocationKey(
             originalCountry.getName(), 
             originalRegion.getName(), 
             originalLocation.getName()
         );
         
-        Location managedLocation = cacheManager.getLocations().get(locationKey);
+        Location managedLocation = cacheManager.getLocation(locationKey);
         if (managedLocation != null) {
             dc.setLocation(managedLocation);
         }
@@ -1,16 +1,15 @@
 package mspr.backend.etl.service;
 
-import jakarta.transaction.Transactional;
 import mspr.backend.etl.dto.WorldometerDto;
 import mspr.backend.etl.mapper.WorldometerMapper;
 import mspr.backend.etl.exceptions.*;
+import mspr.backend.etl.helpers.CsvLineTokenizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
-@Transactional
 public class WorldometerService extends AbstractCsvImportService<WorldometerDto> {
 
     private final Logger logger = LoggerFactory.getLogger(WorldometerService.class);
@@ -36,39 +35,33 @@ public class WorldometerService extends AbstractCsvImportService<WorldometerDto>
     }
 
     @Override
-    protected WorldometerDto processLine(String[] fields, int lineNumber) {
-        if (fields.length < MIN_FIELDS_REQUIRED) {
+    protected WorldometerDto processLine(CsvLineTokenizer fields, int lineNumber) {
+        if (fields.fieldCount() < MIN_FIELDS_REQUIRED) {
             logger.warn("Line {}: Insufficient fields (expected at least {}, got {}). Skipping line.",
-                    lineNumber, MIN_FIELDS_REQUIRED, fields.length);
+                    lineNumber, MIN_FIELDS_REQUIRED, fields.fieldCount());
             return null;
         }
 
         // Use cleanerHelper for country name
-        String countryName = cleanerHelper.cleanCountryName(fields[IDX_COUNTRY_NAME].trim());
-        String continent = fields[IDX_CONTINENT].trim();
+        String countryName = cleanerHelper.cleanCountryName(fields.getString(IDX_COUNTRY_NAME));
+        String continent = fields.getString(IDX_CONTINENT);
         long population = 0; // Use long for population
         int totalCases = 0, totalDeaths = 0, totalRecovered = 0, activeCases = 0;
 
         try {
-            // Remove commas before parsing numbers
-            String populationStr = fields[IDX_POPULATION].trim().replace(",", "");
-            String totalCasesStr = fields[IDX_TOTAL_CASES].trim().replace(",", "");
-            String totalDeathsStr = fields[IDX_TOTAL_DEATHS].trim().replace(",", "");
-            String totalRecoveredStr = fields[IDX_TOTAL_RECOVERED].trim().replace(",", "");
-            String activeCasesStr = fields[IDX_ACTIVE_CASES].trim().replace(",", "");
-
-            population = populationStr.isEmpty() ? 0 : Long.parseLong(populationStr);
-            totalCases = totalCasesStr.isEmpty() ? 0 : Integer.parseInt(totalCasesStr);
-            totalDeaths = totalDeathsStr.isEmpty() ? 0 : Integer.parseInt(totalDeathsStr);
-            totalRecovered = totalRecoveredStr.isEmpty() ? 0 : Integer.parseInt(totalRecoveredStr);
-            activeCases = activeCasesStr.isEmpty() ? 0 : Integer.parseInt(activeCasesStr);
+            // Grouping commas (e.g. "1,234") are skipped by the tokenizer
+            population = fields.getLong(IDX_POPULATION, 0);
+            totalCases = fields.getInt(IDX_TOTAL_CASES, 0);
+            totalDeaths = fields.getInt(IDX_TOTAL_DEATHS, 0);
+            totalRecovered = fields.getInt(IDX_TOTAL_RECOVERED, 0);
+            activeCases = fields.getInt(IDX_ACTIVE_CASES, 0);
 
         } catch (NumberFormatException e) {
             logger.warn("Line {}: Error parsing numeric fields (commas removed): {}. Skipping line.", lineNumber, e.getMessage());
             return null; // Skip line if core numeric data is invalid
         }
 
-        String whoRegion = fields[IDX_WHO_REGION].trim();
+        String whoRegion = fields.getString(IDX_WHO_REGION);
         // Use cleanerHelper for region name if appropriate, assuming WHO region might need it
         whoRegion = cleanerHelper.cleanRegionName(whoRegion);
 
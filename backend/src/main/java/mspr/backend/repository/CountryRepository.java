@@ -1,6 +1,9 @@
 package mspr.backend.repository;
 
 
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,5 +12,8 @@ import mspr.backend.entity.Country;
 @Repository
 public interface CountryRepository extends JpaRepository<Country, Integer> {
     Country findByName(String name);
+
+    // Keyset pagination: the next rows after the last id seen, without OFFSET
+    List<Country> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
 }
 
@@ -0,0 +1,96 @@
+package mspr.backend.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import mspr.backend.dto.TotalKpiDto;
+import mspr.backend.entity.Country;
+import mspr.backend.entity.DailyCountryRollup;
+
+@Repository
+public interface DailyCountryRollupRepository extends JpaRepository<DailyCountryRollup, Long> {
+
+    // Date bounds are always set (see DiseaseCaseService) so that the range can use the (date, country) index
+
+    @Query("SELECT r.date, SUM(r.confirmedCases), SUM(r.deaths), SUM(r.recovered) " +
+            "FROM DailyCountryRollup r WHERE r.date BETWEEN :start AND :end " +
+            "GROUP BY r.date ORDER BY r.date")
+    List<Object[]> getWorldByDate(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    @Query("SELECT r.date, r.countryName, r.confirmedCases, r.deaths, r.recovered, r.maxCaseId " +
+            "FROM DailyCountryRollup r " +
+            "WHERE r.date BETWEEN :start AND :end AND r.countryName IN :countries " +
+            "AND (:continent IS NULL OR r.continent = :continent) " +
+            "AND (:whoRegion IS NULL OR r.whoRegion = :whoRegion) " +
+            "ORDER BY r.date, r.countryName")
+    List<Object[]> getByDateAndCountries(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end,
+            @Param("countries") List<String> countries,
+            @Param("continent") Country.ContinentEnum continent,
+            @Param("whoRegion") Country.WHORegionEnum whoRegion);
+
+    @Query("SELECT r.date, r.countryName, r.confirmedCases, r.deaths, r.recovered, r.maxCaseId " +
+            "FROM DailyCountryRollup r " +
+            "WHERE r.date BETWEEN :start AND :end " +
+            "AND (:continent IS NULL OR r.continent = :continent) " +
+            "AND (:whoRegion IS NULL OR r.whoRegion = :whoRegion) " +
+            "ORDER BY r.date, r.countryName")
+    List<Object[]> getByDateAllCountries(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end,
+            @Param("continent") Country.ContinentEnum continent,
+            @Param("whoRegion") Country.WHORegionEnum whoRegion);
+
+    @Query("SELECT r.date, r.continent, SUM(r.confirmedCases), SUM(r.deaths), SUM(r.recovered) " +
+            "FROM DailyCountryRollup r WHERE r.date BETWEEN :start AND :end AND r.continent IS NOT NULL " +
+            "GROUP BY r.date, r.continent ORDER BY r.date, r.continent")
+    List<Object[]> getByDateAndContinent(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    @Query("SELECT r.date, r.whoRegion, SUM(r.confirmedCases), SUM(r.deaths), SUM(r.recovered) " +
+            "FROM DailyCountryRollup r WHERE r.date BETWEEN :start AND :end AND r.whoRegion IS NOT NULL " +
+            "GROUP BY r.date, r.whoRegion ORDER BY r.date, r.whoRegion")
+    List<Object[]> getByDateAndWhoRegion(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    // KPI totals over a date window, optionally restricted to some countries
+
+    @Query("SELECT new mspr.backend.dto.TotalKpiDto(COALESCE(SUM(r.confirmedCases), 0), " +
+            "COALESCE(SUM(r.deaths), 0), COALESCE(SUM(r.recovered), 0)) " +
+            "FROM DailyCountryRollup r WHERE r.date BETWEEN :start AND :end")
+    TotalKpiDto getTotals(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    @Query("SELECT new mspr.backend.dto.TotalKpiDto(COALESCE(SUM(r.confirmedCases), 0), " +
+            "COALESCE(SUM(r.deaths), 0), COALESCE(SUM(r.recovered), 0)) " +
+            "FROM DailyCountryRollup r WHERE r.date BETWEEN :start AND :end AND r.countryName IN :countries")
+    TotalKpiDto getTotalsForCountries(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end,
+            @Param("countries") List<String> countries);
+
+    @Query("SELECT r.continent, SUM(r.confirmedCases), SUM(r.deaths), SUM(r.recovered) " +
+            "FROM DailyCountryRollup r WHERE r.date BETWEEN :start AND :end AND r.continent IS NOT NULL " +
+            "GROUP BY r.continent ORDER BY r.continent")
+    List<Object[]> getTotalsByContinent(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    @Query("SELECT r.whoRegion, SUM(r.confirmedCases), SUM(r.deaths), SUM(r.recovered) " +
+            "FROM DailyCountryRollup r WHERE r.date BETWEEN :start AND :end AND r.whoRegion IS NOT NULL " +
+            "GROUP BY r.whoRegion ORDER BY r.whoRegion")
+    List<Object[]> getTotalsByWhoRegion(
+            @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+}
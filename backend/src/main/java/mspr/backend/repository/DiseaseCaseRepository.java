@@ -1,45 +1,69 @@
 package mspr.backend.repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import mspr.backend.dto.DiseaseCaseRow;
+import mspr.backend.dto.TotalKpiDto;
 import mspr.backend.entity.DiseaseCase;
 
 @Repository
 public interface DiseaseCaseRepository extends JpaRepository<DiseaseCase, Integer> {
 
+    // Entities are loaded with their location, region and country (see DiseaseCase.location graph)
+
+    @Override
+    @EntityGraph("DiseaseCase.location")
+    Optional<DiseaseCase> findById(Integer id);
+
+    @EntityGraph("DiseaseCase.location")
     @Query("SELECT dc FROM DiseaseCase dc JOIN dc.disease d WHERE d.name = :name")
     DiseaseCase findByName(@Param("name") String name);
 
-    @Query("SELECT COALESCE(SUM(dc.deaths), 0) FROM DiseaseCase dc")
-    long sumDeaths();
+    // The three totals in a single scan
+    @Query("SELECT new mspr.backend.dto.TotalKpiDto(COALESCE(SUM(dc.confirmedCases), 0), " +
+            "COALESCE(SUM(dc.deaths), 0), COALESCE(SUM(dc.recovered), 0)) FROM DiseaseCase dc")
+    TotalKpiDto getTotals();
+
+    // Read model (DiseaseCaseRow) of the list and detail endpoints, built in a single query
 
-    @Query("SELECT COALESCE(SUM(dc.recovered), 0) FROM DiseaseCase dc")
-    long sumRecovered();
+    String ROW_SELECT = "SELECT new mspr.backend.dto.DiseaseCaseRow(dc.id, dc.date, d.name, c.name, r.name, l.name, " +
+            "dc.confirmedCases, dc.deaths, dc.recovered) " +
+            "FROM DiseaseCase dc LEFT JOIN dc.disease d LEFT JOIN dc.location l " +
+            "LEFT JOIN l.region r LEFT JOIN r.country c ";
 
-    @Query("SELECT COALESCE(SUM(dc.confirmedCases), 0) FROM DiseaseCase dc")
-    long sumCases();
+    @Query(value = ROW_SELECT, countQuery = "SELECT COUNT(dc) FROM DiseaseCase dc")
+    Page<DiseaseCaseRow> findAllRows(Pageable pageable);
 
-    @Query("SELECT dc.date, SUM(dc.confirmedCases), SUM(dc.deaths), SUM(dc.recovered) " +
-            "FROM DiseaseCase dc GROUP BY dc.date ORDER BY dc.date")
-    List<Object[]> getAggregatedCasesByDate();
+    @Query(ROW_SELECT + "WHERE dc.id = :id")
+    Optional<DiseaseCaseRow> findRowById(@Param("id") Integer id);
 
-    @Query("SELECT dc.date, c.name, SUM(dc.confirmedCases), SUM(dc.deaths), SUM(dc.recovered), MAX(dc.id) " +
-            "FROM DiseaseCase dc JOIN dc.location l JOIN l.region r JOIN r.country c " +
-            "WHERE c.name IN :countries " +
-            "GROUP BY dc.date, c.name ORDER BY dc.date, c.name")
-    List<Object[]> getAggregatedCasesByDateAndCountries(
-            @Param("countries") List<String> countries);
+    @Query(value = ROW_SELECT + "WHERE d.id = :diseaseId ORDER BY dc.date, dc.id",
+            countQuery = "SELECT COUNT(dc) FROM DiseaseCase dc WHERE dc.disease.id = :diseaseId")
+    Page<DiseaseCaseRow> findRowsByDiseaseId(@Param("diseaseId") Integer diseaseId, Pageable pageable);
 
-    @Query("SELECT dc.date, c.name, SUM(dc.confirmedCases), SUM(dc.deaths), SUM(dc.recovered), MAX(dc.id) " +
-            "FROM DiseaseCase dc JOIN dc.location l JOIN l.region r JOIN r.country c " +
-            "GROUP BY dc.date, c.name ORDER BY dc.date, c.name")
-    List<Object[]> getAggregatedCasesByDateAllCountries();
+    // Keyset pagination on (date, id), served by idx_disease_case_date_id
 
+    @Query(ROW_SELECT + "ORDER BY dc.date, dc.id")
+    List<DiseaseCaseRow> findFirstRowsByDateAndId(Limit limit);
+
+    @Query(ROW_SELECT + "WHERE dc.date > :date OR (dc.date = :date AND dc.id > :id) ORDER BY dc.date, dc.id")
+    List<DiseaseCaseRow> findRowsAfterDateAndId(@Param("date") LocalDate date, @Param("id") Integer id, Limit limit);
+
+    @EntityGraph("DiseaseCase.location")
     @Query("SELECT dc FROM DiseaseCase dc JOIN dc.location l WHERE l.name = :countryName ORDER BY dc.date DESC")
     List<DiseaseCase> findByLocationNameOrderByDateDesc(@Param("countryName") String countryName);
+
+    // True once an import has recorded the source file of its cases
+    boolean existsBySourceIsNotNull();
 }
@@ -1,6 +1,8 @@
 package mspr.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import mspr.backend.entity.Disease;
@@ -8,5 +10,7 @@ import mspr.backend.entity.Disease;
 @Repository
 public interface DiseaseRepository extends JpaRepository<Disease, Integer> {
     Disease findByName(String name);
-}
 
+    @Query("SELECT d.id FROM Disease d WHERE d.name = :name")
+    Integer findIdByName(@Param("name") String name);
+}
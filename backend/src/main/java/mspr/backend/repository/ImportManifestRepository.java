@@ -0,0 +1,13 @@
+package mspr.backend.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import mspr.backend.entity.ImportManifest;
+
+@Repository
+public interface ImportManifestRepository extends JpaRepository<ImportManifest, Integer> {
+    ImportManifest findByFileName(String fileName);
+
+    ImportManifest findTopByOrderByImportedAtDesc();
+}
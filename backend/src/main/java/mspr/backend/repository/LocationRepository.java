@@ -1,11 +1,41 @@
 package mspr.backend.repository;
 
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import mspr.backend.entity.Location;
 
+// Locations are always returned with their region and country: every finder joins them (see Location.region graph)
 @Repository
 public interface LocationRepository extends JpaRepository<Location, Integer> {
+    @EntityGraph("Location.region")
     Location findByName(String name);
+
+    @Override
+    @EntityGraph("Location.region")
+    List<Location> findAll();
+
+    @Override
+    @EntityGraph("Location.region")
+    Page<Location> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph("Location.region")
+    Optional<Location> findById(Integer id);
+
+    // Rows of (id, name), loaded by LocationNameIndex
+    @Query("SELECT l.id, l.name FROM Location l")
+    List<Object[]> findAllIdsAndNames();
+
+    // Keyset pagination: the next rows after the last id seen, without OFFSET
+    @EntityGraph("Location.region")
+    List<Location> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
 }
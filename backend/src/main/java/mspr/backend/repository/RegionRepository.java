@@ -1,9 +1,35 @@
 package mspr.backend.repository;
 import mspr.backend.entity.Region;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+// Regions are always returned with their country: every finder joins it (see Region.country graph)
 @Repository
 public interface RegionRepository extends JpaRepository<Region, Integer> {
+    @EntityGraph("Region.country")
     Region findByName(String name);
+
+    @Override
+    @EntityGraph("Region.country")
+    List<Region> findAll();
+
+    @Override
+    @EntityGraph("Region.country")
+    Page<Region> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph("Region.country")
+    Optional<Region> findById(Integer id);
+
+    // Keyset pagination: the next rows after the last id seen, without OFFSET
+    @EntityGraph("Region.country")
+    List<Region> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
 }
@@ -1,11 +1,17 @@
 package mspr.backend.service;
 
+import java.util.List;
 import java.util.Optional;
 
+import mspr.backend.config.CacheConfig;
+import mspr.backend.dto.CursorPage;
 import mspr.backend.entity.Country;
 import mspr.backend.repository.CountryRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 
@@ -15,38 +21,79 @@ public class CountryService {
     @Autowired
     private CountryRepository countryRepository;
 
+    // Rows per page of the /cursor endpoint, larger sizes are capped
+    @Value("${pagination.cursor.max-size:1000}")
+    private int maxCursorSize;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private KpiCounterStore kpiCounterStore;
+
+    @Cacheable(CacheConfig.COUNTRIES)
     public Page<Country> getAllCountries(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return countryRepository.findAll(pageable);
     }
 
+    /**
+     * Keyset-paginated variant of {@link #getAllCountries}: no OFFSET, and the total is only counted if asked for.
+     *
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    @Cacheable(CacheConfig.COUNTRIES)
+    public CursorPage<Country> getCountriesAfter(String cursor, int size, boolean withTotal) {
+        int limit = PageCursors.limit(size, maxCursorSize);
+        List<Country> rows = countryRepository
+                .findByIdGreaterThanOrderByIdAsc(PageCursors.decodeId(cursor), Limit.of(limit + 1));
+        return PageCursors.page(rows, limit, country -> PageCursors.encodeId(country.getId()),
+                withTotal ? countryRepository::count : null);
+    }
+
+    @Cacheable(CacheConfig.COUNTRIES)
     public Optional<Country> getCountryById(Integer id) {
         return countryRepository.findById(id);
     }
 
+    @Cacheable(CacheConfig.COUNTRIES)
     public Country getCountryByName(String name) {
         return countryRepository.findByName(name);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.COUNTRIES, CacheConfig.REGIONS, CacheConfig.LOCATIONS,
+            CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES}, allEntries = true)
     public Country saveCountry(Country country) {
         return countryRepository.save(country);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.COUNTRIES, CacheConfig.REGIONS, CacheConfig.LOCATIONS,
+            CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES}, allEntries = true)
     public Country createCountry(Country country) {
         return countryRepository.save(country);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.COUNTRIES, CacheConfig.REGIONS, CacheConfig.LOCATIONS,
+            CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES}, allEntries = true)
     public Country updateCountry(Integer id, Country country) {
         if (countryRepository.existsById(id)) {
             country.setId(id);
-            return countryRepository.save(country);
+            Country saved = countryRepository.save(country);
+            // The rollup rows carry the name, continent and WHO region of the country
+            dailyRollupService.refresh(List.of(id));
+            return saved;
         } else {
             return null;
         }
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.COUNTRIES, CacheConfig.REGIONS, CacheConfig.LOCATIONS,
+            CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES}, allEntries = true)
     public void deleteCountry(Integer id) {
         countryRepository.deleteById(id);
+        // The cases of the country are deleted with it (cascade)
+        dailyRollupService.refresh(List.of(id));
+        kpiCounterStore.rebuild();
     }
 
 
@@ -0,0 +1,134 @@
+package mspr.backend.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import mspr.backend.entity.DiseaseCase;
+
+/**
+ * Maintains the daily_country_rollup table from disease_case.
+ * The ETL rebuilds it at the end of each import; the write endpoints refresh the
+ * (date, country) rows touched by a change.
+ */
+@Service
+public class DailyRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyRollupService.class);
+
+    private static final String INSERT_AGGREGATE =
+            "INSERT INTO daily_country_rollup (date, country_id, country_name, continent, who_region, " +
+            "confirmed_cases, deaths, recovered, max_case_id) " +
+            "SELECT dc.date, c.id, c.name, c.continent, c.who_region, " +
+            "SUM(dc.confirmed_case), SUM(dc.deaths), SUM(dc.recovered), MAX(dc.id) " +
+            "FROM disease_case dc " +
+            "JOIN location l ON l.id = dc.location_id " +
+            "JOIN region r ON r.id = l.region_id " +
+            "JOIN country c ON c.id = r.country_id ";
+    private static final String GROUP_BY = "GROUP BY dc.date, c.id, c.name, c.continent, c.who_region";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recomputes the whole table in one transaction: readers see the previous rows until it commits.
+     *
+     * @return The number of rows of the new rollup.
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM daily_country_rollup");
+        int rows = jdbcTemplate.update(INSERT_AGGREGATE + GROUP_BY);
+        logger.info("Daily country rollup rebuilt: {} rows in {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * Recomputes the rollup row of one date and country.
+     */
+    @Transactional
+    public void refresh(LocalDate date, Integer countryId) {
+        if (date == null || countryId == null) {
+            return; // Not part of the rollup (case without date or without country)
+        }
+        jdbcTemplate.update("DELETE FROM daily_country_rollup WHERE date = ? AND country_id = ?", date, countryId);
+        jdbcTemplate.update(INSERT_AGGREGATE + "WHERE dc.date = ? AND c.id = ? " + GROUP_BY, date, countryId);
+    }
+
+    /**
+     * Recomputes the rollup rows of the given countries over a date range, in two statements
+     * (batch writes). Rows of the range that did not change are rewritten identically.
+     */
+    @Transactional
+    public void refresh(LocalDate from, LocalDate to, Collection<Integer> countryIds) {
+        List<Integer> ids = new ArrayList<>(countryIds);
+        ids.removeIf(id -> id == null);
+        if (from == null || to == null || ids.isEmpty()) {
+            return;
+        }
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        args.addAll(ids);
+        int deleted = jdbcTemplate.update("DELETE FROM daily_country_rollup WHERE date BETWEEN ? AND ? "
+                + "AND country_id IN (" + in + ")", args.toArray());
+        int inserted = jdbcTemplate.update(INSERT_AGGREGATE + "WHERE dc.date BETWEEN ? AND ? AND c.id IN (" + in + ") "
+                + GROUP_BY, args.toArray());
+        logger.debug("Daily rollup refreshed from {} to {} for {} countries: {} rows replaced by {}",
+                from, to, ids.size(), deleted, inserted);
+    }
+
+    /**
+     * Recomputes every rollup row of the given countries, whatever the date. Used when a change
+     * of the reference data (country renamed, region or location moved or deleted) touches all
+     * the cases of a country; the rows of a deleted country are removed.
+     */
+    @Transactional
+    public void refresh(Collection<Integer> countryIds) {
+        List<Integer> ids = new ArrayList<>(countryIds);
+        ids.removeIf(id -> id == null);
+        if (ids.isEmpty()) {
+            return;
+        }
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        int deleted = jdbcTemplate.update("DELETE FROM daily_country_rollup WHERE country_id IN (" + in + ")",
+                ids.toArray());
+        int inserted = jdbcTemplate.update(INSERT_AGGREGATE + "WHERE c.id IN (" + in + ") " + GROUP_BY, ids.toArray());
+        logger.debug("Daily rollup refreshed for countries {}: {} rows replaced by {}", ids, deleted, inserted);
+    }
+
+    /**
+     * Recomputes the rollup row the given case belongs to.
+     */
+    @Transactional
+    public void refresh(DiseaseCase diseaseCase) {
+        if (diseaseCase != null) {
+            refresh(diseaseCase.getDate(), countryIdOf(diseaseCase));
+        }
+    }
+
+    /**
+     * @return The id of the case's country, or null if its location has no region or country.
+     */
+    public static Integer countryIdOf(DiseaseCase diseaseCase) {
+        if (diseaseCase.getLocation() == null || diseaseCase.getLocation().getRegion() == null
+                || diseaseCase.getLocation().getRegion().getCountry() == null) {
+            return null;
+        }
+        return diseaseCase.getLocation().getRegion().getCountry().getId();
+    }
+
+    public boolean isEmpty() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_country_rollup", Integer.class);
+        return count == null || count == 0;
+    }
+}
@@ -0,0 +1,195 @@
+package mspr.backend.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import mspr.backend.config.CacheConfig;
+import mspr.backend.dto.DiseaseCaseWriteResult;
+import mspr.backend.entity.Disease;
+import mspr.backend.entity.DiseaseCase;
+import mspr.backend.entity.Location;
+import mspr.backend.etl.exceptions.PersistenceException;
+import mspr.backend.etl.helpers.DiseaseCaseBulkLoader;
+import mspr.backend.repository.DiseaseRepository;
+import mspr.backend.repository.LocationRepository;
+
+/**
+ * Adds many disease cases in one call, for admins and daily feeds.
+ * <p>
+ * Rows have the fields of the single-case endpoint (date, country, confirmedCases, deaths, recovered)
+ * and an optional disease name, COVID-19 by default. Each distinct country and disease is resolved
+ * once; the valid rows are then inserted by {@link DiseaseCaseBulkLoader} (COPY on PostgreSQL, JDBC
+ * batches elsewhere) in a single transaction, along with the daily rollup rows of their dates and countries.
+ * Invalid rows are reported and skipped, they do not fail the batch.
+ */
+@Service
+public class DiseaseCaseBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiseaseCaseBatchService.class);
+
+    private static final String DEFAULT_DISEASE = "COVID-19";
+
+    @Autowired
+    private DiseaseCaseService diseaseCaseService;
+
+    @Autowired
+    private DiseaseRepository diseaseRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private DiseaseCaseBulkLoader diseaseCaseBulkLoader;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private KpiCounterStore kpiCounterStore;
+
+    @Value("${disease-cases.batch.max-rows:50000}")
+    private int maxRows;
+
+    // A row that passed validation, before its country and disease are resolved
+    private record CaseInput(int index, LocalDate date, String country, String disease,
+                             Integer confirmedCases, Integer deaths, Integer recovered) {
+    }
+
+    /**
+     * Inserts the valid rows in one transaction.
+     *
+     * @param rows The cases, with the fields of the single-case endpoint.
+     * @return One result per row, in request order.
+     * @throws IllegalArgumentException if there are more rows than allowed.
+     * @throws PersistenceException     if the rows cannot be written; nothing is then inserted.
+     */
+    @Transactional(rollbackFor = PersistenceException.class)
+    @CacheEvict(cacheNames = {CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES, CacheConfig.DISEASES,
+            CacheConfig.LOCATIONS}, allEntries = true)
+    public List<DiseaseCaseWriteResult> addDiseaseCases(List<Map<String, Object>> rows) throws PersistenceException {
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("Trop de lignes : " + rows.size() + " (maximum " + maxRows + ")");
+        }
+        long start = System.currentTimeMillis();
+        DiseaseCaseWriteResult[] results = new DiseaseCaseWriteResult[rows.size()];
+
+        List<CaseInput> inputs = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                inputs.add(parse(i, rows.get(i)));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                results[i] = DiseaseCaseWriteResult.rejected(i, e.getMessage());
+            }
+        }
+
+        // Each distinct country and disease once
+        Set<String> countryNames = new LinkedHashSet<>();
+        Set<String> diseaseNames = new LinkedHashSet<>();
+        for (CaseInput input : inputs) {
+            countryNames.add(input.country());
+            diseaseNames.add(input.disease());
+        }
+        Map<String, Location> locations = new HashMap<>();
+        for (String countryName : countryNames) {
+            locations.put(countryName, diseaseCaseService.findOrCreateLocation(countryName));
+        }
+        Map<String, Disease> diseases = new HashMap<>();
+        for (String diseaseName : diseaseNames) {
+            Disease disease = diseaseRepository.findByName(diseaseName);
+            if (disease != null) {
+                diseases.put(diseaseName, disease);
+            }
+        }
+        // Locations created above must exist before the rows referencing them are inserted
+        locationRepository.flush();
+
+        List<DiseaseCase> diseaseCases = new ArrayList<>(inputs.size());
+        List<Integer> indexes = new ArrayList<>(inputs.size());
+        for (CaseInput input : inputs) {
+            Disease disease = diseases.get(input.disease());
+            if (disease == null) {
+                results[input.index()] = DiseaseCaseWriteResult.rejected(input.index(),
+                        "Maladie '" + input.disease() + "' non trouvée dans la base de données");
+                continue;
+            }
+            DiseaseCase diseaseCase = new DiseaseCase();
+            diseaseCase.setLocation(locations.get(input.country()));
+            diseaseCase.setDisease(disease);
+            diseaseCase.setDate(input.date());
+            diseaseCase.setConfirmedCases(input.confirmedCases());
+            diseaseCase.setDeaths(input.deaths());
+            diseaseCase.setRecovered(input.recovered());
+            diseaseCases.add(diseaseCase);
+            indexes.add(input.index());
+        }
+
+        diseaseCaseBulkLoader.insert(diseaseCases);
+
+        // A single refresh over the dates and countries of the batch
+        LocalDate from = null;
+        LocalDate to = null;
+        Set<Integer> countryIds = new HashSet<>();
+        for (int i = 0; i < diseaseCases.size(); i++) {
+            DiseaseCase diseaseCase = diseaseCases.get(i);
+            from = from == null || diseaseCase.getDate().isBefore(from) ? diseaseCase.getDate() : from;
+            to = to == null || diseaseCase.getDate().isAfter(to) ? diseaseCase.getDate() : to;
+            countryIds.add(DailyRollupService.countryIdOf(diseaseCase));
+            kpiCounterStore.add(diseaseCase);
+            results[indexes.get(i)] = DiseaseCaseWriteResult.inserted(indexes.get(i), diseaseCase.getId());
+        }
+        dailyRollupService.refresh(from, to, countryIds);
+
+        logger.info("Batch of {} disease cases: {} inserted in {} ms",
+                rows.size(), diseaseCases.size(), System.currentTimeMillis() - start);
+        return List.of(results);
+    }
+
+    private static CaseInput parse(int index, Map<String, Object> row) {
+        if (row == null) {
+            throw new IllegalArgumentException("Ligne vide");
+        }
+        Object date = required(row, "date");
+        Object country = required(row, "country");
+        Object disease = row.get("disease");
+        return new CaseInput(index, LocalDate.parse(date.toString()), country.toString().trim(),
+                disease != null ? disease.toString().trim() : DEFAULT_DISEASE,
+                count(row, "confirmedCases"), count(row, "deaths"), count(row, "recovered"));
+    }
+
+    private static Object required(Map<String, Object> row, String field) {
+        Object value = row.get(field);
+        if (value == null || value.toString().isBlank()) {
+            throw new IllegalArgumentException("Champ '" + field + "' manquant");
+        }
+        return value;
+    }
+
+    private static Integer count(Map<String, Object> row, String field) {
+        Object value = required(row, field);
+        int count;
+        try {
+            count = Integer.parseInt(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Champ '" + field + "' invalide : " + value);
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Champ '" + field + "' négatif : " + value);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,260 @@
+package mspr.backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import mspr.backend.dto.DiseaseCaseRow;
+
+/**
+ * Streams disease cases to an output stream as NDJSON or CSV.
+ * <p>
+ * Rows are read through a database cursor ({@code etl.export.fetch-size} rows at a time; on
+ * PostgreSQL this needs the read-only transaction opened here) and written as they come,
+ * so memory use does not depend on the number of rows exported.
+ */
+@Service
+public class DiseaseCaseExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiseaseCaseExportService.class);
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    /**
+     * Exportable fields, by their name in the output.
+     */
+    public enum Field {
+        ID("id", DiseaseCaseRow::id),
+        DATE("date", DiseaseCaseRow::date),
+        DISEASE("disease", DiseaseCaseRow::disease),
+        COUNTRY("country", DiseaseCaseRow::country),
+        REGION("region", DiseaseCaseRow::region),
+        LOCATION("location", DiseaseCaseRow::location),
+        CONFIRMED_CASES("confirmedCases", DiseaseCaseRow::confirmedCases),
+        DEATHS("deaths", DiseaseCaseRow::deaths),
+        RECOVERED("recovered", DiseaseCaseRow::recovered);
+
+        private final String fieldName;
+        private final Function<DiseaseCaseRow, Object> accessor;
+
+        Field(String fieldName, Function<DiseaseCaseRow, Object> accessor) {
+            this.fieldName = fieldName;
+            this.accessor = accessor;
+        }
+
+        public String getFieldName() {
+            return fieldName;
+        }
+
+        /**
+         * @return The fields with the given names, in the given order; all fields if none given.
+         * @throws IllegalArgumentException if a name is not a field.
+         */
+        public static List<Field> parse(List<String> names) {
+            if (names == null || names.isEmpty()) {
+                return Arrays.asList(values());
+            }
+            List<Field> fields = new ArrayList<>();
+            for (String name : names) {
+                fields.add(Arrays.stream(values())
+                        .filter(field -> field.fieldName.equalsIgnoreCase(name.trim()))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + name)));
+            }
+            return fields;
+        }
+    }
+
+    private static final String SELECT =
+            "SELECT dc.id, dc.date, d.name, c.name, r.name, l.name, dc.confirmed_case, dc.deaths, dc.recovered " +
+            "FROM disease_case dc " +
+            "LEFT JOIN disease d ON d.id = dc.disease_id " +
+            "JOIN location l ON l.id = dc.location_id " +
+            "LEFT JOIN region r ON r.id = l.region_id " +
+            "LEFT JOIN country c ON c.id = r.country_id ";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public DiseaseCaseExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                                    @Value("${etl.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Writes the disease cases matching the filters, ordered by id.
+     *
+     * @param start     First date included, or null.
+     * @param end       Last date included, or null.
+     * @param countries Country names, or null/empty for all countries.
+     * @param fields    Fields to write, in order.
+     * @param format    Output format.
+     * @param out       Destination, not closed.
+     * @return The number of rows written.
+     */
+    public long export(LocalDate start, LocalDate end, List<String> countries, List<Field> fields,
+                       Format format, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT).append("WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (start != null) {
+            sql.append(" AND dc.date >= ?");
+            params.add(Date.valueOf(start));
+        }
+        if (end != null) {
+            sql.append(" AND dc.date <= ?");
+            params.add(Date.valueOf(end));
+        }
+        if (countries != null && !countries.isEmpty()) {
+            sql.append(" AND c.name IN (").append(String.join(", ", countries.stream().map(c -> "?").toList())).append(")");
+            params.addAll(countries);
+        }
+        sql.append(" ORDER BY dc.id");
+
+        long startTime = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer, fields) : new NdjsonRowWriter(writer, fields);
+        long[] count = {0};
+        try {
+            rowWriter.writeHeader();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(sql.toString(), rs -> {
+                Date date = rs.getDate(2);
+                DiseaseCaseRow row = new DiseaseCaseRow(rs.getInt(1), date != null ? date.toLocalDate() : null,
+                        rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6),
+                        (Integer) rs.getObject(7), (Integer) rs.getObject(8), (Integer) rs.getObject(9));
+                try {
+                    rowWriter.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            }, params.toArray()));
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            // Client gone: stop reading the table
+            throw e.getCause();
+        }
+        logger.info("Exported {} disease cases as {} in {} ms", count[0], format.name().toLowerCase(Locale.ROOT),
+                System.currentTimeMillis() - startTime);
+        return count[0];
+    }
+
+    private interface RowWriter {
+        void writeHeader() throws IOException;
+
+        void write(DiseaseCaseRow row) throws IOException;
+    }
+
+    // One JSON object per line
+    private class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final List<Field> fields;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer, List<Field> fields) throws IOException {
+            this.writer = writer;
+            this.fields = fields;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void writeHeader() {
+        }
+
+        @Override
+        public void write(DiseaseCaseRow row) throws IOException {
+            generator.writeStartObject();
+            for (Field field : fields) {
+                Object value = field.accessor.apply(row);
+                generator.writeFieldName(field.fieldName);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Integer number) {
+                    generator.writeNumber(number);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final List<Field> fields;
+
+        CsvRowWriter(Writer writer, List<Field> fields) {
+            this.writer = writer;
+            this.fields = fields;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writeLine(fields.stream().map(Field::getFieldName).toList());
+        }
+
+        @Override
+        public void write(DiseaseCaseRow row) throws IOException {
+            List<String> values = new ArrayList<>(fields.size());
+            for (Field field : fields) {
+                Object value = field.accessor.apply(row);
+                values.add(value != null ? value.toString() : "");
+            }
+            writeLine(values);
+        }
+
+        private void writeLine(List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(values.get(i)));
+            }
+            writer.write('\n');
+        }
+
+        // Quoted when needed, quotes doubled (RFC 4180)
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
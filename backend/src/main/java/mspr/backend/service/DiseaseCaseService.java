@@ -1,20 +1,34 @@
 package mspr.backend.service;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import org.springframework.stereotype.Service;
 
+import mspr.backend.config.CacheConfig;
+import mspr.backend.dto.CursorPage;
+import mspr.backend.dto.DiseaseCaseRow;
+import mspr.backend.dto.TotalKpiDto;
+import mspr.backend.entity.Country;
 import mspr.backend.entity.DiseaseCase;
 import mspr.backend.entity.Disease;
 import mspr.backend.entity.Location;
+import mspr.backend.repository.DailyCountryRollupRepository;
 import mspr.backend.repository.DiseaseCaseRepository;
 import mspr.backend.repository.DiseaseRepository;
 import mspr.backend.repository.LocationRepository;
@@ -22,8 +36,17 @@ import mspr.backend.repository.LocationRepository;
 @Service
 public class DiseaseCaseService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DiseaseCaseService.class);
+
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
     @Autowired
     private DiseaseCaseRepository diseaseCaseRepository;
+
+    // Rows per page of the /cursor endpoint, larger sizes are capped
+    @Value("${pagination.cursor.max-size:1000}")
+    private int maxCursorSize;
     
     @Autowired
     private LocationRepository locationRepository;
@@ -31,86 +54,220 @@ public class DiseaseCaseService {
     @Autowired
     private DiseaseRepository diseaseRepository;
 
+    @Autowired
+    private DailyCountryRollupRepository dailyCountryRollupRepository;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private KpiCounterStore kpiCounterStore;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private LocationNameIndex locationNameIndex;
+
     public List<DiseaseCase> getAllDiseaseCases() {
         return diseaseCaseRepository.findAll();
     }
 
-    public Page<DiseaseCase> getAllDiseaseCases(int page, int size) {
+    @Cacheable(CacheConfig.DISEASE_CASES)
+    public Page<DiseaseCaseRow> getAllDiseaseCases(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return diseaseCaseRepository.findAll(pageable);
+        return diseaseCaseRepository.findAllRows(pageable);
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #getAllDiseaseCases(int, int)}, ordered by date then id:
+     * no OFFSET, and the total is only counted if asked for.
+     *
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    @Cacheable(CacheConfig.DISEASE_CASES)
+    public CursorPage<DiseaseCaseRow> getDiseaseCasesAfter(String cursor, int size, boolean withTotal) {
+        int limit = PageCursors.limit(size, maxCursorSize);
+        List<DiseaseCaseRow> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = diseaseCaseRepository.findFirstRowsByDateAndId(Limit.of(limit + 1));
+        } else {
+            PageCursors.DateAndId after = PageCursors.decodeDateAndId(cursor);
+            rows = diseaseCaseRepository.findRowsAfterDateAndId(after.date(), after.id(), Limit.of(limit + 1));
+        }
+        return PageCursors.page(rows, limit,
+                row -> PageCursors.encodeDateAndId(row.date(), row.id()),
+                withTotal ? diseaseCaseRepository::count : null);
     }
 
     public Optional<DiseaseCase> getDiseaseCaseById(Integer id) {
         return diseaseCaseRepository.findById(id);
     }
 
+    @Cacheable(CacheConfig.DISEASE_CASES)
+    public Optional<DiseaseCaseRow> getDiseaseCaseRowById(Integer id) {
+        return diseaseCaseRepository.findRowById(id);
+    }
+
+    // Totals are served from memory (see KpiCounterStore), the write methods below keep them up to date
+
+    public TotalKpiDto getKpi() {
+        return kpiCounterStore.getKpi();
+    }
+
+    /**
+     * KPI totals over a date window and a list of countries, read from the daily rollup.
+     * Without any filter, the in-memory totals are returned (and not cached).
+     */
+    @Cacheable(cacheNames = CacheConfig.DISEASE_CASE_AGGREGATES,
+            condition = "#start != null || #end != null || (#countries != null && !#countries.isEmpty())")
+    public TotalKpiDto getKpi(LocalDate start, LocalDate end, List<String> countries) {
+        boolean allCountries = countries == null || countries.isEmpty();
+        if (start == null && end == null && allCountries) {
+            return getKpi();
+        }
+        if (allCountries) {
+            return dailyCountryRollupRepository.getTotals(lowerBound(start), upperBound(end));
+        }
+        return dailyCountryRollupRepository.getTotalsForCountries(lowerBound(start), upperBound(end), countries);
+    }
+
+    @Cacheable(CacheConfig.DISEASE_CASE_AGGREGATES)
+    public Map<String, TotalKpiDto> getKpiByContinent(LocalDate start, LocalDate end) {
+        return toKpiMap(dailyCountryRollupRepository.getTotalsByContinent(lowerBound(start), upperBound(end)));
+    }
+
+    @Cacheable(CacheConfig.DISEASE_CASE_AGGREGATES)
+    public Map<String, TotalKpiDto> getKpiByWhoRegion(LocalDate start, LocalDate end) {
+        return toKpiMap(dailyCountryRollupRepository.getTotalsByWhoRegion(lowerBound(start), upperBound(end)));
+    }
+
+    // Rows of (group, confirmed, deaths, recovered), in query order
+    private static Map<String, TotalKpiDto> toKpiMap(List<Object[]> rows) {
+        Map<String, TotalKpiDto> kpis = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            kpis.put(row[0].toString(), new TotalKpiDto(((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue(), ((Number) row[3]).longValue()));
+        }
+        return kpis;
+    }
+
     public long sumCases() {
-        return diseaseCaseRepository.sumCases();
+        return kpiCounterStore.getKpi().getTotalCases();
     }
 
     public long sumDeaths() {
-        return diseaseCaseRepository.sumDeaths();
+        return kpiCounterStore.getKpi().getTotalDeaths();
     }
 
     public long sumRecovered() {
-        return diseaseCaseRepository.sumRecovered();
+        return kpiCounterStore.getKpi().getTotalRecovered();
     }
 
+    @Cacheable(CacheConfig.DISEASE_CASES)
     public Optional<DiseaseCase> getDiseaseCaseByName(String name) {
         return Optional.ofNullable(diseaseCaseRepository.findByName(name));
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES, CacheConfig.DISEASES,
+            CacheConfig.LOCATIONS}, allEntries = true)
     public DiseaseCase createDiseaseCase(DiseaseCase diseaseCase) {
-        return diseaseCaseRepository.save(diseaseCase);
+        DiseaseCase saved = diseaseCaseRepository.save(diseaseCase);
+        dailyRollupService.refresh(saved);
+        kpiCounterStore.add(saved);
+        return saved;
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES, CacheConfig.DISEASES,
+            CacheConfig.LOCATIONS}, allEntries = true)
     public DiseaseCase updateDiseaseCase(Integer id, DiseaseCase diseaseCase) {
-        if (diseaseCaseRepository.existsById(id)) {
+        Optional<DiseaseCase> existing = diseaseCaseRepository.findById(id);
+        if (existing.isPresent()) {
+            LocalDate previousDate = existing.get().getDate();
+            Integer previousCountryId = DailyRollupService.countryIdOf(existing.get());
+            // Read before save: the merge copies the new values onto the instance if it is still managed
+            Integer previousConfirmed = existing.get().getConfirmedCases();
+            Integer previousDeaths = existing.get().getDeaths();
+            Integer previousRecovered = existing.get().getRecovered();
             diseaseCase.setId(id);
-            return diseaseCaseRepository.save(diseaseCase);
+            // Not part of the API: an imported case stays keyed on its file, the next import of which updates it
+            diseaseCase.setSource(existing.get().getSource());
+            diseaseCase.setImportGeneration(existing.get().getImportGeneration());
+            DiseaseCase saved = diseaseCaseRepository.save(diseaseCase);
+            dailyRollupService.refresh(previousDate, previousCountryId);
+            dailyRollupService.refresh(saved);
+            kpiCounterStore.subtract(previousConfirmed, previousDeaths, previousRecovered);
+            kpiCounterStore.add(saved);
+            return saved;
         } else {
             return null;
         }
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES, CacheConfig.DISEASES,
+            CacheConfig.LOCATIONS}, allEntries = true)
     public void deleteDiseaseCase(Integer id) {
+        Optional<DiseaseCase> existing = diseaseCaseRepository.findById(id);
         diseaseCaseRepository.deleteById(id);
+        existing.ifPresent(dailyRollupService::refresh);
+        // Only counted if the row is really gone
+        if (existing.isPresent() && !diseaseCaseRepository.existsById(id)) {
+            kpiCounterStore.subtract(existing.get());
+        }
     }
     
 
+    // Aggregates are read from the daily rollup (see DailyRollupService) rather than from DiseaseCase
+
+    @Cacheable(CacheConfig.DISEASE_CASE_AGGREGATES)
     public List<Object[]> getAggregatedCasesByDateBetween(LocalDate start, LocalDate end) {
-        List<Object[]> all = diseaseCaseRepository.getAggregatedCasesByDate();
-        if (start == null && end == null)
-            return all;
-        List<Object[]> filtered = new ArrayList<>();
-        for (Object[] row : all) {
-            LocalDate date = (LocalDate) row[0];
-            boolean afterStart = (start == null) || !date.isBefore(start);
-            boolean beforeEnd = (end == null) || !date.isAfter(end);
-            if (afterStart && beforeEnd)
-                filtered.add(row);
-        }
-        return filtered;
+        return singleFlight.execute("aggregated-by-date-world", List.of(lowerBound(start), upperBound(end)),
+                () -> dailyCountryRollupRepository.getWorldByDate(lowerBound(start), upperBound(end)));
     }
 
     public List<Object[]> getAggregatedCasesByDateAndCountries(LocalDate start, LocalDate end, List<String> countries) {
-        List<Object[]> all;
+        return getAggregatedCasesByDateAndCountries(start, end, countries, null, null);
+    }
+
+    @Cacheable(CacheConfig.DISEASE_CASE_AGGREGATES)
+    public List<Object[]> getAggregatedCasesByDateAndCountries(LocalDate start, LocalDate end, List<String> countries,
+                                                              Country.ContinentEnum continent,
+                                                              Country.WHORegionEnum whoRegion) {
+        // Identical dashboard requests arriving together share one query
+        List<Object> key = Arrays.asList(lowerBound(start), upperBound(end), countries, continent, whoRegion);
         if (countries == null || countries.isEmpty()) {
-            all = diseaseCaseRepository.getAggregatedCasesByDateAllCountries();
-        } else {
-            all = diseaseCaseRepository.getAggregatedCasesByDateAndCountries(countries);
-        }
-        if (start == null && end == null) return all;
-        List<Object[]> filtered = new ArrayList<>();
-        for (Object[] row : all) {
-            LocalDate date = (LocalDate) row[0];
-            boolean afterStart = (start == null) || !date.isBefore(start);
-            boolean beforeEnd = (end == null) || !date.isAfter(end);
-            if (afterStart && beforeEnd) filtered.add(row);
+            return singleFlight.execute("aggregated-by-date", key,
+                    () -> dailyCountryRollupRepository.getByDateAllCountries(
+                            lowerBound(start), upperBound(end), continent, whoRegion));
         }
-        return filtered;
+        return singleFlight.execute("aggregated-by-date", key,
+                () -> dailyCountryRollupRepository.getByDateAndCountries(
+                        lowerBound(start), upperBound(end), countries, continent, whoRegion));
+    }
+
+    @Cacheable(CacheConfig.DISEASE_CASE_AGGREGATES)
+    public List<Object[]> getAggregatedCasesByDateAndContinent(LocalDate start, LocalDate end) {
+        return singleFlight.execute("aggregated-by-date-continent", List.of(lowerBound(start), upperBound(end)),
+                () -> dailyCountryRollupRepository.getByDateAndContinent(lowerBound(start), upperBound(end)));
+    }
+
+    @Cacheable(CacheConfig.DISEASE_CASE_AGGREGATES)
+    public List<Object[]> getAggregatedCasesByDateAndWhoRegion(LocalDate start, LocalDate end) {
+        return singleFlight.execute("aggregated-by-date-who-region", List.of(lowerBound(start), upperBound(end)),
+                () -> dailyCountryRollupRepository.getByDateAndWhoRegion(lowerBound(start), upperBound(end)));
+    }
+
+    // Open bounds are replaced by dates outside the data, so the query is always a range on date
+    private static LocalDate lowerBound(LocalDate start) {
+        return start != null ? start : MIN_DATE;
+    }
+
+    private static LocalDate upperBound(LocalDate end) {
+        return end != null ? end : MAX_DATE;
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES, CacheConfig.DISEASES,
+            CacheConfig.LOCATIONS}, allEntries = true)
     public DiseaseCase addDiseaseCaseForCountry(
             String countryName, 
             LocalDate date, 
@@ -118,32 +275,7 @@ public class DiseaseCaseService {
             Integer deaths, 
             Integer recovered) {
         
-        // Find location by name
-        List<Location> allLocations = locationRepository.findAll();
-        
-        // Find exact match first
-        Location location = locationRepository.findByName(countryName);
-        
-        // if not found, try to find a partial match
-        if (location == null) {
-            System.out.println("Aucune correspondance exacte pour: " + countryName);
-            for (Location loc : allLocations) {
-                if (loc.getName().toLowerCase().contains(countryName.toLowerCase()) || 
-                    countryName.toLowerCase().contains(loc.getName().toLowerCase())) {
-                    location = loc;
-                    System.out.println("Correspondance partielle trouvée: " + loc.getName());
-                    break;
-                }
-            }
-        }
-        
-        // create
-        if (location == null) {
-            System.out.println("Création d'un nouveau pays: " + countryName);
-            location = new Location();
-            location.setName(countryName);
-            location = locationRepository.save(location);
-        }
+        Location location = findOrCreateLocation(countryName);
         
         // get disease by name
         Disease disease = diseaseRepository.findByName("COVID-19");
@@ -160,11 +292,46 @@ public class DiseaseCaseService {
         newCase.setDeaths(deaths);
         newCase.setRecovered(recovered);
         
-        return diseaseCaseRepository.save(newCase);
+        DiseaseCase saved = diseaseCaseRepository.save(newCase);
+        dailyRollupService.refresh(saved);
+        kpiCounterStore.add(saved);
+        return saved;
+    }
+
+    /**
+     * Location typed by the user: resolved through the name index (see {@link LocationNameIndex}),
+     * created if nothing matches. Also used by {@link DiseaseCaseBatchService}.
+     */
+    public Location findOrCreateLocation(String countryName) {
+        Optional<Integer> locationId = locationNameIndex.resolve(countryName);
+        if (locationId.isPresent()) {
+            Optional<Location> location = locationRepository.findById(locationId.get());
+            if (location.isPresent()) {
+                logger.debug("Correspondance trouvée pour {}: {}", countryName, location.get().getName());
+                return location.get();
+            }
+            // Deleted since indexed (cascade from its country or region)
+            locationNameIndex.remove(locationId.get());
+            return findOrCreateLocation(countryName);
+        }
+        // Written outside the services since the index was built?
+        Location location = locationRepository.findByName(countryName);
+        if (location != null) {
+            locationNameIndex.put(location);
+            return location;
+        }
+        logger.debug("Création d'un nouveau pays: {}", countryName);
+        location = new Location();
+        location.setName(countryName);
+        location = locationRepository.save(location);
+        locationNameIndex.put(location);
+        return location;
     }
 
     /* update  */
     
+    @CacheEvict(cacheNames = {CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES, CacheConfig.DISEASES,
+            CacheConfig.LOCATIONS}, allEntries = true)
     public DiseaseCase updateDiseaseCaseWithDetails(
             Integer id,
             String countryName,
@@ -180,40 +347,17 @@ public class DiseaseCaseService {
         }
         
         DiseaseCase existingCase = existingCaseOpt.get();
+        // Le cas peut changer de jour ou de pays : l'ancienne ligne du rollup est aussi recalculée
+        LocalDate previousDate = existingCase.getDate();
+        Integer previousCountryId = DailyRollupService.countryIdOf(existingCase);
+        Integer previousConfirmed = existingCase.getConfirmedCases();
+        Integer previousDeaths = existingCase.getDeaths();
+        Integer previousRecovered = existingCase.getRecovered();
         
         // Si le pays a changé, trouver le nouveau pays
         if (!existingCase.getLocation().getName().equals(countryName)) {
-            // Utiliser la même logique que pour l'ajout pour trouver/créer le pays
-            List<Location> allLocations = locationRepository.findAll();
-            
-            // Debug log
-            System.out.println("Mise à jour - Recherche du pays: " + countryName);
-            
-            // Tenter de trouver une correspondance exacte
-            Location location = locationRepository.findByName(countryName);
-            
-            // Si aucune correspondance exacte, essayer de trouver une correspondance partielle
-            if (location == null) {
-                System.out.println("Mise à jour - Aucune correspondance exacte pour: " + countryName);
-                for (Location loc : allLocations) {
-                    if (loc.getName().toLowerCase().contains(countryName.toLowerCase()) || 
-                        countryName.toLowerCase().contains(loc.getName().toLowerCase())) {
-                        location = loc;
-                        System.out.println("Mise à jour - Correspondance partielle trouvée: " + loc.getName());
-                        break;
-                    }
-                }
-            }
-            
-            // Si toujours aucune correspondance, créer le pays
-            if (location == null) {
-                System.out.println("Mise à jour - Création d'un nouveau pays: " + countryName);
-                location = new Location();
-                location.setName(countryName);
-                location = locationRepository.save(location);
-            }
-            
-            existingCase.setLocation(location);
+            // Même résolution que pour l'ajout : trouver ou créer le pays
+            existingCase.setLocation(findOrCreateLocation(countryName));
         }
         
         // Mettre à jour les autres champs
@@ -223,10 +367,17 @@ public class DiseaseCaseService {
         existingCase.setRecovered(recovered);
         
         // Sauvegarder et retourner le cas mis à jour
-        return diseaseCaseRepository.save(existingCase);
+        DiseaseCase saved = diseaseCaseRepository.save(existingCase);
+        dailyRollupService.refresh(previousDate, previousCountryId);
+        dailyRollupService.refresh(saved);
+        kpiCounterStore.subtract(previousConfirmed, previousDeaths, previousRecovered);
+        kpiCounterStore.add(saved);
+        return saved;
     }
 
     /* delete last */
+    @CacheEvict(cacheNames = {CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES, CacheConfig.DISEASES,
+            CacheConfig.LOCATIONS}, allEntries = true)
     public boolean deleteLatestCaseForCountry(String countryName) {
         // find the latest case for the country
         List<DiseaseCase> cases = diseaseCaseRepository.findByLocationNameOrderByDateDesc(countryName);
@@ -237,7 +388,12 @@ public class DiseaseCaseService {
         }
         
         // delete the latest case
-        diseaseCaseRepository.delete(cases.get(0));
+        DiseaseCase latest = cases.get(0);
+        diseaseCaseRepository.delete(latest);
+        dailyRollupService.refresh(latest);
+        if (!diseaseCaseRepository.existsById(latest.getId())) {
+            kpiCounterStore.subtract(latest);
+        }
         return true;
     }
 }
@@ -1,9 +1,17 @@
 package mspr.backend.service;
 
+import mspr.backend.config.CacheConfig;
+import mspr.backend.dto.DiseaseCaseRow;
 import mspr.backend.entity.Disease;
+import mspr.backend.repository.DiseaseCaseRepository;
 import mspr.backend.repository.DiseaseRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,23 +23,54 @@ public class DiseaseService {
     @Autowired
     private DiseaseRepository diseaseRepository;
 
+    @Autowired
+    private DiseaseCaseRepository diseaseCaseRepository;
+
+    // Same cap as the /cursor endpoints
+    @Value("${pagination.cursor.max-size:1000}")
+    private int maxPageSize;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private KpiCounterStore kpiCounterStore;
+
+    // Diseases are returned without their cases, listed by getDiseaseCases
+
+    @Cacheable(CacheConfig.DISEASES)
     public List<Disease> getAllDiseases() {
         return diseaseRepository.findAll();
     }
 
+    @Cacheable(CacheConfig.DISEASES)
     public Optional<Disease> getDiseaseById(Integer id) {
         return diseaseRepository.findById(id);
     }
 
+    @Cacheable(CacheConfig.DISEASES)
     public Disease getDiseaseByName(String name) {
         return diseaseRepository.findByName(name);
     }
 
+    /**
+     * @return A page of the cases of the disease, by date then id.
+     * @throws IllegalArgumentException if the page size is less than 1 (larger sizes are capped).
+     */
+    @Cacheable(CacheConfig.DISEASE_CASES)
+    public Page<DiseaseCaseRow> getDiseaseCases(Integer id, int page, int size) {
+        return diseaseCaseRepository.findRowsByDiseaseId(id, PageRequest.of(page, PageCursors.limit(size, maxPageSize)));
+    }
+
 
+    @CacheEvict(cacheNames = {CacheConfig.DISEASES, CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES},
+            allEntries = true)
     public Disease createDisease(Disease disease) {
         return diseaseRepository.save(disease);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.DISEASES, CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES},
+            allEntries = true)
     public Disease updateDisease(Integer id, Disease disease) {
         if (diseaseRepository.existsById(id)) {
             disease.setId(id);
@@ -41,8 +80,13 @@ public class DiseaseService {
         }
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.DISEASES, CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES},
+            allEntries = true)
     public void deleteDisease(Integer id) {
         diseaseRepository.deleteById(id);
+        // The cases of the disease are deleted with it (cascade); they can belong to any country
+        dailyRollupService.rebuild();
+        kpiCounterStore.rebuild();
     }
     
 }
@@ -0,0 +1,158 @@
+package mspr.backend.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import mspr.backend.dto.TotalKpiDto;
+import mspr.backend.entity.DiseaseCase;
+import mspr.backend.repository.DiseaseCaseRepository;
+
+/**
+ * In-memory totals of confirmed cases, deaths and recovered, served by the KPI endpoint
+ * without querying the database.
+ * <p>
+ * The totals are rebuilt from the database at the end of each import, adjusted by the
+ * write methods of {@link DiseaseCaseService}, and periodically reconciled with the
+ * database to correct any drift (writes made outside the service, concurrent rebuilds).
+ * Adjustments made inside a transaction are applied once it commits, and not at all if it
+ * rolls back.
+ */
+@Service
+public class KpiCounterStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(KpiCounterStore.class);
+
+    /**
+     * Immutable snapshot: the three totals always change together.
+     */
+    private record Totals(long cases, long deaths, long recovered) {
+        Totals plus(long cases, long deaths, long recovered) {
+            return new Totals(this.cases + cases, this.deaths + deaths, this.recovered + recovered);
+        }
+    }
+
+    @Autowired
+    private DiseaseCaseRepository diseaseCaseRepository;
+
+    // null until first read or rebuild
+    private final AtomicReference<Totals> totals = new AtomicReference<>();
+
+    /**
+     * @return The current totals, loaded from the database on first call.
+     */
+    public TotalKpiDto getKpi() {
+        Totals current = totals.get();
+        if (current == null) {
+            current = reload();
+        }
+        return new TotalKpiDto(current.cases(), current.deaths(), current.recovered());
+    }
+
+    /**
+     * Replaces the totals with the sums read from the database.
+     */
+    public void rebuild() {
+        reload();
+    }
+
+    private Totals reload() {
+        Totals before = totals.get();
+        Totals loaded = replace(before, load());
+        logger.info("KPI counters rebuilt: {} cases, {} deaths, {} recovered",
+                loaded.cases(), loaded.deaths(), loaded.recovered());
+        return loaded;
+    }
+
+    /**
+     * Replaces the totals with the loaded ones, keeping the adjustments made since {@code before}
+     * was read: a write committed while the sums were being read is then not lost (it may be counted
+     * twice if the read already saw it, until the next reconciliation).
+     */
+    private Totals replace(Totals before, Totals loaded) {
+        return totals.updateAndGet(current -> before == null || current == null
+                ? loaded
+                : loaded.plus(current.cases() - before.cases(), current.deaths() - before.deaths(),
+                        current.recovered() - before.recovered()));
+    }
+
+    /**
+     * Compares the totals with the database and corrects them if they drifted.
+     */
+    @Scheduled(initialDelayString = "${kpi.counters.reconcile-interval:PT5M}",
+            fixedDelayString = "${kpi.counters.reconcile-interval:PT5M}")
+    public void reconcile() {
+        Totals before = totals.get();
+        if (before == null) {
+            return; // Nothing served yet, the first read loads them
+        }
+        Totals loaded = load();
+        // Only compared when no write was counted during the read, which would make the difference expected
+        if (totals.get() == before && !loaded.equals(before)) {
+            logger.warn("KPI counters drifted from the database ({} instead of {}), corrected", before, loaded);
+        }
+        replace(before, loaded);
+    }
+
+    /**
+     * Adds a newly stored case to the totals.
+     */
+    public void add(DiseaseCase diseaseCase) {
+        adjust(diseaseCase, 1);
+    }
+
+    /**
+     * Removes a deleted case, or the previous values of an updated case, from the totals.
+     */
+    public void subtract(DiseaseCase diseaseCase) {
+        adjust(diseaseCase, -1);
+    }
+
+    /**
+     * Removes previous values from the totals (update of a case modified in place).
+     */
+    public void subtract(Integer confirmedCases, Integer deaths, Integer recovered) {
+        adjust(-valueOf(confirmedCases), -valueOf(deaths), -valueOf(recovered));
+    }
+
+    private void adjust(DiseaseCase diseaseCase, int sign) {
+        if (diseaseCase != null) {
+            adjust(sign * valueOf(diseaseCase.getConfirmedCases()), sign * valueOf(diseaseCase.getDeaths()),
+                    sign * valueOf(diseaseCase.getRecovered()));
+        }
+    }
+
+    private void adjust(long cases, long deaths, long recovered) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Counted once the change is visible in the database, and never if it is rolled back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(cases, deaths, recovered);
+                }
+            });
+        } else {
+            apply(cases, deaths, recovered);
+        }
+    }
+
+    private void apply(long cases, long deaths, long recovered) {
+        // Not loaded yet: the first read will include this change
+        totals.updateAndGet(current -> current == null ? null : current.plus(cases, deaths, recovered));
+    }
+
+    private Totals load() {
+        TotalKpiDto loaded = diseaseCaseRepository.getTotals();
+        return new Totals(loaded.getTotalCases(), loaded.getTotalDeaths(), loaded.getTotalRecovered());
+    }
+
+    private static long valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,254 @@
+package mspr.backend.service;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import mspr.backend.entity.Location;
+import mspr.backend.etl.helpers.CleanerHelper;
+import mspr.backend.repository.LocationRepository;
+
+/**
+ * In-memory index of location names, used by the single-case writes of {@link DiseaseCaseService}
+ * to resolve the country typed by the user without loading and scanning every location.
+ * <p>
+ * A name is resolved, in this order, by exact match, case-insensitive match, country alias
+ * (see {@link CleanerHelper#getCountryNameAliases}, case-insensitive) and finally substring match in either direction,
+ * as the former linear scan did. Substrings are found through an index of the names' trigrams.
+ * When several locations match, the lowest id wins.
+ * <p>
+ * The index is built on first use from the ids and names only, kept up to date by the location
+ * writes of the services, and dropped after each import. It only returns ids: the caller loads the
+ * location and must tolerate an id deleted behind the index's back (cascade from a country or region).
+ */
+@Service
+public class LocationNameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationNameIndex.class);
+
+    private static final int GRAM = 3;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private CleanerHelper cleanerHelper;
+
+    // null until first lookup, or after an invalidation
+    private final AtomicReference<Index> index = new AtomicReference<>();
+
+    // CleanerHelper's country synonyms, keyed by folded alias
+    private volatile Map<String, String> aliases;
+
+    /**
+     * @return The id of the location matching the given name, if any.
+     */
+    public Optional<Integer> resolve(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        Index current = current();
+        String alias = aliases().getOrDefault(fold(name), name);
+        Integer id = current.exact(name);
+        if (id == null) {
+            id = current.exact(alias);
+        }
+        if (id == null) {
+            id = current.substring(fold(name));
+        }
+        if (id == null) {
+            id = current.substring(fold(alias));
+        }
+        return Optional.ofNullable(id);
+    }
+
+    /**
+     * Adds or renames a location.
+     */
+    public void put(Location location) {
+        Index current = index.get();
+        if (current != null && location != null && location.getId() != null) {
+            current.remove(location.getId());
+            current.add(location.getId(), location.getName());
+        }
+    }
+
+    public void remove(Integer id) {
+        Index current = index.get();
+        if (current != null && id != null) {
+            current.remove(id);
+        }
+    }
+
+    /**
+     * Drops the index, rebuilt on next lookup (after an import).
+     */
+    public void invalidate() {
+        index.set(null);
+    }
+
+    private Index current() {
+        Index current = index.get();
+        if (current != null) {
+            return current;
+        }
+        long start = System.currentTimeMillis();
+        Index loaded = new Index();
+        for (Object[] row : locationRepository.findAllIdsAndNames()) {
+            loaded.add((Integer) row[0], (String) row[1]);
+        }
+        if (!index.compareAndSet(null, loaded)) {
+            return current(); // Built concurrently
+        }
+        logger.info("Location name index built: {} locations in {} ms",
+                loaded.names.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    private Map<String, String> aliases() {
+        Map<String, String> folded = aliases;
+        if (folded == null) {
+            folded = new HashMap<>();
+            for (Map.Entry<String, String> alias : cleanerHelper.getCountryNameAliases().entrySet()) {
+                folded.put(fold(alias.getKey()), alias.getValue());
+            }
+            aliases = folded;
+        }
+        return folded;
+    }
+
+    private static String fold(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The maps, all from a key to the ids of the locations having it (lowest first).
+     */
+    private static final class Index {
+        private final Map<Integer, String> names = new ConcurrentHashMap<>();
+        private final Map<Integer, String> foldedNames = new ConcurrentHashMap<>();
+        private final Map<String, NavigableSet<Integer>> byName = new ConcurrentHashMap<>();
+        private final Map<String, NavigableSet<Integer>> byFoldedName = new ConcurrentHashMap<>();
+        private final Map<String, NavigableSet<Integer>> byGram = new ConcurrentHashMap<>();
+
+        void add(Integer id, String name) {
+            if (name == null) {
+                return;
+            }
+            String folded = fold(name);
+            names.put(id, name);
+            foldedNames.put(id, folded);
+            addTo(byName, name, id);
+            addTo(byFoldedName, folded, id);
+            for (int i = 0; i + GRAM <= folded.length(); i++) {
+                addTo(byGram, folded.substring(i, i + GRAM), id);
+            }
+        }
+
+        void remove(Integer id) {
+            String name = names.remove(id);
+            String folded = foldedNames.remove(id);
+            if (name == null || folded == null) {
+                return;
+            }
+            removeFrom(byName, name, id);
+            removeFrom(byFoldedName, folded, id);
+            for (int i = 0; i + GRAM <= folded.length(); i++) {
+                removeFrom(byGram, folded.substring(i, i + GRAM), id);
+            }
+        }
+
+        Integer exact(String name) {
+            Integer id = first(byName.get(name));
+            return id != null ? id : first(byFoldedName.get(fold(name)));
+        }
+
+        /**
+         * Lowest id of the locations whose name contains, or is contained in, the folded query.
+         */
+        Integer substring(String query) {
+            if (query.isEmpty()) {
+                return null;
+            }
+            Integer best = null;
+            // Names contained in the query: look up each of its substrings, O(length²)
+            for (int from = 0; from < query.length(); from++) {
+                for (int to = from + 1; to <= query.length(); to++) {
+                    best = min(best, first(byFoldedName.get(query.substring(from, to))));
+                }
+            }
+            // Names containing the query
+            if (query.length() < GRAM) {
+                // Too short to use the trigrams, rare enough to scan
+                for (Map.Entry<Integer, String> entry : foldedNames.entrySet()) {
+                    if (entry.getValue().contains(query)) {
+                        best = min(best, entry.getKey());
+                    }
+                }
+                return best;
+            }
+            // Candidates share the query's rarest trigram, lowest ids first
+            NavigableSet<Integer> candidates = rarestGramPostings(query);
+            if (candidates != null) {
+                for (Integer id : candidates) {
+                    if (best != null && id > best) {
+                        break;
+                    }
+                    String folded = foldedNames.get(id);
+                    if (folded != null && folded.contains(query)) {
+                        return id;
+                    }
+                }
+            }
+            return best;
+        }
+
+        // null if one of the query's trigrams appears in no name
+        private NavigableSet<Integer> rarestGramPostings(String query) {
+            NavigableSet<Integer> rarest = null;
+            for (int i = 0; i + GRAM <= query.length(); i++) {
+                NavigableSet<Integer> postings = byGram.get(query.substring(i, i + GRAM));
+                if (postings == null || postings.isEmpty()) {
+                    return null;
+                }
+                if (rarest == null || postings.size() < rarest.size()) {
+                    rarest = postings;
+                }
+            }
+            return rarest;
+        }
+
+        private static void addTo(Map<String, NavigableSet<Integer>> map, String key, Integer id) {
+            map.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(id);
+        }
+
+        private static void removeFrom(Map<String, NavigableSet<Integer>> map, String key, Integer id) {
+            NavigableSet<Integer> ids = map.get(key);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+
+        private static Integer first(NavigableSet<Integer> ids) {
+            // ceiling rather than first(), which throws if the set was emptied concurrently
+            return ids != null ? ids.ceiling(Integer.MIN_VALUE) : null;
+        }
+
+        private static Integer min(Integer a, Integer b) {
+            if (a == null) {
+                return b;
+            }
+            return b == null ? a : Math.min(a, b);
+        }
+    }
+}
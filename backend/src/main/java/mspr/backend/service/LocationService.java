@@ -1,11 +1,17 @@
 package mspr.backend.service;
 
-
+import java.util.Arrays;
+import java.util.List;
 
 import org.springframework.data.domain.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import mspr.backend.config.CacheConfig;
+import mspr.backend.dto.CursorPage;
 import mspr.backend.entity.Location;
 import mspr.backend.repository.LocationRepository;
 
@@ -15,34 +21,90 @@ public class LocationService {
     @Autowired
     private LocationRepository locationRepository;
 
+    // Rows per page of the /cursor endpoint, larger sizes are capped
+    @Value("${pagination.cursor.max-size:1000}")
+    private int maxCursorSize;
+
+    @Autowired
+    private LocationNameIndex locationNameIndex;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private KpiCounterStore kpiCounterStore;
+
+    @Cacheable(CacheConfig.LOCATIONS)
     public Page<Location> getAllLocations(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return locationRepository.findAll(pageable);
     }
 
+    /**
+     * Keyset-paginated variant of {@link #getAllLocations}: no OFFSET, and the total is only counted if asked for.
+     *
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    @Cacheable(CacheConfig.LOCATIONS)
+    public CursorPage<Location> getLocationsAfter(String cursor, int size, boolean withTotal) {
+        int limit = PageCursors.limit(size, maxCursorSize);
+        List<Location> rows = locationRepository
+                .findByIdGreaterThanOrderByIdAsc(PageCursors.decodeId(cursor), Limit.of(limit + 1));
+        return PageCursors.page(rows, limit, location -> PageCursors.encodeId(location.getId()),
+                withTotal ? locationRepository::count : null);
+    }
+
+    @Cacheable(CacheConfig.LOCATIONS)
     public Location getLocationById(Integer id) {
         return locationRepository.findById(id).orElse(null);
     }
 
+    @Cacheable(CacheConfig.LOCATIONS)
     public Location getLocationByName(String name) {
         return locationRepository.findByName(name);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.LOCATIONS, CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES},
+            allEntries = true)
     public Location createLocation(Location location) {
-        return locationRepository.save(location);
+        Location saved = locationRepository.save(location);
+        locationNameIndex.put(saved);
+        return saved;
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.LOCATIONS, CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES},
+            allEntries = true)
     public Location updateLocation(Integer id, Location location) {
         if (locationRepository.existsById(id)) {
+            Integer previousCountryId = countryIdOf(id);
             location.setId(id);
-            return locationRepository.save(location);
+            Location saved = locationRepository.save(location);
+            locationNameIndex.put(saved);
+            // The cases of the location move to another country if its region changed
+            dailyRollupService.refresh(Arrays.asList(previousCountryId, countryIdOf(id)));
+            return saved;
         } else {
             return null;
         }
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.LOCATIONS, CacheConfig.DISEASE_CASES, CacheConfig.DISEASE_CASE_AGGREGATES},
+            allEntries = true)
     public void deleteLocation(Integer id) {
+        Integer countryId = countryIdOf(id);
         locationRepository.deleteById(id);
+        locationNameIndex.remove(id);
+        // The cases of the location are deleted with it (cascade)
+        dailyRollupService.refresh(Arrays.asList(countryId));
+        kpiCounterStore.rebuild();
+    }
+
+    private Integer countryIdOf(Integer locationId) {
+        return locationRepository.findById(locationId)
+                .map(Location::getRegion)
+                .map(region -> region.getCountry())
+                .map(country -> country.getId())
+                .orElse(null);
     }
 
 
@@ -0,0 +1,96 @@
+package mspr.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import mspr.backend.dto.CursorPage;
+
+/**
+ * Opaque continuation tokens of the keyset-paginated lists: the sort key of the last row
+ * returned (its id, or its date and id), URL-safe Base64 encoded.
+ */
+final class PageCursors {
+
+    private PageCursors() {
+    }
+
+    static String encodeId(Integer id) {
+        return encode(String.valueOf(id));
+    }
+
+    /**
+     * @return The id of the cursor, or 0 (before the first id) if there is none.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    static Integer decodeId(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.valueOf(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    static String encodeDateAndId(LocalDate date, Integer id) {
+        return encode(date + "|" + id);
+    }
+
+    /**
+     * @return The date and id of the cursor.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    static DateAndId decodeDateAndId(String cursor) {
+        String value = decode(cursor);
+        int separator = value.indexOf('|');
+        try {
+            return new DateAndId(LocalDate.parse(value.substring(0, Math.max(separator, 0))),
+                    Integer.valueOf(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    record DateAndId(LocalDate date, Integer id) {
+    }
+
+    /**
+     * @return The requested page size, capped at {@code maxSize}.
+     * @throws IllegalArgumentException if the size is less than 1.
+     */
+    static int limit(int size, int maxSize) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Invalid page size: " + size);
+        }
+        return Math.min(size, maxSize);
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of size + 1: the extra row only tells
+     * that there is a next page.
+     */
+    static <T> CursorPage<T> page(List<T> rows, int size, Function<T, String> cursorOf, Supplier<Long> total) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPage<>(List.copyOf(content), size, nextCursor, total != null ? total.get() : null);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package mspr.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Clears the read endpoints' result cache (see CacheConfig) when the data changes outside
+ * of the services' write methods, i.e. after an import.
+ */
+@Service
+public class QueryCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCacheService.class);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public void evictAll() {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        logger.info("Query result cache cleared");
+    }
+}
@@ -1,12 +1,19 @@
 package mspr.backend.service;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 
 
+import mspr.backend.config.CacheConfig;
+import mspr.backend.dto.CursorPage;
 import mspr.backend.entity.Region;
 import mspr.backend.repository.RegionRepository;
 
@@ -16,34 +23,82 @@ public class RegionService {
     @Autowired
     private RegionRepository regionRepository;
 
+    // Rows per page of the /cursor endpoint, larger sizes are capped
+    @Value("${pagination.cursor.max-size:1000}")
+    private int maxCursorSize;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private KpiCounterStore kpiCounterStore;
+
+    @Cacheable(CacheConfig.REGIONS)
     public Page<Region> getAllRegions(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return regionRepository.findAll(pageable);
     }
 
+    /**
+     * Keyset-paginated variant of {@link #getAllRegions}: no OFFSET, and the total is only counted if asked for.
+     *
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    @Cacheable(CacheConfig.REGIONS)
+    public CursorPage<Region> getRegionsAfter(String cursor, int size, boolean withTotal) {
+        int limit = PageCursors.limit(size, maxCursorSize);
+        List<Region> rows = regionRepository
+                .findByIdGreaterThanOrderByIdAsc(PageCursors.decodeId(cursor), Limit.of(limit + 1));
+        return PageCursors.page(rows, limit, region -> PageCursors.encodeId(region.getId()),
+                withTotal ? regionRepository::count : null);
+    }
+
+    @Cacheable(CacheConfig.REGIONS)
     public Optional<Region> getRegionById(Integer id) {
         return regionRepository.findById(id);
     }
     
+    @Cacheable(CacheConfig.REGIONS)
     public Region getRegionByName(String name) {
         return regionRepository.findByName(name);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.REGIONS, CacheConfig.LOCATIONS, CacheConfig.DISEASE_CASES,
+            CacheConfig.DISEASE_CASE_AGGREGATES}, allEntries = true)
     public Region createRegion(Region region) {
         return regionRepository.save(region);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.REGIONS, CacheConfig.LOCATIONS, CacheConfig.DISEASE_CASES,
+            CacheConfig.DISEASE_CASE_AGGREGATES}, allEntries = true)
     public Region updateRegion(Integer id, Region region) {
         if (regionRepository.existsById(id)) {
+            Integer previousCountryId = countryIdOf(id);
             region.setId(id);
-            return regionRepository.save(region);
+            Region saved = regionRepository.save(region);
+            // The cases of the region move to another country if its country changed
+            dailyRollupService.refresh(Arrays.asList(previousCountryId, countryIdOf(id)));
+            return saved;
         } else {
             return null;
         }
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.REGIONS, CacheConfig.LOCATIONS, CacheConfig.DISEASE_CASES,
+            CacheConfig.DISEASE_CASE_AGGREGATES}, allEntries = true)
     public void deleteRegion(Integer id) {
+        Integer countryId = countryIdOf(id);
         regionRepository.deleteById(id);
+        // The locations and cases of the region are deleted with it (cascade)
+        dailyRollupService.refresh(Arrays.asList(countryId));
+        kpiCounterStore.rebuild();
+    }
+
+    private Integer countryIdOf(Integer regionId) {
+        return regionRepository.findById(regionId)
+                .map(Region::getCountry)
+                .map(country -> country.getId())
+                .orElse(null);
     }
 
 
@@ -0,0 +1,91 @@
+package mspr.backend.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Collapses concurrent identical computations: the first caller of a key (the leader) runs it,
+ * the callers arriving while it runs (followers) wait for and share its result.
+ * Nothing is kept once the computation ends, see the result cache for that.
+ * <p>
+ * Each call is counted in {@code api.singleflight.calls} by name and role (leader or follower);
+ * the collapse ratio is followers / (leaders + followers).
+ */
+@Component
+public class SingleFlight {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the computation, or waits for the identical one already running.
+     *
+     * @param name        Name of the computation, for the metrics; part of the key.
+     * @param key         Parameters identifying identical computations (equals/hashCode).
+     * @param computation The computation.
+     * @return Its result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, Object key, Supplier<T> computation) {
+        FlightKey flightKey = new FlightKey(name, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            counter(name, "follower").increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        counter(name, "leader").increment();
+        try {
+            T result = computation.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private Counter counter(String name, String role) {
+        return Counter.builder("api.singleflight.calls")
+                .description("Calls of collapsed computations; followers reused the result of a running leader")
+                .tag("name", name)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    // The leader's exception, rethrown in each follower
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return e;
+    }
+
+    private record FlightKey(String name, Object key) {
+    }
+}
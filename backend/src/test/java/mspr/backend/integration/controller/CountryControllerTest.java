@@ -1,5 +1,6 @@
 package mspr.backend.integration.controller;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -168,4 +169,47 @@ public class CountryControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNull(response.getBody());
     }
+
+    @Test
+    @DisplayName("should walk through all countries with cursor pagination")
+    public void testGetCountriesByCursor() {
+        // Arrange
+        createTestCountry("France");
+        createTestCountry("Germany");
+        createTestCountry("Italy");
+
+        // Action
+        Map<?, ?> firstPage = restTemplate.getForObject(baseUrl + "/cursor?size=2&withTotal=true", Map.class);
+        Map<?, ?> lastPage = restTemplate.getForObject(
+                baseUrl + "/cursor?size=2&cursor=" + firstPage.get("nextCursor"), Map.class);
+        ResponseEntity<String> invalid = restTemplate.getForEntity(baseUrl + "/cursor?cursor=not-a-cursor", String.class);
+
+        // Assertion
+        assertEquals(2, ((List<?>) firstPage.get("content")).size());
+        assertEquals("France", ((Map<?, ?>) ((List<?>) firstPage.get("content")).get(0)).get("name"));
+        assertEquals(3, firstPage.get("totalElements"));
+        assertEquals(1, ((List<?>) lastPage.get("content")).size());
+        assertEquals("Italy", ((Map<?, ?>) ((List<?>) lastPage.get("content")).get(0)).get("name"));
+        assertNull(lastPage.get("nextCursor"));
+        assertNull(lastPage.get("totalElements"));
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("should cap the cursor page size and refuse sizes below 1")
+    public void testCursorPageSizeBounds() {
+        // Arrange
+        createTestCountry("France");
+
+        // Action
+        Map<?, ?> capped = restTemplate.getForObject(baseUrl + "/cursor?size=1000000", Map.class);
+        ResponseEntity<String> zero = restTemplate.getForEntity(baseUrl + "/cursor?size=0", String.class);
+        ResponseEntity<String> negative = restTemplate.getForEntity(baseUrl + "/cursor?size=-5", String.class);
+
+        // Assertion
+        assertEquals(1000, capped.get("size"));
+        assertEquals(1, ((List<?>) capped.get("content")).size());
+        assertEquals(HttpStatus.BAD_REQUEST, zero.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, negative.getStatusCode());
+    }
 }
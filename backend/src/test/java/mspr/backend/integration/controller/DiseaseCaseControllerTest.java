@@ -0,0 +1,461 @@
+package mspr.backend.integration.controller;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import mspr.backend.entity.Country;
+import mspr.backend.entity.Disease;
+import mspr.backend.entity.DiseaseCase;
+import mspr.backend.entity.Location;
+import mspr.backend.entity.Region;
+import mspr.backend.etl.helpers.ImportMode;
+import mspr.backend.etl.helpers.ImportProgress;
+import mspr.backend.repository.CountryRepository;
+import mspr.backend.repository.DailyCountryRollupRepository;
+import mspr.backend.repository.DiseaseCaseRepository;
+import mspr.backend.repository.DiseaseRepository;
+import mspr.backend.repository.LocationRepository;
+import mspr.backend.repository.RegionRepository;
+import mspr.backend.service.DailyRollupService;
+import mspr.backend.service.KpiCounterStore;
+import mspr.backend.service.LocationNameIndex;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class DiseaseCaseControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private DiseaseCaseRepository diseaseCaseRepository;
+
+    @Autowired
+    private DiseaseRepository diseaseRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private DailyCountryRollupRepository dailyCountryRollupRepository;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private KpiCounterStore kpiCounterStore;
+
+    @Autowired
+    private LocationNameIndex locationNameIndex;
+
+    @Autowired
+    private ImportProgress importProgress;
+
+    private String baseUrl;
+
+    @BeforeEach
+    public void setup() {
+        deleteAll();
+        baseUrl = "http://localhost:" + port + "/api/disease-cases";
+
+        Disease covid = new Disease();
+        covid.setName("COVID-19");
+        covid = diseaseRepository.save(covid);
+
+        Location france = createTestLocation("France", Country.ContinentEnum.EUROPE, Country.WHORegionEnum.Europe);
+        Location japan = createTestLocation("Japan", Country.ContinentEnum.ASIA, Country.WHORegionEnum.Western_Pacific);
+        for (int day = 1; day <= 5; day++) {
+            createTestCase(covid, france, LocalDate.of(2020, 3, day), day * 10);
+            createTestCase(covid, japan, LocalDate.of(2020, 3, day), day);
+        }
+        // The aggregate endpoints read the rollup, rebuilt by the ETL after each import
+        dailyRollupService.rebuild();
+        kpiCounterStore.rebuild();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        deleteAll();
+    }
+
+    private void deleteAll() {
+        dailyCountryRollupRepository.deleteAllInBatch();
+        diseaseCaseRepository.deleteAllInBatch();
+        locationRepository.deleteAllInBatch();
+        regionRepository.deleteAllInBatch();
+        countryRepository.deleteAllInBatch();
+        diseaseRepository.deleteAllInBatch();
+        locationNameIndex.invalidate();
+    }
+
+    /**
+     * Helper to create a country with a single region and location
+     */
+    private Location createTestLocation(String countryName, Country.ContinentEnum continent, Country.WHORegionEnum whoRegion) {
+        Country country = countryRepository.save(new Country(countryName, continent, whoRegion, 1000L, 10));
+        Region region = new Region();
+        region.setName(countryName + " - region standard");
+        region.setCountry(country);
+        region = regionRepository.save(region);
+        Location location = new Location();
+        location.setName(countryName);
+        location.setRegion(region);
+        return locationRepository.save(location);
+    }
+
+    private void createTestCase(Disease disease, Location location, LocalDate date, int confirmed) {
+        DiseaseCase diseaseCase = new DiseaseCase();
+        diseaseCase.setDisease(disease);
+        diseaseCase.setLocation(location);
+        diseaseCase.setDate(date);
+        diseaseCase.setConfirmedCases(confirmed);
+        diseaseCase.setDeaths(0);
+        diseaseCase.setRecovered(0);
+        diseaseCaseRepository.save(diseaseCase);
+    }
+
+    private List<Map<String, Object>> getAggregated(String query) {
+        ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+            baseUrl + "/aggregated-by-date" + query, HttpMethod.GET, null,
+            new ParameterizedTypeReference<List<Map<String, Object>>>() {});
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        return response.getBody();
+    }
+
+    @Test
+    @DisplayName("should return every date and country when no filter is given")
+    public void testGetAggregatedWithoutFilter() {
+        // Action
+        List<Map<String, Object>> rows = getAggregated("");
+
+        // Assertion
+        assertEquals(10, rows.size());
+        assertEquals("2020-03-01", rows.get(0).get("date"));
+    }
+
+    @Test
+    @DisplayName("should return only the requested date window")
+    public void testGetAggregatedByDateRange() {
+        // Action
+        List<Map<String, Object>> rows = getAggregated("?start=2020-03-02&end=2020-03-03");
+
+        // Assertion
+        assertEquals(4, rows.size());
+        assertEquals("2020-03-02", rows.get(0).get("date"));
+        assertEquals("2020-03-03", rows.get(3).get("date"));
+    }
+
+    @Test
+    @DisplayName("should filter by countries, continent and WHO region")
+    public void testGetAggregatedByCountryFilters() {
+        // Action
+        List<Map<String, Object>> byCountry = getAggregated("?start=2020-03-04&countries=Japan");
+        List<Map<String, Object>> byContinent = getAggregated("?continent=EUROPE");
+        List<Map<String, Object>> byWhoRegion = getAggregated("?end=2020-03-01&whoRegion=Western_Pacific");
+        List<Map<String, Object>> noMatch = getAggregated("?countries=France&continent=ASIA");
+
+        // Assertion
+        assertEquals(2, byCountry.size());
+        assertEquals("Japan", byCountry.get(0).get("country"));
+        assertEquals(5, byContinent.size());
+        assertEquals("France", byContinent.get(0).get("country"));
+        assertEquals(50, byContinent.get(4).get("confirmedCases"));
+        assertEquals(1, byWhoRegion.size());
+        assertEquals("Japan", byWhoRegion.get(0).get("country"));
+        assertEquals(0, noMatch.size());
+    }
+
+    @Test
+    @DisplayName("should reflect added and updated cases in the aggregates")
+    public void testWritesRefreshAggregates() {
+        // Arrange
+        Map<String, Object> newCase = Map.of(
+            "date", "2020-03-06", "country", "France", "confirmedCases", 60, "deaths", 1, "recovered", 2);
+
+        // Action
+        restTemplate.postForObject(baseUrl + "/aggregated-by-date", newCase, Map.class);
+        List<Map<String, Object>> afterAdd = getAggregated("?start=2020-03-06&countries=France");
+        Integer id = (Integer) afterAdd.get(0).get("id");
+        restTemplate.exchange(baseUrl + "/aggregated-by-date/" + id, HttpMethod.PUT, new HttpEntity<>(Map.of(
+            "date", "2020-03-07", "country", "France", "confirmedCases", 70, "deaths", 1, "recovered", 2)), Map.class);
+        List<Map<String, Object>> afterUpdate = getAggregated("?start=2020-03-06&countries=France");
+
+        // Assertion
+        assertEquals(1, afterAdd.size());
+        assertEquals(60, afterAdd.get(0).get("confirmedCases"));
+        assertEquals(1, afterUpdate.size());
+        assertEquals("2020-03-07", afterUpdate.get(0).get("date"));
+        assertEquals(70, afterUpdate.get(0).get("confirmedCases"));
+    }
+
+    @Test
+    @DisplayName("should delete a case and remove it from the aggregates")
+    public void testDeleteRefreshesAggregates() {
+        // Arrange
+        Integer id = (Integer) getAggregated("?start=2020-03-05&countries=France").get(0).get("id");
+
+        // Action
+        restTemplate.exchange(baseUrl + "/aggregated-by-date/" + id, HttpMethod.DELETE, null, Map.class);
+        List<Map<String, Object>> afterDelete = getAggregated("?start=2020-03-05&countries=France");
+
+        // Assertion
+        assertTrue(diseaseCaseRepository.findById(id).isEmpty());
+        assertEquals(0, afterDelete.size());
+    }
+
+    @Test
+    @DisplayName("should refresh the aggregates when a country is renamed or deleted")
+    public void testCountryWritesRefreshAggregates() {
+        // Arrange
+        Country japan = countryRepository.findByName("Japan");
+        String countriesUrl = "http://localhost:" + port + "/api/countries/";
+
+        // Action
+        restTemplate.exchange(countriesUrl + japan.getId(), HttpMethod.PUT, new HttpEntity<>(Map.of(
+            "name", "Nippon", "continent", "ASIA", "whoRegion", "Western_Pacific")), Map.class);
+        List<Map<String, Object>> afterRename = getAggregated("?countries=Nippon");
+        restTemplate.exchange(countriesUrl + japan.getId(), HttpMethod.DELETE, null, Void.class);
+        List<Map<String, Object>> afterDelete = getAggregated("");
+        Map<?, ?> kpi = restTemplate.getForObject(baseUrl + "/kpi", Map.class);
+
+        // Assertion
+        assertEquals(5, afterRename.size());
+        assertEquals("Nippon", afterRename.get(0).get("country"));
+        assertEquals(5, afterDelete.size());
+        assertTrue(afterDelete.stream().allMatch(row -> "France".equals(row.get("country"))));
+        assertEquals(150, kpi.get("totalCases"));
+    }
+
+    @Test
+    @DisplayName("should refuse writes while a staged import runs, and keep serving reads")
+    public void testWritesRefusedDuringStagedImport() {
+        // Arrange
+        Map<String, Object> newCase = Map.of(
+            "date", "2020-03-06", "country", "France", "confirmedCases", 60, "deaths", 1, "recovered", 2);
+        Country japan = countryRepository.findByName("Japan");
+        importProgress.start(ImportMode.STAGED, 1000);
+
+        // Action
+        ResponseEntity<Map> add;
+        ResponseEntity<Map> delete;
+        List<Map<String, Object>> rows;
+        try {
+            add = restTemplate.postForEntity(baseUrl + "/aggregated-by-date", newCase, Map.class);
+            delete = restTemplate.exchange("http://localhost:" + port + "/api/countries/" + japan.getId(),
+                HttpMethod.DELETE, null, Map.class);
+            rows = getAggregated("");
+        } finally {
+            importProgress.complete();
+        }
+
+        // Assertion
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, add.getStatusCode());
+        assertEquals(false, add.getBody().get("success"));
+        assertNotNull(add.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, delete.getStatusCode());
+        assertEquals(10, rows.size());
+        assertEquals(10, diseaseCaseRepository.count());
+    }
+
+    @Test
+    @DisplayName("should aggregate by continent, WHO region and world")
+    public void testGetAggregatedByGroup() {
+        // Action
+        List<Map<String, Object>> byContinent = getAggregated("/continents?start=2020-03-05");
+        List<Map<String, Object>> byWhoRegion = getAggregated("/who-regions?end=2020-03-01");
+        List<Map<String, Object>> world = getAggregated("/world?start=2020-03-02&end=2020-03-02");
+
+        // Assertion
+        assertEquals(2, byContinent.size());
+        assertEquals("ASIA", byContinent.get(0).get("continent"));
+        assertEquals(5, byContinent.get(0).get("confirmedCases"));
+        assertEquals(2, byWhoRegion.size());
+        assertEquals(1, world.size());
+        assertEquals(22, world.get(0).get("confirmedCases"));
+    }
+
+    @Test
+    @DisplayName("should keep the KPI totals up to date when a case is added")
+    public void testKpiFollowsWrites() {
+        // Arrange
+        Map<String, Object> newCase = Map.of(
+            "date", "2020-03-06", "country", "Japan", "confirmedCases", 6, "deaths", 1, "recovered", 2);
+
+        // Action
+        Map<?, ?> before = restTemplate.getForObject(baseUrl + "/kpi", Map.class);
+        restTemplate.postForObject(baseUrl + "/aggregated-by-date", newCase, Map.class);
+        Map<?, ?> after = restTemplate.getForObject(baseUrl + "/kpi", Map.class);
+
+        // Assertion
+        assertEquals(165, before.get("totalCases"));
+        assertEquals(0, before.get("totalDeaths"));
+        assertEquals(171, after.get("totalCases"));
+        assertEquals(1, after.get("totalDeaths"));
+        assertEquals(2, after.get("totalRecovered"));
+    }
+
+    @Test
+    @DisplayName("should compute KPI totals by date window, countries and continent")
+    public void testFilteredKpi() {
+        // Action
+        Map<?, ?> window = restTemplate.getForObject(baseUrl + "/kpi?start=2020-03-04", Map.class);
+        Map<?, ?> france = restTemplate.getForObject(baseUrl + "/kpi?countries=France&end=2020-03-02", Map.class);
+        Map<?, ?> byContinent = restTemplate.getForObject(baseUrl + "/kpi/continents", Map.class);
+        Map<?, ?> byWhoRegion = restTemplate.getForObject(baseUrl + "/kpi/who-regions?start=2020-03-05", Map.class);
+
+        // Assertion
+        assertEquals(99, window.get("totalCases"));
+        assertEquals(30, france.get("totalCases"));
+        assertEquals(2, byContinent.size());
+        assertEquals(150, ((Map<?, ?>) byContinent.get("EUROPE")).get("totalCases"));
+        assertEquals(5, ((Map<?, ?>) byWhoRegion.get("Western_Pacific")).get("totalCases"));
+    }
+
+    @Test
+    @DisplayName("should stream the filtered cases as CSV or NDJSON")
+    public void testExport() {
+        // Action
+        ResponseEntity<String> csv = restTemplate.getForEntity(
+            baseUrl + "/export?format=csv&start=2020-03-04&countries=France&fields=date,location,confirmedCases",
+            String.class);
+        String ndjson = restTemplate.getForObject(baseUrl + "/export?end=2020-03-01", String.class);
+        ResponseEntity<String> badField = restTemplate.getForEntity(baseUrl + "/export?fields=password", String.class);
+
+        // Assertion
+        assertEquals(HttpStatus.OK, csv.getStatusCode());
+        assertEquals("date,location,confirmedCases\n2020-03-04,France,40\n2020-03-05,France,50\n", csv.getBody());
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":"));
+        assertTrue(lines[0].contains("\"region\":\"France - region standard\""));
+        assertEquals(HttpStatus.BAD_REQUEST, badField.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("should page through the cases by date with continuation tokens")
+    public void testGetDiseaseCasesByCursor() {
+        // Action
+        List<Object> dates = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            Map<?, ?> page = restTemplate.getForObject(baseUrl + "/cursor?size=3&cursor=" + cursor, Map.class);
+            for (Object row : (List<?>) page.get("content")) {
+                dates.add(((Map<?, ?>) row).get("date"));
+            }
+            cursor = (String) page.get("nextCursor");
+            pages++;
+        } while (cursor != null);
+
+        // Assertion
+        assertEquals(4, pages);
+        assertEquals(10, dates.size());
+        assertEquals("2020-03-01", dates.get(0));
+        assertEquals("2020-03-01", dates.get(1));
+        assertEquals("2020-03-05", dates.get(9));
+    }
+
+    @Test
+    @DisplayName("should return flat cases from the list and detail endpoints")
+    public void testListAndDetailAreFlat() {
+        // Action
+        Map<?, ?> page = restTemplate.getForObject(baseUrl + "?page=0&size=4", Map.class);
+        Map<?, ?> first = (Map<?, ?>) ((List<?>) page.get("content")).get(0);
+        Map<?, ?> detail = restTemplate.getForObject(baseUrl + "/" + first.get("id"), Map.class);
+
+        // Assertion
+        assertEquals(4, ((List<?>) page.get("content")).size());
+        assertEquals("COVID-19", first.get("disease"));
+        assertEquals(first.get("country"), first.get("location"));
+        assertEquals(first.get("country") + " - region standard", first.get("region"));
+        assertEquals(first, detail);
+    }
+
+    @Test
+    @DisplayName("should insert a batch of cases and report the rejected rows")
+    public void testAddDiseaseCasesBatch() {
+        // Arrange
+        List<Map<String, Object>> rows = List.of(
+            Map.of("date", "2020-03-06", "country", "France", "confirmedCases", 60, "deaths", 1, "recovered", 2),
+            Map.of("date", "2020-03-06", "country", "japan", "confirmedCases", 6, "deaths", 0, "recovered", 0),
+            Map.of("date", "2020-03-07", "country", "France", "confirmedCases", 70, "deaths", 2, "recovered", 3),
+            Map.of("date", "not a date", "country", "France", "confirmedCases", 1, "deaths", 0, "recovered", 0),
+            Map.of("date", "2020-03-06", "country", "France", "disease", "Flu", "confirmedCases", 1, "deaths", 0,
+                "recovered", 0));
+
+        // Action
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+            baseUrl + "/aggregated-by-date/batch", HttpMethod.POST, new HttpEntity<>(rows),
+            new ParameterizedTypeReference<Map<String, Object>>() {});
+        List<Map<String, Object>> france = getAggregated("?start=2020-03-06&countries=France");
+        Map<?, ?> kpi = restTemplate.getForObject(baseUrl + "/kpi", Map.class);
+
+        // Assertion
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3, response.getBody().get("inserted"));
+        assertEquals(2, response.getBody().get("rejected"));
+        List<?> results = (List<?>) response.getBody().get("results");
+        assertEquals(5, results.size());
+        assertEquals(true, ((Map<?, ?>) results.get(0)).get("success"));
+        assertNotNull(((Map<?, ?>) results.get(0)).get("id"));
+        assertEquals(false, ((Map<?, ?>) results.get(3)).get("success"));
+        assertNotNull(((Map<?, ?>) results.get(4)).get("error"));
+        assertEquals(2, france.size());
+        assertEquals(70, france.get(1).get("confirmedCases"));
+        assertEquals(301, kpi.get("totalCases"));
+    }
+
+    @Test
+    @DisplayName("should accept a batch of cases as NDJSON")
+    public void testAddDiseaseCasesBatchFromNdjson() {
+        // Arrange
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+        String body = "{\"date\":\"2020-03-06\",\"country\":\"Japan\",\"confirmedCases\":6,\"deaths\":0,\"recovered\":0}\n"
+            + "{\"date\":\"2020-03-07\",\"country\":\"Japan\",\"confirmedCases\":7,\"deaths\":0,\"recovered\":0}\n";
+
+        // Action
+        Map<?, ?> response = restTemplate.postForObject(
+            baseUrl + "/aggregated-by-date/batch", new HttpEntity<>(body, headers), Map.class);
+        ResponseEntity<Map> invalid = restTemplate.postForEntity(
+            baseUrl + "/aggregated-by-date/batch", new HttpEntity<>("{\"date\":", headers), Map.class);
+
+        // Assertion
+        assertEquals(true, response.get("success"));
+        assertEquals(2, response.get("inserted"));
+        assertEquals(2, getAggregated("?start=2020-03-06&countries=Japan").size());
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+    }
+}
@@ -1,8 +1,11 @@
 package mspr.backend.integration.controller;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +23,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 
 import mspr.backend.entity.Disease;
+import mspr.backend.entity.DiseaseCase;
+import mspr.backend.repository.DiseaseCaseRepository;
 import mspr.backend.repository.DiseaseRepository;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -35,10 +40,14 @@ public class DiseaseControllerTest {
     @Autowired
     private DiseaseRepository diseaseRepository;
 
+    @Autowired
+    private DiseaseCaseRepository diseaseCaseRepository;
+
     private String baseUrl;
 
     @BeforeEach
     public void setup() {
+        diseaseCaseRepository.deleteAllInBatch();
         diseaseRepository.deleteAll();
         baseUrl = "http://localhost:" + port + "/api/diseases";
     }
@@ -157,4 +166,33 @@ public class DiseaseControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNull(response.getBody());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should return diseases without their cases, listed page by page by GET /api/diseases/{id}/cases")
+    public void testGetDiseaseCases() {
+        // Arrange
+        Disease disease = createTestDisease("COVID-19");
+        for (int day = 3; day >= 1; day--) {
+            DiseaseCase diseaseCase = new DiseaseCase();
+            diseaseCase.setDisease(disease);
+            diseaseCase.setDate(LocalDate.of(2020, 3, day));
+            diseaseCase.setConfirmedCases(day);
+            diseaseCase.setDeaths(0);
+            diseaseCase.setRecovered(0);
+            diseaseCaseRepository.save(diseaseCase);
+        }
+
+        // Action
+        Map<?, ?> retrieved = restTemplate.getForObject(baseUrl + "/" + disease.getId(), Map.class);
+        Map<?, ?> firstPage = restTemplate.getForObject(baseUrl + "/" + disease.getId() + "/cases?size=2", Map.class);
+        ResponseEntity<String> invalid = restTemplate.getForEntity(baseUrl + "/" + disease.getId() + "/cases?size=0", String.class);
+
+        // Assertion
+        assertFalse(retrieved.containsKey("diseaseCases"));
+        List<?> content = (List<?>) firstPage.get("content");
+        assertEquals(2, content.size());
+        assertEquals("2020-03-01", ((Map<?, ?>) content.get(0)).get("date"));
+        assertEquals("COVID-19", ((Map<?, ?>) content.get(0)).get("disease"));
+        assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+    }
+}
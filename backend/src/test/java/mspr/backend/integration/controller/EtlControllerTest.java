@@ -0,0 +1,91 @@
+package mspr.backend.integration.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import mspr.backend.dto.ImportStatusDto;
+import mspr.backend.etl.helpers.ImportMode;
+import mspr.backend.etl.helpers.ImportProgress;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class EtlControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ImportProgress importProgress;
+
+    private String baseUrl;
+
+    @BeforeEach
+    public void setup() {
+        baseUrl = "http://localhost:" + port + "/api/etl";
+    }
+
+    @Test
+    @DisplayName("should report the progress of a running import")
+    public void testGetImportStatusWhileRunning() {
+        // Arrange
+        importProgress.start(ImportMode.FULL, 1000);
+        importProgress.markGenerationUnavailable();
+        importProgress.fileStarted("full_grouped.csv");
+        importProgress.addParsed(120, 250);
+        importProgress.addPersisted(100);
+
+        // Act
+        ResponseEntity<ImportStatusDto> response = restTemplate.getForEntity(baseUrl + "/status", ImportStatusDto.class);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ImportStatusDto status = response.getBody();
+        assertNotNull(status);
+        assertEquals("RUNNING", status.getStatus());
+        assertEquals("FULL", status.getMode());
+        assertEquals(1, status.getCurrentFiles().size());
+        assertEquals(120, status.getRowsParsed());
+        assertEquals(100, status.getRowsPersisted());
+        assertEquals(25.0, status.getPercent());
+        assertNotNull(status.getEtaMs());
+        assertFalse(status.isGenerationAvailable());
+    }
+
+    @Test
+    @DisplayName("should expose the last good generation once the import completes")
+    public void testGetImportStatusWhenCompleted() {
+        // Arrange
+        importProgress.start(ImportMode.FULL, 1000);
+        importProgress.addParsed(400, 1000);
+        importProgress.complete();
+
+        // Act
+        ResponseEntity<ImportStatusDto> response = restTemplate.getForEntity(baseUrl + "/status", ImportStatusDto.class);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ImportStatusDto status = response.getBody();
+        assertNotNull(status);
+        assertEquals("COMPLETED", status.getStatus());
+        assertTrue(status.getCurrentFiles().isEmpty());
+        assertNull(status.getEtaMs());
+        assertTrue(status.isGenerationAvailable());
+        assertNotNull(status.getLastGoodGenerationAt());
+    }
+}
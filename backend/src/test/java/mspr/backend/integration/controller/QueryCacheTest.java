@@ -0,0 +1,227 @@
+package mspr.backend.integration.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import mspr.backend.config.CacheConfig;
+import mspr.backend.entity.Country;
+import mspr.backend.entity.Disease;
+import mspr.backend.entity.DiseaseCase;
+import mspr.backend.entity.Location;
+import mspr.backend.entity.Region;
+import mspr.backend.repository.CountryRepository;
+import mspr.backend.repository.DailyCountryRollupRepository;
+import mspr.backend.repository.DiseaseCaseRepository;
+import mspr.backend.repository.DiseaseRepository;
+import mspr.backend.repository.LocationRepository;
+import mspr.backend.repository.RegionRepository;
+import mspr.backend.service.DailyRollupService;
+import mspr.backend.service.LocationNameIndex;
+import mspr.backend.service.QueryCacheService;
+
+/**
+ * Integration tests for the read endpoints' result cache, enabled here unlike in the other tests.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.cache.type=caffeine")
+@ActiveProfiles("test")
+public class QueryCacheTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private QueryCacheService queryCacheService;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private DiseaseRepository diseaseRepository;
+
+    @Autowired
+    private DiseaseCaseRepository diseaseCaseRepository;
+
+    @Autowired
+    private DailyCountryRollupRepository dailyCountryRollupRepository;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private LocationNameIndex locationNameIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String baseUrl;
+
+    @BeforeEach
+    public void setup() {
+        deleteAll();
+        baseUrl = "http://localhost:" + port + "/api/countries";
+    }
+
+    @AfterEach
+    public void cleanup() {
+        deleteAll();
+    }
+
+    private void deleteAll() {
+        dailyCountryRollupRepository.deleteAllInBatch();
+        diseaseCaseRepository.deleteAllInBatch();
+        locationRepository.deleteAllInBatch();
+        regionRepository.deleteAllInBatch();
+        countryRepository.deleteAllInBatch();
+        diseaseRepository.deleteAllInBatch();
+        locationNameIndex.invalidate();
+        queryCacheService.evictAll();
+    }
+
+    @Test
+    @DisplayName("should serve cached results until a write goes through the API")
+    public void testCachedUntilWrite() {
+        // Arrange
+        Country country = new Country();
+        country.setName("France");
+        country = countryRepository.save(country);
+        String url = baseUrl + "/" + country.getId();
+
+        // Action
+        Country first = restTemplate.getForObject(url, Country.class);
+        country.setName("Changed behind the cache");
+        countryRepository.save(country);
+        Country cached = restTemplate.getForObject(url, Country.class);
+        Country update = new Country();
+        update.setName("République française");
+        restTemplate.put(url, update);
+        Country afterWrite = restTemplate.getForObject(url, Country.class);
+
+        // Assertion
+        assertEquals("France", first.getName());
+        assertEquals("France", cached.getName());
+        assertEquals("République française", afterWrite.getName());
+    }
+
+    @Test
+    @DisplayName("should export the cache statistics as metrics")
+    public void testCacheMetrics() {
+        // Arrange
+        Country country = new Country();
+        country.setName("Japan");
+        country = countryRepository.save(country);
+
+        // Action
+        restTemplate.getForObject(baseUrl + "/" + country.getId(), Country.class);
+        restTemplate.getForObject(baseUrl + "/" + country.getId(), Country.class);
+        ResponseEntity<Map> response = restTemplate.getForEntity(
+            "http://localhost:" + port + "/actuator/metrics/cache.gets?tag=cache:countries&tag=result:hit", Map.class);
+
+        // Assertion
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("should not serve cached aggregates of a deleted country")
+    public void testAggregatesEvictedOnCountryDelete() {
+        // Arrange
+        Country country = countryRepository.save(new Country("France", Country.ContinentEnum.EUROPE,
+                Country.WHORegionEnum.Europe, 1000L, 10));
+        Region region = new Region();
+        region.setName("France - region standard");
+        region.setCountry(country);
+        Location location = new Location();
+        location.setName("France");
+        location.setRegion(regionRepository.save(region));
+        Disease covid = new Disease();
+        covid.setName("COVID-19");
+        DiseaseCase diseaseCase = new DiseaseCase();
+        diseaseCase.setDisease(diseaseRepository.save(covid));
+        diseaseCase.setLocation(locationRepository.save(location));
+        diseaseCase.setDate(LocalDate.of(2020, 3, 1));
+        diseaseCase.setConfirmedCases(10);
+        diseaseCase.setDeaths(0);
+        diseaseCase.setRecovered(0);
+        diseaseCaseRepository.save(diseaseCase);
+        dailyRollupService.rebuild();
+        String aggregatedUrl = "http://localhost:" + port + "/api/disease-cases/aggregated-by-date";
+
+        // Action
+        List<?> before = restTemplate.getForObject(aggregatedUrl, List.class);
+        restTemplate.exchange(baseUrl + "/" + country.getId(), HttpMethod.DELETE, null, Void.class);
+        List<?> after = restTemplate.getForObject(aggregatedUrl, List.class);
+
+        // Assertion
+        assertEquals(1, before.size());
+        assertEquals(0, after.size());
+    }
+
+    @Test
+    @DisplayName("should evict cached results only once the transaction commits")
+    public void testEvictionAfterCommit() {
+        // Arrange
+        Cache cache = cacheManager.getCache(CacheConfig.COUNTRIES);
+        cache.put("key", "value");
+
+        // Action
+        Object[] duringTransaction = new Object[1];
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cache.clear();
+            duringTransaction[0] = cache.get("key");
+        });
+
+        // Assertion
+        assertNotNull(duringTransaction[0]);
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    @DisplayName("should weigh cached results by their number of rows")
+    public void testWeighedByRows() {
+        // Arrange
+        Cache cache = cacheManager.getCache(CacheConfig.DISEASE_CASE_AGGREGATES);
+        CaffeineCache caffeineCache = (CaffeineCache) ((TransactionAwareCacheDecorator) cache).getTargetCache();
+
+        // Action
+        cache.put("rows", List.of(1, 2, 3));
+        cache.put("single", "value");
+        caffeineCache.getNativeCache().cleanUp();
+
+        // Assertion
+        assertEquals(4, caffeineCache.getNativeCache().policy().eviction().orElseThrow().weightedSize().getAsLong());
+    }
+}
@@ -0,0 +1,224 @@
+package mspr.backend.integration.controller;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import mspr.backend.entity.Country;
+import mspr.backend.entity.Disease;
+import mspr.backend.entity.DiseaseCase;
+import mspr.backend.entity.Location;
+import mspr.backend.entity.Region;
+import mspr.backend.repository.CountryRepository;
+import mspr.backend.repository.DailyCountryRollupRepository;
+import mspr.backend.repository.DiseaseCaseRepository;
+import mspr.backend.repository.DiseaseRepository;
+import mspr.backend.repository.LocationRepository;
+import mspr.backend.repository.RegionRepository;
+import mspr.backend.service.DailyRollupService;
+import mspr.backend.service.KpiCounterStore;
+
+/**
+ * Number of SQL statements run by each read endpoint, counted with Hibernate statistics.
+ * The fixture has several countries, regions, locations and cases, so that lazy loading of an
+ * association (N+1 selects) shows up as a higher count.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class QueryCountTest {
+
+    private static final int COUNTRIES = 4;
+    private static final int DAYS = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DiseaseCaseRepository diseaseCaseRepository;
+
+    @Autowired
+    private DiseaseRepository diseaseRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private DailyCountryRollupRepository dailyCountryRollupRepository;
+
+    @Autowired
+    private DailyRollupService dailyRollupService;
+
+    @Autowired
+    private KpiCounterStore kpiCounterStore;
+
+    private Statistics statistics;
+
+    private String baseUrl;
+
+    private Disease covid;
+
+    private Location firstLocation;
+
+    private Region firstRegion;
+
+    private Country firstCountry;
+
+    @BeforeEach
+    public void setup() {
+        deleteAll();
+        baseUrl = "http://localhost:" + port + "/api";
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        covid = new Disease();
+        covid.setName("COVID-19");
+        covid = diseaseRepository.save(covid);
+        for (int i = 0; i < COUNTRIES; i++) {
+            Location location = createTestLocation("Country " + i);
+            for (int day = 1; day <= DAYS; day++) {
+                createTestCase(location, LocalDate.of(2020, 3, day));
+            }
+            if (i == 0) {
+                firstLocation = location;
+            }
+        }
+        firstRegion = firstLocation.getRegion();
+        firstCountry = firstRegion.getCountry();
+        dailyRollupService.rebuild();
+        kpiCounterStore.rebuild();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        deleteAll();
+    }
+
+    private void deleteAll() {
+        dailyCountryRollupRepository.deleteAllInBatch();
+        diseaseCaseRepository.deleteAllInBatch();
+        locationRepository.deleteAllInBatch();
+        regionRepository.deleteAllInBatch();
+        countryRepository.deleteAllInBatch();
+        diseaseRepository.deleteAllInBatch();
+    }
+
+    private Location createTestLocation(String countryName) {
+        Country country = countryRepository.save(
+            new Country(countryName, Country.ContinentEnum.EUROPE, Country.WHORegionEnum.Europe, 1000L, 10));
+        Region region = new Region();
+        region.setName(countryName + " - region standard");
+        region.setCountry(country);
+        region = regionRepository.save(region);
+        Location location = new Location();
+        location.setName(countryName);
+        location.setRegion(region);
+        return locationRepository.save(location);
+    }
+
+    private void createTestCase(Location location, LocalDate date) {
+        DiseaseCase diseaseCase = new DiseaseCase();
+        diseaseCase.setDisease(covid);
+        diseaseCase.setLocation(location);
+        diseaseCase.setDate(date);
+        diseaseCase.setConfirmedCases(10);
+        diseaseCase.setDeaths(1);
+        diseaseCase.setRecovered(2);
+        diseaseCaseRepository.save(diseaseCase);
+    }
+
+    /**
+     * Calls a GET endpoint and returns the number of statements it prepared.
+     */
+    private long statementsFor(String path) {
+        statistics.clear();
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + path, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode(), path + ": " + response.getBody());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("should read countries in a single statement per page")
+    public void testCountryEndpoints() {
+        // Action & Assertion (a page of every row skips the count query)
+        assertEquals(1, statementsFor("/countries?size=10"));
+        assertEquals(2, statementsFor("/countries?size=2"));
+        assertEquals(1, statementsFor("/countries/cursor?size=10"));
+        assertEquals(1, statementsFor("/countries/" + firstCountry.getId()));
+    }
+
+    @Test
+    @DisplayName("should read regions with their country without extra selects")
+    public void testRegionEndpoints() {
+        // Action & Assertion
+        assertEquals(1, statementsFor("/regions?size=10"));
+        assertEquals(2, statementsFor("/regions?size=2"));
+        assertEquals(1, statementsFor("/regions/cursor?size=10"));
+        assertEquals(1, statementsFor("/regions/" + firstRegion.getId()));
+        assertEquals(1, statementsFor("/regions/name/" + firstRegion.getName()));
+    }
+
+    @Test
+    @DisplayName("should read locations with their region and country without extra selects")
+    public void testLocationEndpoints() {
+        // Action & Assertion
+        assertEquals(1, statementsFor("/locations?size=10"));
+        assertEquals(2, statementsFor("/locations?size=2"));
+        assertEquals(1, statementsFor("/locations/cursor?size=10"));
+        assertEquals(1, statementsFor("/locations/" + firstLocation.getId()));
+        assertEquals(1, statementsFor("/locations/name/" + firstLocation.getName()));
+    }
+
+    @Test
+    @DisplayName("should read diseases without their cases in a single statement, and their cases page by page")
+    public void testDiseaseEndpoints() {
+        // Action & Assertion
+        assertEquals(1, statementsFor("/diseases"));
+        assertEquals(1, statementsFor("/diseases/" + covid.getId()));
+        assertEquals(1, statementsFor("/diseases/name/COVID-19"));
+        assertEquals(2, statementsFor("/diseases/" + covid.getId() + "/cases?size=5"));
+    }
+
+    @Test
+    @DisplayName("should read disease cases and aggregates in a constant number of statements")
+    public void testDiseaseCaseEndpoints() {
+        // Arrange
+        Integer caseId = diseaseCaseRepository.findAll().get(0).getId();
+
+        // Action & Assertion
+        assertEquals(2, statementsFor("/disease-cases?size=5"));
+        assertEquals(1, statementsFor("/disease-cases/cursor?size=5"));
+        assertEquals(1, statementsFor("/disease-cases/" + caseId));
+        assertEquals(0, statementsFor("/disease-cases/kpi"));
+        assertEquals(1, statementsFor("/disease-cases/kpi?start=2020-03-02"));
+        assertEquals(1, statementsFor("/disease-cases/kpi/continents"));
+        assertEquals(1, statementsFor("/disease-cases/aggregated-by-date"));
+        assertEquals(1, statementsFor("/disease-cases/aggregated-by-date/continents"));
+        assertEquals(1, statementsFor("/disease-cases/aggregated-by-date/world"));
+    }
+}
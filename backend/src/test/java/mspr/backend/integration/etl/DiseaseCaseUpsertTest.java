@@ -0,0 +1,203 @@
+package mspr.backend.integration.etl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import mspr.backend.entity.Country;
+import mspr.backend.entity.Disease;
+import mspr.backend.entity.DiseaseCase;
+import mspr.backend.entity.Location;
+import mspr.backend.entity.Region;
+import mspr.backend.etl.helpers.PersistenceHelper;
+import mspr.backend.etl.helpers.PersistenceMode;
+import mspr.backend.repository.CountryRepository;
+import mspr.backend.repository.DiseaseCaseRepository;
+import mspr.backend.repository.DiseaseRepository;
+import mspr.backend.repository.LocationRepository;
+import mspr.backend.repository.RegionRepository;
+
+/**
+ * Integration tests for the keyed writes of the imported disease cases.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+public class DiseaseCaseUpsertTest {
+
+    private static final String COMPLETE = "covid_19_clean_complete.csv";
+    private static final String GROUPED = "full_grouped.csv";
+
+    @Autowired
+    private PersistenceHelper persistenceHelper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DiseaseCaseRepository diseaseCaseRepository;
+
+    @Autowired
+    private DiseaseRepository diseaseRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    private Disease covid;
+    private Location france;
+    private Location japan;
+
+    @BeforeEach
+    public void setup() {
+        deleteAll();
+        covid = new Disease();
+        covid.setName("COVID-19");
+        covid = diseaseRepository.save(covid);
+        france = createTestLocation("France");
+        japan = createTestLocation("Japan");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        deleteAll();
+    }
+
+    private void deleteAll() {
+        diseaseCaseRepository.deleteAllInBatch();
+        locationRepository.deleteAllInBatch();
+        regionRepository.deleteAllInBatch();
+        countryRepository.deleteAllInBatch();
+        diseaseRepository.deleteAllInBatch();
+    }
+
+    private Location createTestLocation(String name) {
+        Country country = new Country();
+        country.setName(name);
+        Region region = new Region();
+        region.setName(name + " - region standard");
+        region.setCountry(countryRepository.save(country));
+        Location location = new Location();
+        location.setName(name);
+        location.setRegion(regionRepository.save(region));
+        return locationRepository.save(location);
+    }
+
+    private DiseaseCase diseaseCase(Location location, int day, int confirmed) {
+        return new DiseaseCase(0, 0, confirmed, LocalDate.of(2020, 3, day), location, covid);
+    }
+
+    /**
+     * Writes the cases of a file in chunks of two, as AbstractCsvImportService does.
+     */
+    private void importFile(String source, List<DiseaseCase> diseaseCases, PersistenceMode mode, boolean incremental)
+            throws Exception {
+        long generation = persistenceHelper.nextImportGeneration(source);
+        for (int i = 0; i < diseaseCases.size(); i += 2) {
+            List<DiseaseCase> chunk = new ArrayList<>(diseaseCases.subList(i, Math.min(i + 2, diseaseCases.size())));
+            for (DiseaseCase diseaseCase : chunk) {
+                diseaseCase.setSource(source);
+                diseaseCase.setImportGeneration(generation);
+            }
+            persistenceHelper.saveDiseaseCases(chunk, mode, incremental);
+        }
+        if (incremental) {
+            persistenceHelper.deleteStaleDiseaseCases(source, generation);
+        }
+    }
+
+    private void importFile(String source, List<DiseaseCase> diseaseCases, boolean incremental) throws Exception {
+        importFile(source, diseaseCases, PersistenceMode.BULK, incremental);
+    }
+
+    private List<DiseaseCase> completeV1() {
+        return List.of(diseaseCase(france, 1, 10), diseaseCase(france, 1, 11), // Same key, same chunk
+                diseaseCase(france, 2, 20), diseaseCase(japan, 1, 5), diseaseCase(japan, 2, 6));
+    }
+
+    private List<DiseaseCase> completeV2() {
+        return List.of(diseaseCase(france, 1, 12), diseaseCase(france, 2, 25), diseaseCase(japan, 3, 7));
+    }
+
+    private List<DiseaseCase> grouped() {
+        // Same keys as covid_19_clean_complete.csv, other source
+        return List.of(diseaseCase(france, 1, 100), diseaseCase(japan, 2, 60));
+    }
+
+    // Rows without their ids, which differ from one import to the other
+    private List<String> rows() {
+        return jdbcTemplate.queryForList("SELECT dc.source || '|' || l.name || '|' || dc.date || '|' || dc.confirmed_case"
+                + " FROM disease_case dc JOIN location l ON l.id = dc.location_id ORDER BY dc.source, l.name, dc.date",
+                String.class);
+    }
+
+    @Test
+    @DisplayName("should keep one row per file and key, the last one of the file")
+    public void testFullImportKeepsLastRowOfKey() throws Exception {
+        // Action
+        importFile(COMPLETE, completeV1(), false);
+        importFile(GROUPED, grouped(), false);
+
+        // Assertion
+        List<String> rows = rows();
+        assertEquals(6, rows.size());
+        assertEquals(COMPLETE + "|France|2020-03-01|11", rows.get(0));
+        assertEquals(GROUPED + "|France|2020-03-01|100", rows.get(4));
+    }
+
+    private Integer idOf(String source, Location location, int day) {
+        return jdbcTemplate.queryForObject("SELECT id FROM disease_case WHERE source = ? AND location_id = ? AND date = ?",
+                Integer.class, source, location.getId(), LocalDate.of(2020, 3, day));
+    }
+
+    @Test
+    @DisplayName("should insert the same rows through JPA as through the bulk loader")
+    public void testJpaMatchesBulk() throws Exception {
+        // Arrange
+        importFile(COMPLETE, completeV1(), PersistenceMode.BULK, false);
+        importFile(GROUPED, grouped(), PersistenceMode.BULK, false);
+        List<String> bulk = rows();
+        setup();
+
+        // Action
+        importFile(COMPLETE, completeV1(), PersistenceMode.JPA, false);
+        importFile(GROUPED, grouped(), PersistenceMode.JPA, false);
+
+        // Assertion
+        assertEquals(bulk, rows());
+    }
+
+    @Test
+    @DisplayName("should give the same rows after an incremental import as after a full one")
+    public void testIncrementalMatchesFull() throws Exception {
+        // Arrange
+        importFile(COMPLETE, completeV2(), false);
+        importFile(GROUPED, grouped(), false);
+        List<String> full = rows();
+        setup();
+        importFile(COMPLETE, completeV1(), false);
+        importFile(GROUPED, grouped(), false);
+        Integer franceId = idOf(COMPLETE, france, 1);
+
+        // Action
+        importFile(COMPLETE, completeV2(), true);
+
+        // Assertion
+        assertEquals(full, rows());
+        assertEquals(franceId, idOf(COMPLETE, france, 1)); // Updated in place
+    }
+}
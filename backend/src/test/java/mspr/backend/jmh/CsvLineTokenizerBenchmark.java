@@ -0,0 +1,103 @@
+package mspr.backend.jmh;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import mspr.backend.etl.helpers.CsvLineTokenizer;
+
+/**
+ * Compare le découpage historique par regex ({@code String.split} + {@code trim} + {@code parseXxx})
+ * au {@link CsvLineTokenizer}, sur une ligne de chaque format importé par l'ETL.
+ *
+ * Lancement (depuis backend/) :
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp "target/test-classes:target/classes:$(cat target/cp.txt)" org.openjdk.jmh.Main CsvLineTokenizerBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvLineTokenizerBenchmark {
+
+    // Ancienne expression utilisée par AbstractCsvImportService
+    private static final String CSV_SPLIT_REGEX = ",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)";
+    private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter US_FORMATTER = DateTimeFormatter.ofPattern("M/d/yy");
+
+    private static final String COVID_COMPLETE_LINE =
+            ",Afghanistan,33.93911,67.709953,2020-01-22,0,0,0,0,Eastern Mediterranean";
+    private static final String USA_COUNTY_LINE =
+            "84001001,US,USA,840,1001.0,Autauga,Alabama,US,32.53952745,-86.64408227,\"Autauga, Alabama, US\",7/27/20,1047,22";
+
+    private final CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+
+    @Benchmark
+    public void covidCompleteRegex(Blackhole bh) {
+        String[] fields = COVID_COMPLETE_LINE.split(CSV_SPLIT_REGEX, -1);
+        bh.consume(fields[0].trim());
+        bh.consume(fields[1].trim());
+        bh.consume(Double.parseDouble(fields[2].trim()));
+        bh.consume(Double.parseDouble(fields[3].trim()));
+        bh.consume(LocalDate.parse(fields[4].trim(), ISO_FORMATTER));
+        for (int i = 5; i <= 8; i++) {
+            bh.consume(Integer.parseInt(fields[i].trim()));
+        }
+        bh.consume(fields[9].trim());
+    }
+
+    @Benchmark
+    public void covidCompleteTokenizer(Blackhole bh) {
+        CsvLineTokenizer fields = tokenizer.tokenize(COVID_COMPLETE_LINE);
+        bh.consume(fields.getString(0));
+        bh.consume(fields.getString(1));
+        bh.consume(fields.getDouble(2, 0.0));
+        bh.consume(fields.getDouble(3, 0.0));
+        bh.consume(fields.getIsoDate(4));
+        for (int i = 5; i <= 8; i++) {
+            bh.consume(fields.getInt(i, 0));
+        }
+        bh.consume(fields.getString(9));
+    }
+
+    @Benchmark
+    public void usaCountyRegex(Blackhole bh) {
+        String[] fields = USA_COUNTY_LINE.split(CSV_SPLIT_REGEX, -1);
+        bh.consume(fields[5].trim());
+        bh.consume(fields[6].trim());
+        bh.consume(fields[7].trim());
+        bh.consume(Double.parseDouble(fields[8].trim()));
+        bh.consume(Double.parseDouble(fields[9].trim()));
+        bh.consume(LocalDate.parse(fields[11].trim(), US_FORMATTER));
+        bh.consume(Integer.parseInt(fields[12].trim()));
+        bh.consume(Integer.parseInt(fields[13].trim()));
+    }
+
+    @Benchmark
+    public void usaCountyTokenizer(Blackhole bh) {
+        CsvLineTokenizer fields = tokenizer.tokenize(USA_COUNTY_LINE);
+        bh.consume(fields.getString(5));
+        bh.consume(fields.getString(6));
+        bh.consume(fields.getString(7));
+        bh.consume(fields.getDouble(8, 0.0));
+        bh.consume(fields.getDouble(9, 0.0));
+        bh.consume(fields.getUsShortDate(11));
+        bh.consume(fields.getInt(12, 0));
+        bh.consume(fields.getInt(13, 0));
+    }
+}
@@ -0,0 +1,41 @@
+package mspr.backend.unit.etl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import mspr.backend.entity.Country;
+import mspr.backend.etl.helpers.CleanerHelper;
+
+public class CleanerHelperTest {
+
+    private final CleanerHelper cleanerHelper = new CleanerHelper();
+
+    @Test
+    @DisplayName("should match names ignoring case and extra whitespace")
+    public void testNormalizedLookups() {
+        assertEquals("South Korea", cleanerHelper.cleanCountryName("Korea, South"));
+        assertEquals("South Korea", cleanerHelper.cleanCountryName("  korea,   SOUTH "));
+        assertEquals("France", cleanerHelper.cleanCountryName(" France "));
+        assertTrue(cleanerHelper.isInSkipList("diamond  princess"));
+        assertFalse(cleanerHelper.isInSkipList("Diamond"));
+        assertEquals(Country.ContinentEnum.NORTH_AMERICA, cleanerHelper.cleanContinent(" north   america"));
+        assertEquals(Country.WHORegionEnum.South_East_Asia, cleanerHelper.cleanWhoRegion("south-east asia"));
+    }
+
+    @Test
+    @DisplayName("should fall back to the enum value names")
+    public void testEnumNames() {
+        assertEquals(Country.ContinentEnum.ANTARCTICA, cleanerHelper.cleanContinent("Antarctica"));
+        assertEquals(Country.ContinentEnum.NORTH_AMERICA, cleanerHelper.cleanContinent("NORTH_AMERICA"));
+        assertEquals(Country.WHORegionEnum.Eastern_Mediterranean, cleanerHelper.cleanWhoRegion("Eastern-Mediterranean"));
+        assertNull(cleanerHelper.cleanContinent("Atlantis"));
+        // Unknown values are memoized as well
+        assertNull(cleanerHelper.cleanWhoRegion("Atlantis"));
+        assertNull(cleanerHelper.cleanWhoRegion("Atlantis"));
+    }
+}
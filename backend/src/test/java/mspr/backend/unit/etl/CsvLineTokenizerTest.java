@@ -0,0 +1,73 @@
+package mspr.backend.unit.etl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import mspr.backend.etl.helpers.CsvLineTokenizer;
+
+public class CsvLineTokenizerTest {
+
+    private final CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+
+    @Test
+    @DisplayName("should split on commas outside quotes and keep trailing empty fields")
+    public void testTokenizeQuotedAndEmptyFields() {
+        tokenizer.tokenize(" a ,\"b, c\",,\"say \"\"hi\"\"\",");
+
+        assertEquals(5, tokenizer.fieldCount());
+        assertEquals("a", tokenizer.getString(0));
+        assertEquals("b, c", tokenizer.getString(1));
+        assertTrue(tokenizer.isEmpty(2));
+        assertEquals("say \"hi\"", tokenizer.getString(3));
+        assertTrue(tokenizer.isEmpty(4));
+    }
+
+    @Test
+    @DisplayName("should parse numbers straight from the buffer")
+    public void testNumbers() {
+        tokenizer.tokenize("1047,-22,\"1,234\",,32.53952745,-86.64408227,1e3");
+
+        assertEquals(1047, tokenizer.getInt(0, 0));
+        assertEquals(-22, tokenizer.getInt(1, 0));
+        assertEquals(1234, tokenizer.getInt(2, 0));
+        assertEquals(7, tokenizer.getInt(3, 7));
+        assertEquals(Double.parseDouble("32.53952745"), tokenizer.getDouble(4, 0.0));
+        assertEquals(Double.parseDouble("-86.64408227"), tokenizer.getDouble(5, 0.0));
+        assertEquals(1000.0, tokenizer.getDouble(6, 0.0));
+        // More fraction digits than exact powers of ten, the mantissa staying small
+        assertEquals(1e-23, tokenizer.tokenize("0.00000000000000000000001").getDouble(0, 0.0));
+        assertEquals(Double.parseDouble("-0.0000000000000000000000012"), tokenizer.tokenize("-0.0000000000000000000000012").getDouble(0, 0.0));
+        assertThrows(NumberFormatException.class, () -> tokenizer.tokenize("12.5").getInt(0, 0));
+        assertThrows(NumberFormatException.class, () -> tokenizer.tokenize("99999999999").getInt(0, 0));
+    }
+
+    @Test
+    @DisplayName("should parse ISO and US short dates")
+    public void testDates() {
+        tokenizer.tokenize("2020-01-22,7/27/20,12/1/21,2020-02-30,1/22/2020");
+
+        assertEquals(LocalDate.of(2020, 1, 22), tokenizer.getIsoDate(0));
+        assertEquals(LocalDate.of(2020, 7, 27), tokenizer.getUsShortDate(1));
+        assertEquals(LocalDate.of(2021, 12, 1), tokenizer.getUsShortDate(2));
+        assertThrows(DateTimeException.class, () -> tokenizer.getIsoDate(3));
+        assertThrows(DateTimeException.class, () -> tokenizer.getUsShortDate(4));
+    }
+
+    @Test
+    @DisplayName("should share the date instances across formats and tokenizers")
+    public void testSharedDates() {
+        LocalDate iso = tokenizer.tokenize("2020-07-27").getIsoDate(0);
+
+        assertSame(iso, new CsvLineTokenizer().tokenize("7/27/20").getUsShortDate(0));
+        assertSame(iso, tokenizer.tokenize("2020-07-27").getIsoDate(0));
+        assertEquals(LocalDate.of(1999, 12, 31), tokenizer.tokenize("1999-12-31").getIsoDate(0));
+    }
+}
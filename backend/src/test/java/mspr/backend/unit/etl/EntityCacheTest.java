@@ -0,0 +1,134 @@
+package mspr.backend.unit.etl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import mspr.backend.entity.Country;
+import mspr.backend.entity.Disease;
+import mspr.backend.entity.Location;
+import mspr.backend.entity.Region;
+import mspr.backend.etl.helpers.cache.AbstractEntityCache;
+import mspr.backend.etl.helpers.cache.CountryCache;
+import mspr.backend.etl.helpers.cache.DiseaseCache;
+import mspr.backend.etl.helpers.cache.LocationCache;
+
+public class EntityCacheTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    @DisplayName("should create each location once when threads race on the same names")
+    public void testConcurrentGetOrCreate() throws Exception {
+        // Arrange
+        LocationCache locationCache = new LocationCache();
+        Country country = new Country();
+        country.setName("USA");
+        Region region = new Region();
+        region.setName("New York");
+        region.setCountry(country);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // Action
+        List<Future<List<Location>>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    start.await(5, TimeUnit.SECONDS);
+                    List<Location> locations = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        locations.add(locationCache.getOrCreate(region, "County " + i));
+                    }
+                    return locations;
+                }));
+            }
+            start.countDown();
+
+            // Assertion
+            List<Location> first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<List<Location>> result : results) {
+                List<Location> locations = result.get(5, TimeUnit.SECONDS);
+                for (int i = 0; i < locations.size(); i++) {
+                    assertSame(first.get(i), locations.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        AbstractEntityCache.Stats stats = locationCache.getStats();
+        assertEquals(100, stats.size());
+        assertEquals(100, stats.misses());
+        assertEquals(100L * (THREADS - 1), stats.hits());
+    }
+
+    @Test
+    @DisplayName("should count hits and misses, and reset them on clear")
+    public void testStats() {
+        // Arrange
+        DiseaseCache diseaseCache = new DiseaseCache();
+
+        // Action
+        Disease covid = diseaseCache.getOrCreate("COVID-19");
+        assertSame(covid, diseaseCache.getOrCreate("COVID-19"));
+        diseaseCache.getOrCreate("Ebola");
+
+        // Assertion
+        assertEquals(new AbstractEntityCache.Stats(1, 2, 2), diseaseCache.getStats());
+        diseaseCache.clear();
+        assertEquals(new AbstractEntityCache.Stats(0, 0, 0), diseaseCache.getStats());
+    }
+
+    @Test
+    @DisplayName("should expose a read-only live view instead of a copy")
+    public void testReadOnlyView() {
+        // Arrange
+        DiseaseCache diseaseCache = new DiseaseCache();
+        var view = diseaseCache.getAll();
+
+        // Action
+        Disease covid = diseaseCache.getOrCreate("COVID-19");
+
+        // Assertion
+        assertSame(covid, view.get("COVID-19"));
+        assertThrows(UnsupportedOperationException.class, () -> view.put("Ebola", new Disease()));
+    }
+
+    @Test
+    @DisplayName("should hand over copies of the saved countries changed since the previous call")
+    public void testTakeModifiedCountries() {
+        // Arrange
+        CountryCache countryCache = new CountryCache();
+        Country saved = new Country("France", Country.ContinentEnum.EUROPE, Country.WHORegionEnum.Europe, 1000L, null);
+        saved.setId(7);
+        Country unsaved = new Country("Japan", null, null, null, null);
+        countryCache.put(saved.getName(), saved);
+        countryCache.put(unsaved.getName(), unsaved);
+
+        // Action
+        countryCache.updatePopulation(saved, 2000L);
+        countryCache.updatePopulation(unsaved, 3000L);
+        List<Country> modified = countryCache.takeModified();
+        countryCache.updatePopulation(saved, 2000L); // Unchanged
+
+        // Assertion
+        assertEquals(1, modified.size());
+        assertNotSame(saved, modified.get(0));
+        assertEquals(7, modified.get(0).getId());
+        assertEquals(2000L, modified.get(0).getPopulation());
+        assertEquals(Country.ContinentEnum.EUROPE, modified.get(0).getContinent());
+        assertEquals(List.of(), countryCache.takeModified());
+    }
+}
@@ -0,0 +1,148 @@
+package mspr.backend.unit.etl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import mspr.backend.etl.helpers.CsvLineTokenizer;
+import mspr.backend.etl.helpers.CsvReaderHelper;
+import mspr.backend.etl.helpers.ParallelCsvParser;
+
+public class ParallelCsvParserTest {
+
+    private static final int THREADS = 2;
+    private static final int BLOCK_SIZE = 16;
+
+    @TempDir
+    private Path directory;
+
+    private ParallelCsvParser parser;
+
+    @BeforeEach
+    public void setup() {
+        parser = new ParallelCsvParser();
+        ReflectionTestUtils.setField(parser, "csvReaderHelper", new CsvReaderHelper());
+        ReflectionTestUtils.setField(parser, "configuredThreads", THREADS);
+        ReflectionTestUtils.setField(parser, "blockSize", BLOCK_SIZE);
+    }
+
+    private static String parseLine(CsvLineTokenizer fields, int lineNumber) {
+        return lineNumber + ":" + fields.getString(0) + "|" + fields.getString(1);
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = directory.resolve("test.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    // Results and line count of the sequential path of AbstractCsvImportService
+    private List<String> parseSequentially(Path file) throws Exception {
+        List<String> results = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (reader.readLine() == null) {
+                results.add("lines=0");
+                return results;
+            }
+            CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+            int lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                results.add(parseLine(tokenizer.tokenize(line), lineNumber));
+            }
+            results.add("lines=" + lineNumber);
+        }
+        return results;
+    }
+
+    private List<String> parseInParallel(Path file) throws Exception {
+        List<String> results = new ArrayList<>();
+        int lines = parser.parse(file, "test.csv", ParallelCsvParserTest::parseLine,
+                (result, lineNumber) -> results.add(result));
+        results.add("lines=" + lines);
+        return results;
+    }
+
+    @Test
+    @DisplayName("should give the results and line numbers of the sequential path, across many small blocks")
+    public void testMatchesSequentialParse() throws Exception {
+        // Arrange: far more than 2 x threads blocks, multi-byte characters and CRLF lines
+        StringBuilder content = new StringBuilder("name,value\n");
+        for (int i = 0; i < 200; i++) {
+            content.append(i % 3 == 0 ? "Côte d'Ivoire " : "line ").append(i).append(',').append(i * 7)
+                    .append(i % 5 == 0 ? "\r\n" : "\n");
+        }
+        Path file = write(content.toString());
+
+        // Action
+        List<String> parallel = parseInParallel(file);
+
+        // Assertion
+        assertEquals(parseSequentially(file), parallel);
+        assertEquals("2:Côte d'Ivoire 0|0", parallel.get(0));
+        assertEquals("lines=201", parallel.get(parallel.size() - 1));
+    }
+
+    @Test
+    @DisplayName("should parse lines longer than a block and a last line without terminator")
+    public void testLongLinesAndLastLine() throws Exception {
+        // Arrange
+        String longValue = "x".repeat(BLOCK_SIZE * 5 + 3);
+        Path file = write("a header longer than one block,b\n" + longValue + ",1\nshort,2\n" + longValue + "é,3\nlast,4");
+
+        // Action
+        List<String> parallel = parseInParallel(file);
+
+        // Assertion
+        assertEquals(parseSequentially(file), parallel);
+        assertEquals(List.of("2:" + longValue + "|1", "3:short|2", "4:" + longValue + "é|3", "5:last|4", "lines=5"), parallel);
+    }
+
+    @Test
+    @DisplayName("should count no line in an empty file and only the header in a header-only file")
+    public void testEmptyAndHeaderOnly() throws Exception {
+        // Action & Assertion
+        assertEquals(List.of("lines=0"), parseInParallel(write("")));
+        assertEquals(List.of("lines=1"), parseInParallel(write("name,value")));
+        assertEquals(List.of("lines=1"), parseInParallel(write("name,value\n")));
+    }
+
+    @Test
+    @DisplayName("should report every byte of the file read, in both paths")
+    public void testByteCounts() throws Exception {
+        // Arrange: multi-byte characters and CRLF terminators
+        StringBuilder content = new StringBuilder("name,value\r\n");
+        for (int i = 0; i < 50; i++) {
+            content.append("Curaçao ").append(i).append(",日本\r\n");
+        }
+        Path file = write(content.toString());
+        AtomicLong parallelBytes = new AtomicLong();
+        AtomicLong sequentialBytes = new AtomicLong();
+
+        // Action
+        parser.parse(file, "test.csv", ParallelCsvParserTest::parseLine, (result, lineNumber) -> { },
+                parallelBytes::addAndGet);
+        try (BufferedReader reader = new CsvReaderHelper().openCsvFile(file, "test.csv", sequentialBytes::addAndGet)) {
+            while (reader.readLine() != null) {
+                // Read to the end
+            }
+        }
+
+        // Assertion
+        assertEquals(Files.size(file), parallelBytes.get());
+        assertEquals(Files.size(file), sequentialBytes.get());
+    }
+}
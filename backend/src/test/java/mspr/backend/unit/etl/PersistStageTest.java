@@ -0,0 +1,138 @@
+package mspr.backend.unit.etl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mspr.backend.etl.exceptions.PersistenceException;
+import mspr.backend.etl.helpers.PersistStage;
+
+public class PersistStageTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("should write the chunks in order, off the submitting thread")
+    public void testWritesInOrder() throws Exception {
+        // Arrange
+        PersistStage stage = new PersistStage("test.csv", 2, meterRegistry);
+        List<Integer> written = new CopyOnWriteArrayList<>();
+        Thread submitter = Thread.currentThread();
+
+        // Action
+        for (int i = 0; i < 10; i++) {
+            int chunk = i;
+            stage.submit(1, () -> {
+                assertTrue(Thread.currentThread() != submitter);
+                written.add(chunk);
+            });
+        }
+        stage.finish(0, System.nanoTime());
+
+        // Assertion
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), written);
+        assertEquals(10, meterRegistry.timer("etl.import.stage", "file", "test.csv", "stage", "persist").count());
+    }
+
+    @Test
+    @DisplayName("should block the submitter while the queue is full")
+    public void testBackpressure() throws Exception {
+        // Arrange
+        PersistStage stage = new PersistStage("test.csv", 1, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        stage.submit(1, () -> release.await(5, TimeUnit.SECONDS)); // Being written
+        stage.submit(1, () -> { }); // Fills the queue
+        Thread submitter = new Thread(() -> {
+            try {
+                stage.submit(1, () -> { });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Action
+        submitter.start();
+        submitter.join(300);
+
+        // Assertion
+        assertTrue(submitter.isAlive());
+        release.countDown();
+        submitter.join(5000);
+        stage.finish(0, System.nanoTime());
+    }
+
+    @Test
+    @DisplayName("should rethrow the failure of a chunk to the submitter")
+    public void testFailure() throws Exception {
+        // Arrange
+        PersistStage stage = new PersistStage("test.csv", 2, meterRegistry);
+        PersistenceException failure = new PersistenceException("Database unavailable");
+
+        // Action
+        stage.submit(1, () -> {
+            throw failure;
+        });
+
+        // Assertion
+        assertSame(failure, assertThrows(PersistenceException.class, () -> stage.finish(0, System.nanoTime())));
+    }
+
+    @Test
+    @DisplayName("should write every chunk in one transaction, committed before finish returns")
+    public void testOneTransaction() throws Exception {
+        // Arrange
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        PersistStage stage = new PersistStage("test.csv", 2, meterRegistry, new TransactionTemplate(transactionManager));
+
+        // Action
+        for (int i = 0; i < 5; i++) {
+            stage.submit(1, () -> { });
+        }
+        stage.finish(0, System.nanoTime());
+
+        // Assertion
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(status);
+        assertFalse(status.isRollbackOnly());
+    }
+
+    @Test
+    @DisplayName("should roll back the writes of the file when a chunk fails")
+    public void testRollbackOnFailure() throws Exception {
+        // Arrange
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        SimpleTransactionStatus status = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        PersistStage stage = new PersistStage("test.csv", 2, meterRegistry, new TransactionTemplate(transactionManager));
+
+        // Action
+        stage.submit(1, () -> { });
+        stage.submit(1, () -> {
+            throw new PersistenceException("Duplicate key");
+        });
+
+        // Assertion
+        assertThrows(PersistenceException.class, () -> stage.finish(0, System.nanoTime()));
+        assertTrue(status.isRollbackOnly());
+    }
+}
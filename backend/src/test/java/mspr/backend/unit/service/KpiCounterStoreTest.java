@@ -0,0 +1,109 @@
+package mspr.backend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import mspr.backend.dto.TotalKpiDto;
+import mspr.backend.entity.DiseaseCase;
+import mspr.backend.repository.DiseaseCaseRepository;
+import mspr.backend.service.KpiCounterStore;
+
+public class KpiCounterStoreTest {
+
+    private final DiseaseCaseRepository diseaseCaseRepository = mock(DiseaseCaseRepository.class);
+    private final KpiCounterStore store = new KpiCounterStore();
+
+    @BeforeEach
+    public void setup() {
+        ReflectionTestUtils.setField(store, "diseaseCaseRepository", diseaseCaseRepository);
+        when(diseaseCaseRepository.getTotals()).thenReturn(new TotalKpiDto(100, 10, 50));
+        store.rebuild();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static DiseaseCase diseaseCase(int confirmedCases, int deaths, int recovered) {
+        DiseaseCase diseaseCase = new DiseaseCase();
+        diseaseCase.setConfirmedCases(confirmedCases);
+        diseaseCase.setDeaths(deaths);
+        diseaseCase.setRecovered(recovered);
+        return diseaseCase;
+    }
+
+    @Test
+    @DisplayName("should keep a write counted while the reconciliation reads the database")
+    public void testReconcileKeepsConcurrentWrites() {
+        // Arrange: a write counted between the read of the sums and their replacement
+        when(diseaseCaseRepository.getTotals()).thenAnswer(invocation -> {
+            store.add(diseaseCase(5, 1, 2));
+            return new TotalKpiDto(100, 10, 50);
+        });
+
+        // Action
+        store.reconcile();
+
+        // Assertion
+        TotalKpiDto kpi = store.getKpi();
+        assertEquals(105, kpi.getTotalCases());
+        assertEquals(11, kpi.getTotalDeaths());
+        assertEquals(52, kpi.getTotalRecovered());
+    }
+
+    @Test
+    @DisplayName("should correct a drift when nothing was written during the reconciliation")
+    public void testReconcileCorrectsDrift() {
+        // Arrange
+        when(diseaseCaseRepository.getTotals()).thenReturn(new TotalKpiDto(120, 12, 60));
+
+        // Action
+        store.reconcile();
+
+        // Assertion
+        assertEquals(120, store.getKpi().getTotalCases());
+    }
+
+    @Test
+    @DisplayName("should count a write made in a transaction only once it commits")
+    public void testAdjustsAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Action
+        store.add(diseaseCase(5, 1, 2));
+        long beforeCommit = store.getKpi().getTotalCases();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Assertion
+        assertEquals(100, beforeCommit);
+        assertEquals(105, store.getKpi().getTotalCases());
+    }
+
+    @Test
+    @DisplayName("should not count a write whose transaction rolls back")
+    public void testIgnoresRollback() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Action
+        store.subtract(diseaseCase(5, 1, 2));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assertion
+        assertEquals(100, store.getKpi().getTotalCases());
+    }
+}
@@ -0,0 +1,95 @@
+package mspr.backend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import mspr.backend.entity.Location;
+import mspr.backend.etl.helpers.CleanerHelper;
+import mspr.backend.repository.LocationRepository;
+import mspr.backend.service.LocationNameIndex;
+
+public class LocationNameIndexTest {
+
+    private final LocationRepository locationRepository = mock(LocationRepository.class);
+    private final LocationNameIndex index = new LocationNameIndex();
+
+    @BeforeEach
+    public void setup() {
+        // Injection manuelle des dépendances
+        ReflectionTestUtils.setField(index, "locationRepository", locationRepository);
+        ReflectionTestUtils.setField(index, "cleanerHelper", new CleanerHelper());
+        when(locationRepository.findAllIdsAndNames()).thenReturn(List.of(
+            new Object[] {1, "France - region standard - location standard"},
+            new Object[] {2, "France"},
+            new Object[] {3, "USA"},
+            new Object[] {4, "New York, New York, US"},
+            new Object[] {5, "South Korea"}
+        ));
+    }
+
+    @Test
+    @DisplayName("should resolve exact, case-insensitive and alias names")
+    public void testResolveExactAndAlias() {
+        assertEquals(Optional.of(2), index.resolve("France"));
+        assertEquals(Optional.of(2), index.resolve("  fRANCE "));
+        assertEquals(Optional.of(3), index.resolve("united states"));
+        assertEquals(Optional.of(5), index.resolve("Korea, South"));
+    }
+
+    @Test
+    @DisplayName("should resolve partial names in both directions, lowest id first")
+    public void testResolveSubstring() {
+        // Name containing the query
+        assertEquals(Optional.of(1), index.resolve("region standard"));
+        assertEquals(Optional.of(4), index.resolve("york"));
+        // Query containing the name
+        assertEquals(Optional.of(3), index.resolve("USA (mainland)"));
+        assertTrue(index.resolve("Atlantis").isEmpty());
+    }
+
+    @Test
+    @DisplayName("should follow location writes without reloading")
+    public void testFollowsWrites() {
+        // Arrange
+        index.resolve("France");
+        Location location = new Location();
+        location.setId(6);
+        location.setName("Atlantis");
+
+        // Action
+        index.put(location);
+        index.remove(2);
+        location.setName("Lemuria");
+        index.put(location);
+
+        // Assertion
+        assertEquals(Optional.of(6), index.resolve("lemuria"));
+        assertTrue(index.resolve("Atlantis").isEmpty());
+        assertEquals(Optional.of(1), index.resolve("France"));
+        verify(locationRepository, times(1)).findAllIdsAndNames();
+    }
+
+    @Test
+    @DisplayName("should reload after an invalidation")
+    public void testInvalidate() {
+        // Action
+        index.resolve("France");
+        index.invalidate();
+        index.resolve("France");
+
+        // Assertion
+        verify(locationRepository, times(2)).findAllIdsAndNames();
+    }
+}
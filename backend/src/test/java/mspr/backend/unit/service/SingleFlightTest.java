@@ -0,0 +1,82 @@
+package mspr.backend.unit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mspr.backend.service.SingleFlight;
+
+public class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+
+    @Test
+    @DisplayName("should run concurrent identical computations once and share the result")
+    public void testCollapsesConcurrentCalls() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("test", "France", () -> {
+                leaderStarted.countDown();
+                awaitQuietly(release);
+                runs.incrementAndGet();
+                return "result";
+            })));
+            leaderStarted.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("test", "France", () -> {
+                    runs.incrementAndGet();
+                    return "other";
+                })));
+            }
+            // Followers are waiting on the leader's flight
+            while (meterRegistry.counter("api.singleflight.calls", "name", "test", "role", "follower").count() < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("result", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, runs.get());
+            assertEquals(1, meterRegistry.counter("api.singleflight.calls", "name", "test", "role", "leader").count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("should run again once the previous computation has ended")
+    public void testNoResultKept() {
+        assertEquals(1, singleFlight.execute("test", "key", () -> 1));
+        assertEquals(2, singleFlight.execute("test", "key", () -> 2));
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("test", "key", () -> {
+            throw new IllegalStateException("failed");
+        }));
+        assertEquals(3, singleFlight.execute("test", "key", () -> 3));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,8 +1,5 @@
-import { DiseaseCase } from './diseaseCase.model';
-
 export interface Disease {
   id: number;
   name: string;
   description: string;
-  diseaseCases: DiseaseCase[];
 }
@@ -2,10 +2,12 @@ export interface DiseaseCase {
   id: number;
   disease: string;
   date: string;
+  country: string;
+  region: string;
+  location: string;
   confirmedCases: number;
   deaths: number;
   recovered: number;
-  location: Location[];
 }
 
 export interface TotalKpiDto {